@@ -0,0 +1,40 @@
+package io.github.createsequence.common.exception;
+
+/**
+ * 连接关闭异常，当请求所使用的连接或连接池恰好因空闲而被回收时抛出，
+ * 此时请求尚未发送，调用方可以改用其他连接重试
+ *
+ * @author huangchengxing
+ */
+public class ConnectionClosingException extends Rpc4jException {
+
+    /**
+     * Constructs a new runtime exception with the specified detail message.
+     * The cause is not initialized, and may subsequently be initialized by a
+     * call to {@link #initCause}.
+     *
+     * @param messageTemplate the detail message. The detail message is saved for
+     *                        later retrieval by the {@link #getMessage()} method.
+     * @param args            args of message template
+     */
+    public ConnectionClosingException(String messageTemplate, Object... args) {
+        super(messageTemplate, args);
+    }
+
+    /**
+     * Constructs a new runtime exception with the specified cause and a
+     * detail message of <tt>(cause==null ? null : cause.toString())</tt>
+     * (which typically contains the class and detail message of
+     * <tt>cause</tt>).  This constructor is useful for runtime exceptions
+     * that are little more than wrappers for other throwables.
+     *
+     * @param cause the cause (which is saved for later retrieval by the
+     *              {@link #getCause()} method).  (A <tt>null</tt> value is
+     *              permitted, and indicates that the cause is nonexistent or
+     *              unknown.)
+     * @since 1.4
+     */
+    public ConnectionClosingException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -1,7 +1,23 @@
 package io.github.createsequence.rpc4j.core.compress;
 
+import io.github.createsequence.common.exception.Rpc4jException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 /**
- * 压缩器
+ * <p>压缩器
+ *
+ * <p>压缩时，编码器将通过{@link #compress(OutputStream)}获取一个输出流，写入其中的数据在压缩后将直接写入输出缓冲区，
+ * 其默认实现将在输出流关闭时，一次性压缩已经写入的全部数据，实现类应当尽可能地重写它以流式地进行压缩。
+ *
+ * <p>解压缩时，解码器将优先通过{@link #decompress(ByteBuffer)}直接读取报文所在的缓冲区，
+ * 仅当报文不在一块连续的内存中时，才会通过{@link #decompress(InputStream)}读取。
+ * 两者的默认实现都将先把数据复制为字节数组，实现类应当尽可能地重写它们以避免复制。
  *
  * @author huangchengxing
  */
@@ -15,6 +31,22 @@ public interface Compressor {
      */
     byte[] compress(byte[] bytes);
 
+    /**
+     * 创建一个输出流，写入其中的数据将被压缩后写入目标输出流，
+     * 压缩后的数据保证在返回的输出流关闭后完整地写入目标输出流，但目标输出流本身不会被关闭
+     *
+     * @param output 目标输出流
+     * @return 输出流
+     */
+    default OutputStream compress(OutputStream output) {
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                output.write(compress(toByteArray()));
+            }
+        };
+    }
+
     /**
      * 解压缩字节数组
      *
@@ -22,4 +54,30 @@ public interface Compressor {
      * @return 解压缩后的字节数组
      */
     byte[] decompress(byte[] bytes);
+
+    /**
+     * 解压缩缓冲区中从当前位置到上限之间的数据
+     *
+     * @param buffer 已压缩的数据
+     * @return 解压缩后的数据
+     */
+    default ByteBuffer decompress(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return ByteBuffer.wrap(decompress(bytes));
+    }
+
+    /**
+     * 解压缩输入流中的全部数据
+     *
+     * @param input 已压缩的数据
+     * @return 解压缩后的数据
+     */
+    default InputStream decompress(InputStream input) {
+        try {
+            return new ByteArrayInputStream(decompress(input.readAllBytes()));
+        } catch (IOException ex) {
+            throw new Rpc4jException("读取待解压缩的数据失败", ex);
+        }
+    }
 }
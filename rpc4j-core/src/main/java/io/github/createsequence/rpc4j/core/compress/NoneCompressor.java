@@ -1,5 +1,11 @@
 package io.github.createsequence.rpc4j.core.compress;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 /**
  * 不做任何压缩
  *
@@ -18,6 +24,26 @@ public class NoneCompressor implements Compressor {
         return bytes;
     }
 
+    /**
+     * 创建一个直接将数据写入目标输出流的输出流，关闭它不会关闭目标输出流
+     *
+     * @param output 目标输出流
+     * @return 输出流
+     */
+    @Override
+    public OutputStream compress(OutputStream output) {
+        return new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
     /**
      * 解压缩字节数组
      *
@@ -28,4 +54,26 @@ public class NoneCompressor implements Compressor {
     public byte[] decompress(byte[] bytes) {
         return bytes;
     }
+
+    /**
+     * 解压缩缓冲区中的数据，直接返回原缓冲区
+     *
+     * @param buffer 已压缩的数据
+     * @return 解压缩后的数据
+     */
+    @Override
+    public ByteBuffer decompress(ByteBuffer buffer) {
+        return buffer;
+    }
+
+    /**
+     * 解压缩输入流中的数据，直接返回原输入流
+     *
+     * @param input 已压缩的数据
+     * @return 解压缩后的数据
+     */
+    @Override
+    public InputStream decompress(InputStream input) {
+        return input;
+    }
 }
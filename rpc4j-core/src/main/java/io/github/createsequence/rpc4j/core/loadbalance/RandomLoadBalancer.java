@@ -1,13 +1,17 @@
 package io.github.createsequence.rpc4j.core.loadbalance;
 
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.Attributes;
 import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.function.Predicate;
 
 /**
- * 随机负载均衡策略
+ * 随机负载均衡策略，若调用上下文中指定了{@link Attributes#ADDRESS_WRITABILITY}，
+ * 则优先从当前可写的地址中随机选择，若全部地址均不可写，则从全部地址中随机选择
  *
  * @author huangchengxing
  */
@@ -24,6 +28,15 @@ public class RandomLoadBalancer implements LoadBalancer {
      */
     @Override
     public RemoteAddress select(List<RemoteAddress> addresses, RpcInvocation rpcInvocation) {
+        Predicate<RemoteAddress> writability = rpcInvocation.getAttribute(Attributes.ADDRESS_WRITABILITY);
+        if (Objects.nonNull(writability) && addresses.size() > 1) {
+            List<RemoteAddress> writableAddresses = addresses.stream()
+                .filter(writability)
+                .toList();
+            if (!writableAddresses.isEmpty()) {
+                addresses = writableAddresses;
+            }
+        }
         return addresses.get(RANDOM.nextInt(addresses.size()));
     }
 }
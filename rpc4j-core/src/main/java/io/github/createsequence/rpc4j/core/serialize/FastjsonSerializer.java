@@ -1,8 +1,14 @@
 package io.github.createsequence.rpc4j.core.serialize;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONFactory;
 import com.alibaba.fastjson2.JSONReader;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * @author huangchengxing
  */
@@ -18,6 +24,17 @@ public class FastjsonSerializer implements Serializer {
         return JSON.toJSONBytes(target);
     }
 
+    /**
+     * 将对象序列化并写入输出流
+     *
+     * @param target 要序列化的对象
+     * @param output 输出流
+     */
+    @Override
+    public void serialize(Object target, OutputStream output) {
+        JSON.writeTo(output, target);
+    }
+
     /**
      * 将字节数组反序列化为对象
      *
@@ -29,4 +46,37 @@ public class FastjsonSerializer implements Serializer {
     public <T> T deserialize(byte[] bytes, Class<T> targetType) {
         return JSON.parseObject(bytes, targetType, JSONReader.Feature.SupportClassForName);
     }
+
+    /**
+     * 将缓冲区中的数据反序列化为对象，堆内缓冲区将直接读取其底层数组
+     *
+     * @param buffer 缓冲区
+     * @param targetType 目标类
+     * @return 对象
+     */
+    @Override
+    public <T> T deserialize(ByteBuffer buffer, Class<T> targetType) {
+        if (buffer.hasArray()) {
+            return JSON.parseObject(
+                buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(),
+                targetType, JSONReader.Feature.SupportClassForName
+            );
+        }
+        JSONReader.Context context = JSONFactory.createReadContext(JSONReader.Feature.SupportClassForName);
+        try (JSONReader reader = JSONReader.of(buffer, StandardCharsets.UTF_8, context)) {
+            return reader.read(targetType);
+        }
+    }
+
+    /**
+     * 将输入流中的数据反序列化为对象
+     *
+     * @param input 输入流
+     * @param targetType 目标类
+     * @return 对象
+     */
+    @Override
+    public <T> T deserialize(InputStream input, Class<T> targetType) {
+        return JSON.parseObject(input, targetType, JSONReader.Feature.SupportClassForName);
+    }
 }
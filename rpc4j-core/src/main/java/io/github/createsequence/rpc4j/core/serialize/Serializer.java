@@ -1,7 +1,21 @@
 package io.github.createsequence.rpc4j.core.serialize;
 
+import io.github.createsequence.common.exception.Rpc4jException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
 /**
- * 序列化器
+ * <p>序列化器
+ *
+ * <p>序列化时，编码器将通过{@link #serialize(Object, OutputStream)}把数据直接写入输出缓冲区，
+ * 其默认实现将先把对象序列化为字节数组，实现类应当尽可能地重写它以避免复制。
+ *
+ * <p>反序列化时，解码器将优先通过{@link #deserialize(ByteBuffer, Class)}直接读取报文所在的缓冲区，
+ * 仅当报文不在一块连续的内存中时，才会通过{@link #deserialize(InputStream, Class)}读取。
+ * 两者的默认实现都将先把数据复制为字节数组，实现类应当尽可能地重写它们以避免复制。
  *
  * @author huangchengxing
  */
@@ -15,6 +29,20 @@ public interface Serializer {
      */
     byte[] serialize(Object target);
 
+    /**
+     * 将对象序列化并写入输出流，该方法不会关闭输出流
+     *
+     * @param target 要序列化的对象
+     * @param output 输出流
+     */
+    default void serialize(Object target, OutputStream output) {
+        try {
+            output.write(serialize(target));
+        } catch (IOException ex) {
+            throw new Rpc4jException("写出序列化后的数据失败", ex);
+        }
+    }
+
     /**
      * 将字节数组反序列化为对象
      *
@@ -24,4 +52,34 @@ public interface Serializer {
      * @return 对象
      */
     <T> T deserialize(byte[] bytes, Class<T> targetType);
+
+    /**
+     * 将缓冲区中从当前位置到上限之间的数据反序列化为对象
+     *
+     * @param buffer 缓冲区
+     * @param targetType 目标类
+     * @param <T> 类型
+     * @return 对象
+     */
+    default <T> T deserialize(ByteBuffer buffer, Class<T> targetType) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return deserialize(bytes, targetType);
+    }
+
+    /**
+     * 将输入流中的全部数据反序列化为对象
+     *
+     * @param input 输入流
+     * @param targetType 目标类
+     * @param <T> 类型
+     * @return 对象
+     */
+    default <T> T deserialize(InputStream input, Class<T> targetType) {
+        try {
+            return deserialize(input.readAllBytes(), targetType);
+        } catch (IOException ex) {
+            throw new Rpc4jException("读取待反序列化的数据失败", ex);
+        }
+    }
 }
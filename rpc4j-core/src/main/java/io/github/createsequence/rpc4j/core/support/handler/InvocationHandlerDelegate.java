@@ -6,6 +6,8 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 用于代理调用的处理器模板类
@@ -34,7 +36,9 @@ public abstract class InvocationHandlerDelegate implements RpcInvocationHandler
     }
 
     /**
-     * 执行方法调用
+     * <p>执行方法调用。<br />
+     * 若委托对象返回了{@link CompletableFuture}，则{@link #afterInvoke}与{@link #afterCompletion}
+     * 将在任务完成后被回调，并返回一个以其处理结果完成的新任务，当前线程不会被阻塞。
      *
      * @param rpcInvocation 调用参数
      * @return 返回值
@@ -47,12 +51,36 @@ public abstract class InvocationHandlerDelegate implements RpcInvocationHandler
         try {
             RpcInvocation beforeInvoke = beforeInvoke(rpcInvocation);
             result = delegate.invoke(beforeInvoke);
+            if (result instanceof CompletableFuture<?> future) {
+                return invokeAsync(rpcInvocation, beforeInvoke, future);
+            }
             result = afterInvoke(beforeInvoke, result);
         } catch (Throwable ex) {
             throwable = ex;
-        } finally {
-            result = afterCompletion(rpcInvocation, result, throwable);
         }
+        return afterCompletion(rpcInvocation, result, throwable);
+    }
+
+    private CompletableFuture<Object> invokeAsync(
+        RpcInvocation rpcInvocation, RpcInvocation beforeInvoke, CompletableFuture<?> future) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        future.whenComplete((delegateResult, ex) -> {
+            Object value = null;
+            Throwable throwable = ex instanceof CompletionException && Objects.nonNull(ex.getCause()) ?
+                ex.getCause() : ex;
+            if (Objects.isNull(throwable)) {
+                try {
+                    value = afterInvoke(beforeInvoke, delegateResult);
+                } catch (Throwable e) {
+                    throwable = e;
+                }
+            }
+            try {
+                result.complete(afterCompletion(rpcInvocation, value, throwable));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
         return result;
     }
 
@@ -0,0 +1,132 @@
+package io.github.createsequence.rpc4j.core.support.service;
+
+import io.github.createsequence.common.exception.Rpc4jException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>将{@link Flow.Publisher}适配为阻塞的{@link Stream}。
+ *
+ * <p>订阅者最多预取{@code prefetch}个元素，调用方每取出一半的预取元素后才会继续请求，
+ * 因此发布者的发送速度不会超过调用方的消费速度。当流被关闭时，订阅将被取消。
+ *
+ * @author huangchengxing
+ */
+class BlockingStreamSubscriber implements Flow.Subscriber<Object>, Iterator<Object> {
+
+    /**
+     * 用于在队列中表示{@code null}元素
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * 用于在队列中表示流已经正常结束
+     */
+    private static final Object COMPLETE = new Object();
+
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final int prefetch;
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled = false;
+    private Object next;
+    private int consumed = 0;
+
+    private BlockingStreamSubscriber(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * 订阅发布者，并将其转为阻塞的流
+     *
+     * @param publisher 发布者
+     * @param prefetch 预取的元素数
+     * @param <T> 元素类型
+     * @return 流
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Stream<T> toStream(Flow.Publisher<?> publisher, int prefetch) {
+        BlockingStreamSubscriber subscriber = new BlockingStreamSubscriber(prefetch);
+        publisher.subscribe(subscriber);
+        return (Stream<T>)StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(subscriber, Spliterator.ORDERED), false
+        ).onClose(subscriber::cancel);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(Object item) {
+        queue.add(Objects.isNull(item) ? NULL : item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        queue.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        queue.add(COMPLETE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (Objects.isNull(next)) {
+            next = take();
+        }
+        if (next instanceof Throwable ex) {
+            throw ex instanceof Rpc4jException rpc4jException ? rpc4jException : new Rpc4jException(ex);
+        }
+        return next != COMPLETE;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object item = next;
+        next = null;
+        // 每取出一半的预取元素后，再请求等量的元素
+        if (++consumed >= Math.max(1, prefetch / 2)) {
+            subscription.request(consumed);
+            consumed = 0;
+        }
+        return item == NULL ? null : item;
+    }
+
+    private Object take() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new Rpc4jException("等待流数据时被中断", e);
+        }
+    }
+
+    private void cancel() {
+        cancelled = true;
+        Flow.Subscription current = subscription;
+        if (Objects.nonNull(current)) {
+            current.cancel();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.createsequence.rpc4j.core.support.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>表示一个服务方法是幂等的，对于相同的参数总是返回相同的结果，
+ * 服务端将缓存其已经完成序列化与压缩的响应数据，在缓存有效期内，
+ * 相同参数的请求将直接返回缓存的数据，而不会再调用方法。
+ *
+ * <p>注解可以声明在服务接口或服务实现的方法上，
+ * 方法参数需要正确地实现{@link Object#equals}与{@link Object#hashCode}，
+ * 只有成功的响应会被缓存。
+ *
+ * @author huangchengxing
+ * @see io.github.createsequence.rpc4j.core.transport.server.ResponseCacheHandler
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+
+    /**
+     * 缓存的有效期，自写入缓存开始计算
+     *
+     * @return 有效期
+     */
+    long ttl() default 60;
+
+    /**
+     * 有效期的时间单位
+     *
+     * @return 时间单位
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    /**
+     * 该方法最多缓存的响应数，超出后将优先淘汰最近最少使用的响应
+     *
+     * @return 响应数
+     */
+    long maximumSize() default 1024;
+}
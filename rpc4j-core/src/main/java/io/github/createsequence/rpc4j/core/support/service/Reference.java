@@ -45,6 +45,21 @@ public @interface Reference {
      */
     TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
 
+    /**
+     * 是否在创建引用时预热连接，开启后将预先与全部服务端地址建立连接，
+     * 避免首次调用时承担建立连接与初始化通道的开销
+     *
+     * @return 是否
+     */
+    boolean warmUp() default false;
+
+    /**
+     * 预热连接时，在每条连接上发送的心跳次数，仅当{@link #warmUp()}为{@code true}时生效
+     *
+     * @return 心跳次数
+     */
+    int warmUpHeartbeats() default 0;
+
     /**
      * 服务版本
      *
@@ -2,19 +2,31 @@ package io.github.createsequence.rpc4j.core.support.service;
 
 import io.github.createsequence.common.exception.Rpc4jException;
 import io.github.createsequence.common.util.Asserts;
+import io.github.createsequence.rpc4j.core.discoverer.ServiceDiscoverer;
 import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
 import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.Deadline;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
 import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
 import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.client.ConnectionWarmer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
@@ -22,7 +34,7 @@ import java.util.stream.Stream;
  *
  * @author huangchengxing
  */
-@RequiredArgsConstructor
+@Slf4j
 public class ReferenceServiceProvider implements ServiceProvider {
 
     /**
@@ -30,6 +42,49 @@ public class ReferenceServiceProvider implements ServiceProvider {
      */
     private final RpcInvocationHandler invocationHandler;
 
+    /**
+     * 连接预热器，为空时将忽略{@link Reference#warmUp()}
+     */
+    @Nullable
+    private final ConnectionWarmer connectionWarmer;
+
+    /**
+     * 服务发现器，用于在预热连接时解析{@link RemoteAddress.Type#SERVICE_NAME}类型的地址
+     */
+    @Nullable
+    private final ServiceDiscoverer serviceDiscoverer;
+
+    /**
+     * 方法与其方法键的映射，避免每次调用时重新构建方法键
+     *
+     * @see MethodTable#methodKey
+     */
+    private final Map<Method, String> methodKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 创建一个服务提供者
+     *
+     * @param invocationHandler Rpc调用处理器
+     */
+    public ReferenceServiceProvider(RpcInvocationHandler invocationHandler) {
+        this(invocationHandler, null, null);
+    }
+
+    /**
+     * 创建一个服务提供者
+     *
+     * @param invocationHandler Rpc调用处理器
+     * @param connectionWarmer 连接预热器
+     * @param serviceDiscoverer 服务发现器
+     */
+    public ReferenceServiceProvider(
+        RpcInvocationHandler invocationHandler,
+        @Nullable ConnectionWarmer connectionWarmer, @Nullable ServiceDiscoverer serviceDiscoverer) {
+        this.invocationHandler = invocationHandler;
+        this.connectionWarmer = connectionWarmer;
+        this.serviceDiscoverer = serviceDiscoverer;
+    }
+
     /**
      * 从服务端引用一个服务
      *
@@ -41,12 +96,50 @@ public class ReferenceServiceProvider implements ServiceProvider {
     public <T> T refer(Class<T> interfaceClass) {
         Reference reference = interfaceClass.getAnnotation(Reference.class);
         Asserts.isNotNull(reference, "目标接口必须使用@Reference注解：{}", interfaceClass.getName());
+        if (reference.warmUp() && Objects.nonNull(connectionWarmer)) {
+            warmUp(interfaceClass, reference);
+        }
         return (T)Proxy.newProxyInstance(
             interfaceClass.getClassLoader(), new Class[]{ interfaceClass, Referenced.class },
             new ReferenceInvocationHandler(reference)
         );
     }
 
+    /**
+     * 预热引用的全部服务端地址，预热失败不影响引用的创建
+     *
+     * @param interfaceClass 接口类
+     * @param reference 注解
+     */
+    protected void warmUp(Class<?> interfaceClass, Reference reference) {
+        CompletableFuture<?>[] futures = resolveAddresses(reference).stream()
+            .map(address -> connectionWarmer.warmUp(address, reference.warmUpHeartbeats())
+                .exceptionally(ex -> {
+                    log.warn("预热服务[{}]的连接失败，服务端地址[{}:{}]",
+                        interfaceClass.getName(), address.getHost(), address.getPort(), ex);
+                    return null;
+                }))
+            .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+        log.info("服务[{}]的连接预热完成", interfaceClass.getName());
+    }
+
+    /**
+     * 解析注解中的全部服务端地址，{@link RemoteAddress.Type#SERVICE_NAME}类型的地址将通过服务发现器解析
+     *
+     * @param reference 注解
+     * @return 服务端地址
+     */
+    protected List<RemoteAddress> resolveAddresses(Reference reference) {
+        return Stream.of(reference.address())
+            .flatMap(address -> switch (address.type()) {
+                case FIXED_IP -> Stream.of(new RemoteAddress(address.type(), address.host(), address.port()));
+                case SERVICE_NAME -> Objects.isNull(serviceDiscoverer) ?
+                    Stream.empty() : serviceDiscoverer.getServices(address.host()).stream();
+            })
+            .toList();
+    }
+
     /**
      * 创建一个包含基本调用参数的RPC上下文
      *
@@ -76,10 +169,16 @@ public class ReferenceServiceProvider implements ServiceProvider {
      * @see Attributes
      */
     protected void prepareInvocation(Reference annotation, RpcInvocation invocation) {
-        invocation.setAttribute(Attributes.REQUEST_ID, UUID.randomUUID().toString());
-        // 超时时间
-        invocation.setAttribute(Attributes.REQUEST_TIMEOUT, annotation.timeout());
-        invocation.setAttribute(Attributes.REQUEST_TIMEOUT_UNIT, annotation.timeUnit());
+        // 超时时间，若当前处于服务端处理请求的过程中，则不能超过该请求剩余的时间
+        Deadline deadline = Deadline.current();
+        if (Objects.isNull(deadline)) {
+            invocation.setAttribute(Attributes.REQUEST_TIMEOUT, annotation.timeout());
+            invocation.setAttribute(Attributes.REQUEST_TIMEOUT_UNIT, annotation.timeUnit());
+        } else {
+            long timeout = Math.min(annotation.timeUnit().toNanos(annotation.timeout()), deadline.remaining(TimeUnit.NANOSECONDS));
+            invocation.setAttribute(Attributes.REQUEST_TIMEOUT, timeout);
+            invocation.setAttribute(Attributes.REQUEST_TIMEOUT_UNIT, TimeUnit.NANOSECONDS);
+        }
         // 协议版本
         invocation.setAttribute(
             Attributes.REQUEST_PROTOCOL_VERSION, Rpc4jProtocol.Version.valueOf(annotation.version()).getCode()
@@ -96,6 +195,44 @@ public class ReferenceServiceProvider implements ServiceProvider {
         invocation.setAttribute(Attributes.LOAD_BALANCE_STRATEGY, annotation.loadBalancer());
     }
 
+    /**
+     * 方法是否需要以异步的方式调用，即返回值类型是否为{@link CompletableFuture}或{@link CompletionStage}
+     *
+     * @param method 方法
+     * @return 是否
+     */
+    protected boolean isAsyncMethod(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == CompletableFuture.class || returnType == CompletionStage.class;
+    }
+
+    /**
+     * 方法是否需要以流的方式调用，即返回值类型是否为{@link Flow.Publisher}或{@link Stream}
+     *
+     * @param method 方法
+     * @return 是否
+     */
+    protected boolean isStreamMethod(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == Flow.Publisher.class || returnType == Stream.class;
+    }
+
+    /**
+     * 获取方法键，同一方法的方法键仅构建一次
+     *
+     * @param method 方法
+     * @return 方法键
+     */
+    protected String getMethodKey(Method method) {
+        String methodKey = methodKeys.get(method);
+        if (Objects.nonNull(methodKey)) {
+            return methodKey;
+        }
+        return methodKeys.computeIfAbsent(
+            method, m -> MethodTable.methodKey(m.getDeclaringClass().getName(), m.getName(), m.getParameterTypes())
+        );
+    }
+
     @RequiredArgsConstructor
     protected class ReferenceInvocationHandler implements InvocationHandler {
         private final Reference annotation;
@@ -112,9 +249,25 @@ public class ReferenceServiceProvider implements ServiceProvider {
         private Object doInvoke(Method method, Object[] args) {
             RpcInvocation invocation = createRpcInvocation(annotation, method, args);
             prepareInvocation(annotation, invocation);
+            invocation.setAttribute(Attributes.METHOD_KEY, getMethodKey(method));
+            boolean async = isAsyncMethod(method);
+            invocation.setAttribute(Attributes.ASYNC_INVOCATION, async);
+            boolean stream = isStreamMethod(method);
+            invocation.setAttribute(Attributes.STREAM_INVOCATION, stream);
             try {
-                return invocationHandler.invoke(invocation);
+                Object result = invocationHandler.invoke(invocation);
+                // 返回值为Stream时，通过阻塞的订阅者按需拉取流数据
+                if (stream && method.getReturnType() == Stream.class && result instanceof Flow.Publisher<?> publisher) {
+                    return BlockingStreamSubscriber.toStream(publisher, Rpc4jProtocol.INITIAL_STREAM_CREDIT);
+                }
+                if (async && !(result instanceof CompletableFuture)) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                return result;
             } catch (Throwable e) {
+                if (async) {
+                    return CompletableFuture.failedFuture(new Rpc4jException(e));
+                }
                 throw new Rpc4jException(e);
             }
         }
@@ -4,41 +4,65 @@ import io.github.createsequence.common.ComponentManager;
 import io.github.createsequence.rpc4j.core.discoverer.ServiceDiscoverer;
 import io.github.createsequence.rpc4j.core.support.handler.RequiredAttributeCheckHandlerDelegate;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
 import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
 import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.channel.EventLoopResources;
 import io.github.createsequence.rpc4j.core.transport.client.LoadBalanceHandler;
 import io.github.createsequence.rpc4j.core.transport.client.NettyClientRequestHandler;
 import io.github.createsequence.rpc4j.core.transport.client.ResponseResultHandler;
 import io.github.createsequence.rpc4j.core.transport.client.ServiceDiscoveryLoadBalanceHandler;
+import io.github.createsequence.rpc4j.core.transport.server.ConcurrencyLimiter;
+import io.github.createsequence.rpc4j.core.transport.server.IsolationPolicy;
 import io.github.createsequence.rpc4j.core.transport.server.NettyServer;
 import io.github.createsequence.rpc4j.core.transport.server.ReflectiveMethodInvokeHandler;
+import io.github.createsequence.rpc4j.core.transport.server.ResponseCacheHandler;
 import io.github.createsequence.rpc4j.core.transport.server.ResponseToMessageHandler;
 import io.github.createsequence.rpc4j.core.transport.server.Server;
+import io.github.createsequence.rpc4j.core.transport.server.ServiceExecutors;
 import lombok.experimental.Delegate;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.Closeable;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * RPC服务管理器，用于服务的注册和引用。
  * 所有与其他的客户端/服务端的通信都使用Netty完成，
  * 通信协议默认为{@link Rpc4jProtocol rpc4j协议}。
  *
+ * <p>服务端与客户端共享同一个{@link EventLoopResources}，因此进程内只有一组IO线程。
+ * 服务方法在服务端的分发线程池中执行，其中发起的调用同样不会占用接收该请求的事件循环。
+ *
  * @author huangchengxing
  */
-public class Rpc4jNettyServiceManager implements ServiceRegistry, ServiceProvider, Server {
+public class Rpc4jNettyServiceManager implements ServiceRegistry, ServiceProvider, Server, Closeable {
 
     @Delegate(types = ServiceProvider.class)
     private final ServiceProvider serviceProvider;
     private final String serverHost;
     private final int serverPort;
     private final ServiceDiscoverer serviceDiscoverer;
-    @Delegate
-    private final Server server;
+    @Delegate(types = Server.class)
+    private final NettyServer server;
     private final ReflectiveMethodInvokeHandler methodInvokeHandler;
+    private final ResponseCacheHandler responseCacheHandler;
+    private final ServiceExecutors serviceExecutors;
+    private final MethodTable methodTable;
+    private final Set<Class<?>> exportedServices = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 服务停止后，已经暴露的服务是否已从服务发现器中注销
+     */
+    private volatile boolean unregistered = false;
+    private final NettyClientRequestHandler clientRequestHandler;
+    private final EventLoopResources eventLoopResources;
+    private final boolean ownEventLoopResources;
 
     /**
-     * 创建一个实例
+     * 创建一个实例，服务端与客户端共享的事件循环资源将由该实例创建，并在关闭时一并关闭
      *
      * @param componentManager  组件管理器
      * @param serviceDiscoverer 服务发现器
@@ -46,38 +70,74 @@ public class Rpc4jNettyServiceManager implements ServiceRegistry, ServiceProvide
     public Rpc4jNettyServiceManager(
         ComponentManager componentManager, @Nullable ServiceDiscoverer serviceDiscoverer,
         String serverHost, int serverPort) {
+        this(componentManager, serviceDiscoverer, serverHost, serverPort, new EventLoopResources(), true);
+    }
+
+    /**
+     * 创建一个实例，关闭该实例时不会关闭给定的事件循环资源
+     *
+     * @param componentManager  组件管理器
+     * @param serviceDiscoverer 服务发现器
+     * @param eventLoopResources 服务端与客户端共享的事件循环资源
+     */
+    public Rpc4jNettyServiceManager(
+        ComponentManager componentManager, @Nullable ServiceDiscoverer serviceDiscoverer,
+        String serverHost, int serverPort, EventLoopResources eventLoopResources) {
+        this(componentManager, serviceDiscoverer, serverHost, serverPort, eventLoopResources, false);
+    }
+
+    private Rpc4jNettyServiceManager(
+        ComponentManager componentManager, @Nullable ServiceDiscoverer serviceDiscoverer,
+        String serverHost, int serverPort, EventLoopResources eventLoopResources, boolean ownEventLoopResources) {
+        this.eventLoopResources = eventLoopResources;
+        this.ownEventLoopResources = ownEventLoopResources;
 
         // 服务端组件
         this.serviceDiscoverer = serviceDiscoverer;
         this.serverHost = serverHost;
         this.serverPort = serverPort;
         this.methodInvokeHandler = new ReflectiveMethodInvokeHandler();
-        this.server = new NettyServer(
+        this.responseCacheHandler = new ResponseCacheHandler(
             componentManager, new ResponseToMessageHandler(this.methodInvokeHandler)
         );
+        NettyServer nettyServer = new NettyServer(componentManager, responseCacheHandler);
+        nettyServer.setEventLoopResources(eventLoopResources);
+        this.serviceExecutors = new ServiceExecutors();
+        nettyServer.setServiceExecutors(serviceExecutors);
+        this.methodTable = new MethodTable();
+        nettyServer.setMethodTable(methodTable);
+        this.server = nettyServer;
 
         // 客户端组件
-        RpcInvocationHandler serverInvocationHandler = new NettyClientRequestHandler(componentManager);
+        this.clientRequestHandler = new NettyClientRequestHandler(componentManager, eventLoopResources);
+        RpcInvocationHandler serverInvocationHandler = clientRequestHandler;
         serverInvocationHandler = new RequiredAttributeCheckHandlerDelegate(serverInvocationHandler);
-        serverInvocationHandler = Objects.nonNull(serviceDiscoverer) ?
+        LoadBalanceHandler loadBalanceHandler = Objects.nonNull(serviceDiscoverer) ?
             new ServiceDiscoveryLoadBalanceHandler(serverInvocationHandler, componentManager, serviceDiscoverer) :
             new LoadBalanceHandler(serverInvocationHandler, componentManager);
-        serverInvocationHandler = new ResponseResultHandler(serverInvocationHandler);
-        this.serviceProvider = new ReferenceServiceProvider(serverInvocationHandler);
+        loadBalanceHandler.setAddressWritability(clientRequestHandler::isWritable);
+        serverInvocationHandler = new ResponseResultHandler(loadBalanceHandler);
+        this.serviceProvider = new ReferenceServiceProvider(
+            serverInvocationHandler, clientRequestHandler, serviceDiscoverer
+        );
     }
 
     /**
-     * 向客户端暴露一个服务
+     * 向客户端暴露一个服务，并按隔离策略为其分配独立的线程池
      *
      * @param interfaceClass 接口类
      * @param service 服务实例
+     * @param isolationPolicy 隔离策略
      */
     @Override
-    public void export(Class<?> interfaceClass, Object service) {
+    public void export(Class<?> interfaceClass, Object service, IsolationPolicy isolationPolicy) {
+        this.serviceExecutors.register(interfaceClass, isolationPolicy);
         this.methodInvokeHandler.registerService(interfaceClass, service);
-        if (Objects.nonNull(serviceDiscoverer)) {
-            RemoteAddress remoteAddress = new RemoteAddress(RemoteAddress.Type.FIXED_IP, serverHost, serverPort);
-            serviceDiscoverer.registerService(getServerKey(interfaceClass), remoteAddress);
+        this.responseCacheHandler.register(interfaceClass, service);
+        this.methodTable.register(interfaceClass);
+        this.exportedServices.add(interfaceClass);
+        if (!unregistered) {
+            registerToDiscoverer(interfaceClass);
         }
     }
 
@@ -88,13 +148,88 @@ public class Rpc4jNettyServiceManager implements ServiceRegistry, ServiceProvide
      */
     @Override
     public void unexport(Class<?> interfaceClass) {
+        this.methodTable.unregister(interfaceClass);
         this.methodInvokeHandler.unregisterService(interfaceClass);
+        this.responseCacheHandler.unregister(interfaceClass);
+        this.serviceExecutors.unregister(interfaceClass);
+        this.exportedServices.remove(interfaceClass);
+        unregisterFromDiscoverer(interfaceClass);
+    }
+
+    /**
+     * 启动服务，若服务此前被停止过，则将已经暴露的服务重新注册到服务发现器中
+     *
+     * @param host 主机地址
+     * @param port 端口号
+     */
+    @Override
+    public void start(String host, int port) {
+        server.start(host, port);
+        if (unregistered) {
+            unregistered = false;
+            exportedServices.forEach(this::registerToDiscoverer);
+        }
+    }
+
+    /**
+     * 停止服务，在停止服务端之前，先从服务发现器中注销全部已经暴露的服务，
+     * 使客户端不再将新的请求路由到当前服务端。已经暴露的服务不会被移除，再次启动后将重新注册
+     */
+    @Override
+    public void stop() {
+        unregistered = true;
+        exportedServices.forEach(this::unregisterFromDiscoverer);
+        server.stop();
+    }
+
+    private void registerToDiscoverer(Class<?> interfaceClass) {
+        if (Objects.nonNull(serviceDiscoverer)) {
+            RemoteAddress remoteAddress = new RemoteAddress(RemoteAddress.Type.FIXED_IP, serverHost, serverPort);
+            serviceDiscoverer.registerService(getServerKey(interfaceClass), remoteAddress);
+        }
+    }
+
+    private void unregisterFromDiscoverer(Class<?> interfaceClass) {
         if (Objects.nonNull(serviceDiscoverer)) {
             RemoteAddress remoteAddress = new RemoteAddress(RemoteAddress.Type.FIXED_IP, serverHost, serverPort);
             serviceDiscoverer.unregisterService(getServerKey(interfaceClass), remoteAddress);
         }
     }
 
+    /**
+     * 设置服务端的并发限制器，未获得许可的请求将直接以过载响应拒绝
+     *
+     * @param concurrencyLimiter 并发限制器，为{@code null}时不限制同时处理的请求数
+     * @see NettyServer#setConcurrencyLimiter
+     */
+    public void setConcurrencyLimiter(@Nullable ConcurrencyLimiter concurrencyLimiter) {
+        server.setConcurrencyLimiter(concurrencyLimiter);
+    }
+
+    /**
+     * 设置服务器是否开启端口复用，需要在服务启动前设置
+     *
+     * @param reusePort 是否开启端口复用
+     * @param acceptors 监听套接字的数量
+     * @see NettyServer#setReusePort
+     */
+    public void setReusePort(boolean reusePort, int acceptors) {
+        server.setReusePort(reusePort);
+        server.setAcceptors(acceptors);
+    }
+
+    /**
+     * 关闭客户端连接，若事件循环资源由该实例创建，则一并关闭
+     */
+    @Override
+    public void close() {
+        clientRequestHandler.close();
+        serviceExecutors.close();
+        if (ownEventLoopResources) {
+            eventLoopResources.close();
+        }
+    }
+
     private String getServerKey(Class<?> interfaceClass) {
         return interfaceClass.getName();
     }
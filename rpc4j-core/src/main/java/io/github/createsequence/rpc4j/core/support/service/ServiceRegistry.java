@@ -1,5 +1,6 @@
 package io.github.createsequence.rpc4j.core.support.service;
 
+import io.github.createsequence.rpc4j.core.transport.server.IsolationPolicy;
 import io.github.createsequence.rpc4j.core.transport.server.Server;
 
 /**
@@ -15,7 +16,18 @@ public interface ServiceRegistry extends Server {
      * @param interfaceClass 接口类
      * @param service 服务实例
      */
-    void export(Class<?> interfaceClass, Object service);
+    default void export(Class<?> interfaceClass, Object service) {
+        export(interfaceClass, service, IsolationPolicy.SHARED);
+    }
+
+    /**
+     * 向客户端暴露一个服务，并按隔离策略为其分配独立的线程池
+     *
+     * @param interfaceClass 接口类
+     * @param service 服务实例
+     * @param isolationPolicy 隔离策略
+     */
+    void export(Class<?> interfaceClass, Object service, IsolationPolicy isolationPolicy);
 
     /**
      * 取消暴露一个服务
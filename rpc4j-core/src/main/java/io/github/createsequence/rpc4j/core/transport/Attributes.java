@@ -11,10 +11,16 @@ public interface Attributes {
     String REMOTE_ADDRESS = "remoteAddress";
 
     /**
-     * 用于在服务端接收到请求时记录请求ID
+     * 用于在服务端接收到请求时记录请求ID，其值取自报文头部，为{@code long}类型
      */
     String REQUEST_ID = "requestId";
 
+    /**
+     * 客户端调用的方法键，参见{@link MethodTable#methodKey}，
+     * 若已经指定，则客户端将直接据此查找方法ID，而无需在每次调用时重新构建方法键
+     */
+    String METHOD_KEY = "methodKey";
+
     /**
      * 请求超时时间
      */
@@ -25,6 +31,16 @@ public interface Attributes {
      */
     String REQUEST_TIMEOUT_UNIT = "requestTimeoutUnit";
 
+    /**
+     * 是否以异步的方式发起请求，此时调用结果为{@link java.util.concurrent.CompletableFuture}
+     */
+    String ASYNC_INVOCATION = "asyncInvocation";
+
+    /**
+     * 是否以流式的方式发起请求，此时调用结果为{@link java.util.concurrent.Flow.Publisher}
+     */
+    String STREAM_INVOCATION = "streamInvocation";
+
     /**
      * 请求协议版本
      */
@@ -40,6 +56,23 @@ public interface Attributes {
      */
     String SERIALIZATION_TYPE = "serializationType";
 
+    /**
+     * 用于判断服务端地址当前是否可写的{@link java.util.function.Predicate}，
+     * 负载均衡器可以据此优先选择写缓冲区未满的地址
+     */
+    String ADDRESS_WRITABILITY = "addressWritability";
+
+    /**
+     * 用于在服务端接收到请求时记录接收时间，其值取自{@link System#nanoTime()}，为{@code long}类型
+     */
+    String REQUEST_RECEIVED_TIME = "requestReceivedTime";
+
+    /**
+     * 用于在服务端接收到请求时记录请求的截止时间，其值根据报文头部中的超时预算计算，为{@link Deadline}类型，
+     * 若请求未携带超时预算则不存在该属性
+     */
+    String REQUEST_DEADLINE = "requestDeadline";
+
     /**
      * 负载均衡策略
      */
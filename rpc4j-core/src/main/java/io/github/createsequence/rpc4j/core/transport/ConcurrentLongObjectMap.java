@@ -0,0 +1,161 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import io.github.createsequence.common.util.Asserts;
+import io.netty.util.collection.LongObjectHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>以{@code long}为键的并发哈希表。<br />
+ * 哈希表被划分为若干个分段，每个分段为一个独立加锁的{@link LongObjectHashMap}，
+ * 由于键始终以基本类型存储，因此读写时不会因为装箱而产生额外的对象分配。
+ *
+ * <p>适用于以自增ID为键的场景，例如以请求ID为键的未完成请求表。
+ *
+ * @author huangchengxing
+ * @param <V> 值类型
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final LongObjectHashMap<V>[] segments;
+    private final int mask;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * 创建一个哈希表
+     */
+    public ConcurrentLongObjectMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * 创建一个哈希表
+     *
+     * @param concurrencyLevel 并发级别，即分段数量，必须为2的幂
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentLongObjectMap(int concurrencyLevel) {
+        Asserts.isTrue(
+            concurrencyLevel > 0 && (concurrencyLevel & (concurrencyLevel - 1)) == 0,
+            "并发级别必须为2的幂：{}", concurrencyLevel
+        );
+        this.segments = new LongObjectHashMap[concurrencyLevel];
+        for (int i = 0; i < concurrencyLevel; i++) {
+            segments[i] = new LongObjectHashMap<>();
+        }
+        this.mask = concurrencyLevel - 1;
+    }
+
+    /**
+     * 添加键值对
+     *
+     * @param key 键
+     * @param value 值
+     * @return 原有的值，若不存在则返回{@code null}
+     */
+    @Nullable
+    public V put(long key, V value) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+        V prev;
+        synchronized (segment) {
+            prev = segment.put(key, value);
+        }
+        if (prev == null) {
+            size.incrementAndGet();
+        }
+        return prev;
+    }
+
+    /**
+     * 获取键对应的值
+     *
+     * @param key 键
+     * @return 值，若不存在则返回{@code null}
+     */
+    @Nullable
+    public V get(long key) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * 移除键值对
+     *
+     * @param key 键
+     * @return 被移除的值，若不存在则返回{@code null}
+     */
+    @Nullable
+    public V remove(long key) {
+        LongObjectHashMap<V> segment = segmentFor(key);
+        V prev;
+        synchronized (segment) {
+            prev = segment.remove(key);
+        }
+        if (prev != null) {
+            size.decrementAndGet();
+        }
+        return prev;
+    }
+
+    /**
+     * 获取键值对数量
+     *
+     * @return 数量
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 哈希表是否为空
+     *
+     * @return 是否
+     */
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * 获取全部值的快照，快照创建后对哈希表的修改不会反映到快照中
+     *
+     * @return 值
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (LongObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                values.addAll(segment.values());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 移除全部键值对，并返回被移除的值
+     *
+     * @return 被移除的值
+     */
+    public List<V> drain() {
+        List<V> values = new ArrayList<>(size());
+        for (LongObjectHashMap<V> segment : segments) {
+            synchronized (segment) {
+                values.addAll(segment.values());
+                size.addAndGet(-segment.size());
+                segment.clear();
+            }
+        }
+        return values;
+    }
+
+    private LongObjectHashMap<V> segmentFor(long key) {
+        int hash = (int)(key ^ (key >>> 32));
+        return segments[(hash ^ (hash >>> 16)) & mask];
+    }
+}
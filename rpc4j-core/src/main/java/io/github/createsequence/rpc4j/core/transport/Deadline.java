@@ -0,0 +1,106 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>请求的截止时间。
+ *
+ * <p>客户端发送请求时，将以剩余的超时时间作为超时预算写入报文头部，
+ * 服务端收到请求后，以收到请求的时刻加上超时预算作为该请求的截止时间，
+ * 若请求在开始执行前就已经超过截止时间，则说明客户端已经放弃等待，服务端将直接丢弃该请求。
+ *
+ * <p>服务方法执行期间，截止时间将通过{@link #attach}绑定到当前线程，
+ * 此时服务方法中通过引用发起的调用将以{@link #current()}的剩余时间作为超时时间的上限，
+ * 从而使截止时间沿调用链向下传递。
+ *
+ * @author huangchengxing
+ * @see Rpc4jProtocol#SIZE_OF_TIMEOUT_FIELD
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 截止时间，其值取自{@link System#nanoTime()}
+     */
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 创建一个从指定时刻开始，经过指定时长后到期的截止时间
+     *
+     * @param startNanos 开始时刻，其值取自{@link System#nanoTime()}
+     * @param timeout 时长
+     * @param timeUnit 时间单位
+     * @return 截止时间
+     */
+    public static Deadline after(long startNanos, long timeout, TimeUnit timeUnit) {
+        return new Deadline(startNanos + timeUnit.toNanos(timeout));
+    }
+
+    /**
+     * 获取绑定到当前线程的截止时间
+     *
+     * @return 截止时间，若当前线程未绑定截止时间则返回{@code null}
+     */
+    @Nullable
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 将截止时间绑定到当前线程，并返回此前绑定的截止时间，
+     * 调用方需要在执行完毕后通过{@link #restore}恢复此前的截止时间
+     *
+     * @param deadline 截止时间，为{@code null}时表示解除绑定
+     * @return 此前绑定的截止时间
+     */
+    @Nullable
+    public static Deadline attach(@Nullable Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        return previous;
+    }
+
+    /**
+     * 恢复通过{@link #attach}绑定截止时间前，当前线程上的截止时间
+     *
+     * @param previous {@link #attach}返回的截止时间
+     */
+    public static void restore(@Nullable Deadline previous) {
+        attach(previous);
+    }
+
+    /**
+     * 获取距离截止时间的剩余时长
+     *
+     * @param timeUnit 时间单位
+     * @return 剩余时长，若已经超过截止时间则返回0或负数
+     */
+    public long remaining(TimeUnit timeUnit) {
+        return timeUnit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 是否已经超过截止时间
+     *
+     * @return 是否
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms)";
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>已经完成序列化与压缩的消息数据。<br />
+ * 编码器遇到该类型的数据时，将直接写出其中的字节，而不再调用序列化器与压缩器，
+ * 因此同一份数据可以被多个消息复用，参见{@link io.github.createsequence.rpc4j.core.transport.server.ResponseCacheHandler}。
+ *
+ * @author huangchengxing
+ */
+@Getter
+@RequiredArgsConstructor
+public class EncodedPayload {
+
+    /**
+     * 序列化并压缩后的数据，不应被修改
+     */
+    private final byte[] bytes;
+
+    /**
+     * 数据是否为成功的响应，用于写入报文头部的响应状态
+     */
+    private final boolean success;
+}
@@ -0,0 +1,131 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import io.github.createsequence.common.util.Asserts;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.Future;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>刷新合并处理器，用于将多次{@link ChannelHandlerContext#flush()}合并为一次真正的刷新。
+ *
+ * <p>当通道上累计的刷新次数达到{@code maxBatchSize}时将立即刷新，否则将延迟刷新：
+ * <ul>
+ *     <li>若刷新发生在读取期间，则推迟到{@link #channelReadComplete}时刷新，
+ *     此时同一次读取中产生的写操作将被合并；</li>
+ *     <li>若延迟时间为0，则在事件循环执行完当前已经排队的任务后刷新，
+ *     此时同一批次内提交的写操作将被合并，且不会引入额外的等待时间；</li>
+ *     <li>若延迟时间大于0，则在指定时间后刷新；</li>
+ * </ul>
+ * 当通道可写性变化、关闭或断开连接前，将先刷新所有尚未刷新的数据。
+ *
+ * <p>该处理器只能在事件循环中访问，因此不是线程安全的，每个通道都需要独立的实例。
+ *
+ * @author huangchengxing
+ * @see io.netty.handler.flush.FlushConsolidationHandler
+ */
+public class FlushBatchingHandler extends ChannelDuplexHandler {
+
+    private final int maxBatchSize;
+    private final long flushDelayNanos;
+    private final Runnable flushTask;
+    private ChannelHandlerContext ctx;
+    private int pendingFlushes;
+    private boolean readInProgress;
+    private Future<?> scheduledFlush;
+
+    /**
+     * 创建一个处理器
+     *
+     * @param maxBatchSize 最大合并的刷新次数
+     * @param flushDelay 延迟刷新时间，为0时表示在当前事件循环的任务执行完毕后刷新
+     * @param timeUnit 时间单位
+     */
+    public FlushBatchingHandler(int maxBatchSize, long flushDelay, TimeUnit timeUnit) {
+        Asserts.isTrue(maxBatchSize > 0, "最大合并刷新次数必须大于0：{}", maxBatchSize);
+        Asserts.isTrue(flushDelay >= 0, "延迟刷新时间不能小于0：{}", flushDelay);
+        this.maxBatchSize = maxBatchSize;
+        this.flushDelayNanos = timeUnit.toNanos(flushDelay);
+        this.flushTask = () -> {
+            scheduledFlush = null;
+            if (pendingFlushes > 0) {
+                flushNow(ctx);
+            }
+        };
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) {
+        if (++pendingFlushes >= maxBatchSize) {
+            flushNow(ctx);
+            return;
+        }
+        if (readInProgress || scheduledFlush != null) {
+            return;
+        }
+        scheduledFlush = flushDelayNanos > 0 ?
+            ctx.executor().schedule(flushTask, flushDelayNanos, TimeUnit.NANOSECONDS) :
+            ctx.executor().submit(flushTask);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        readInProgress = true;
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        readInProgress = false;
+        flushIfNecessary(ctx);
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        // 通道不可写时，尽快将缓冲区中的数据写出
+        if (!ctx.channel().isWritable()) {
+            flushIfNecessary(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNecessary(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNecessary(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        flushIfNecessary(ctx);
+    }
+
+    private void flushIfNecessary(ChannelHandlerContext ctx) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        pendingFlushes = 0;
+        ctx.flush();
+    }
+}
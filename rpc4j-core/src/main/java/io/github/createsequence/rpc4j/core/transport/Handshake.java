@@ -0,0 +1,35 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 握手响应，服务端通过该对象向客户端公布其方法表，参见{@link MethodTable}
+ *
+ * @author huangchengxing
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class Handshake implements Serializable {
+
+    /**
+     * 方法键与方法ID的映射，方法键参见{@link MethodTable#methodKey}，
+     * 声明为可序列化的{@link HashMap}，以保证握手响应本身可以被序列化
+     */
+    private HashMap<String, Integer> methodIds;
+
+    /**
+     * 创建握手响应
+     *
+     * @param methodIds 方法键与方法ID的映射
+     */
+    public Handshake(Map<String, Integer> methodIds) {
+        this.methodIds = new HashMap<>(methodIds);
+    }
+}
@@ -1,15 +1,21 @@
 package io.github.createsequence.rpc4j.core.transport;
 
+import io.netty.buffer.ByteBuf;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
 
 /**
- * RPC消息体
+ * <p>RPC消息体
+ *
+ * <p>解码器产生的消息将持有尚未反序列化的原始数据，并在第一次通过{@link #getPayload()}获取数据时才完成反序列化，
+ * 从而将反序列化的开销从IO线程转移到处理消息的业务线程上。
+ * 原始数据在反序列化完成后即被释放，若消息的数据始终不会被获取，则需要通过{@link #releasePayload()}手动释放。
  *
  * @author huangchengxing
  */
 @Getter
-@RequiredArgsConstructor
 public class Message<T> {
 
     /**
@@ -33,28 +39,295 @@ public class Message<T> {
     private final byte compressType;
 
     /**
-     * 响应
+     * 请求ID
+     */
+    private final long requestId;
+
+    /**
+     * 方法ID，为{@link MethodTable#NO_METHOD_ID}时表示请求中携带了完整的方法名称
+     */
+    private final int methodId;
+
+    /**
+     * 超时预算，即请求剩余的超时时间，单位毫秒，为{@link Rpc4jProtocol#NO_TIMEOUT}时表示不限制
+     */
+    private final int timeout;
+
+    /**
+     * 数据，若数据尚未反序列化则为{@link LazyPayload}
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Object payload;
+
+    /**
+     * 报文头部，在第一次获取时创建
+     */
+    @Getter(AccessLevel.NONE)
+    private Header header;
+
+    /**
+     * 创建一个消息
+     *
+     * @param version 协议版本
+     * @param messageType 消息类型
+     * @param serializationType 序列化方式
+     * @param compressType 压缩方式
+     * @param requestId 请求ID
+     * @param methodId 方法ID
+     * @param payload 数据
+     */
+    public Message(
+        byte version, byte messageType, byte serializationType, byte compressType,
+        long requestId, int methodId, T payload) {
+        this(version, messageType, serializationType, compressType, requestId, methodId, Rpc4jProtocol.NO_TIMEOUT, payload);
+    }
+
+    /**
+     * 创建一个消息
+     *
+     * @param version 协议版本
+     * @param messageType 消息类型
+     * @param serializationType 序列化方式
+     * @param compressType 压缩方式
+     * @param requestId 请求ID
+     * @param methodId 方法ID
+     * @param timeout 超时预算，单位毫秒
+     * @param payload 数据
+     */
+    public Message(
+        byte version, byte messageType, byte serializationType, byte compressType,
+        long requestId, int methodId, int timeout, T payload) {
+        this.version = version;
+        this.messageType = messageType;
+        this.serializationType = serializationType;
+        this.compressType = compressType;
+        this.requestId = requestId;
+        this.methodId = methodId;
+        this.timeout = timeout;
+        this.payload = payload;
+    }
+
+    /**
+     * 创建一个持有原始数据的消息，数据将在第一次获取时通过{@code reader}反序列化
+     *
+     * @param version 协议版本
+     * @param messageType 消息类型
+     * @param serializationType 序列化方式
+     * @param compressType 压缩方式
+     * @param requestId 请求ID
+     * @param methodId 方法ID
+     * @param timeout 超时预算，单位毫秒
+     * @param data 原始数据，消息将接管其引用计数
+     * @param reader 用于反序列化原始数据的函数
+     * @param <T> 数据类型
+     * @return 消息
+     */
+    public static <T> Message<T> lazy(
+        byte version, byte messageType, byte serializationType, byte compressType,
+        long requestId, int methodId, int timeout, ByteBuf data, Function<ByteBuf, T> reader) {
+        Message<T> message = new Message<>(
+            version, messageType, serializationType, compressType, requestId, methodId, timeout, null
+        );
+        message.payload = new LazyPayload<>(data, reader);
+        return message;
+    }
+
+    /**
+     * 创建一个心跳消息，心跳消息不携带数据
+     *
+     * @param messageType 消息类型，必须为{@link Rpc4jProtocol.MessageType#HEARTBEAT_PING}
+     *                    或{@link Rpc4jProtocol.MessageType#HEARTBEAT_PONG}
+     * @return 心跳消息
+     */
+    public static Message<Object> heartbeat(Rpc4jProtocol.MessageType messageType) {
+        return heartbeat(messageType, 0L);
+    }
+
+    /**
+     * 创建一个心跳消息，心跳消息不携带数据，
+     * 服务端在响应心跳时将原样返回请求ID，以便客户端确认心跳已经收到响应
+     *
+     * @param messageType 消息类型，必须为{@link Rpc4jProtocol.MessageType#HEARTBEAT_PING}
+     *                    或{@link Rpc4jProtocol.MessageType#HEARTBEAT_PONG}
+     * @param requestId 请求ID，为0时表示不需要等待响应
+     * @return 心跳消息
+     */
+    public static Message<Object> heartbeat(Rpc4jProtocol.MessageType messageType, long requestId) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), messageType.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            requestId, MethodTable.NO_METHOD_ID, null
+        );
+    }
+
+    /**
+     * 创建一个连接即将关闭的通知消息，该消息不携带数据
+     *
+     * @return 通知消息
+     * @see Rpc4jProtocol.MessageType#GOAWAY
+     */
+    public static Message<Object> goAway() {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.GOAWAY.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            0L, MethodTable.NO_METHOD_ID, null
+        );
+    }
+
+    /**
+     * 创建一个握手消息
+     *
+     * @param messageType 消息类型，必须为{@link Rpc4jProtocol.MessageType#HANDSHAKE_REQUEST}
+     *                    或{@link Rpc4jProtocol.MessageType#HANDSHAKE_RESPONSE}
+     * @param handshake 握手响应，握手请求不携带数据
+     * @return 握手消息
+     */
+    public static Message<Object> handshake(Rpc4jProtocol.MessageType messageType, Handshake handshake) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), messageType.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            0L, MethodTable.NO_METHOD_ID, handshake
+        );
+    }
+
+    /**
+     * 创建一个流信用消息，通知服务端可以继续发送指定数量的流数据
+     *
+     * @param requestId 流式调用的请求ID
+     * @param credit 追加的信用值
+     * @return 流信用消息
+     * @see Rpc4jProtocol.MessageType#STREAM_CREDIT
+     */
+    public static Message<Object> streamCredit(long requestId, int credit) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.STREAM_CREDIT.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            requestId, MethodTable.NO_METHOD_ID, credit
+        );
+    }
+
+    /**
+     * 创建一个取消流消息，该消息不携带数据
+     *
+     * @param requestId 流式调用的请求ID
+     * @return 取消流消息
+     * @see Rpc4jProtocol.MessageType#STREAM_CANCEL
+     */
+    public static Message<Object> streamCancel(long requestId) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.STREAM_CANCEL.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            requestId, MethodTable.NO_METHOD_ID, null
+        );
+    }
+
+    /**
+     * 获取数据，若数据尚未反序列化，则在当前线程中完成反序列化，并释放原始数据
+     *
+     * @return 数据
+     */
+    @SuppressWarnings("unchecked")
+    public T getPayload() {
+        Object current = payload;
+        return (T)(current instanceof LazyPayload<?> ? deserializePayload() : current);
+    }
+
+    /**
+     * 数据是否已经完成反序列化
+     *
+     * @return 是否
      */
-    private final T payload;
+    public boolean isPayloadDeserialized() {
+        return !(payload instanceof LazyPayload<?>);
+    }
+
+    /**
+     * 若数据尚未反序列化，则直接释放原始数据，此后获取的数据将为{@code null}
+     */
+    public synchronized void releasePayload() {
+        if (payload instanceof LazyPayload<?> lazy) {
+            payload = null;
+            lazy.data().release();
+        }
+    }
+
+    private synchronized Object deserializePayload() {
+        if (payload instanceof LazyPayload<?> lazy) {
+            try {
+                payload = lazy.reader().apply(lazy.data());
+            } catch (RuntimeException ex) {
+                payload = null;
+                throw ex;
+            } finally {
+                lazy.data().release();
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * 是否为心跳消息
+     *
+     * @return 是否
+     */
+    public boolean isHeartbeat() {
+        Rpc4jProtocol.MessageType type = Rpc4jProtocol.MessageType.valueOf(messageType);
+        return type != null && type.isHeartbeat();
+    }
+
+    /**
+     * 是否为指定类型的消息
+     *
+     * @param type 消息类型
+     * @return 是否
+     */
+    public boolean is(Rpc4jProtocol.MessageType type) {
+        return messageType == type.getCode();
+    }
 
     @Override
     public String toString() {
         return getHeader().toString();
     }
 
+    /**
+     * 获取报文头部，报文头部仅在第一次获取时创建，此后将返回同一个实例
+     *
+     * @return 报文头部
+     */
     public Header getHeader() {
-        return new Header(
-            Rpc4jProtocol.Version.LOOKUP.get(version),
-            Rpc4jProtocol.MessageType.LOOKUP.get(messageType),
-            Rpc4jProtocol.SerializationType.LOOKUP.get(serializationType),
-            Rpc4jProtocol.CompressionType.LOOKUP.get(compressType)
-        );
+        // 报文头部不可变，即使并发创建了多个实例也不影响结果
+        Header current = header;
+        if (current == null) {
+            current = new Header(
+                Rpc4jProtocol.Version.valueOf(version),
+                Rpc4jProtocol.MessageType.valueOf(messageType),
+                Rpc4jProtocol.SerializationType.valueOf(serializationType),
+                Rpc4jProtocol.CompressionType.valueOf(compressType),
+                requestId,
+                methodId,
+                timeout
+            );
+            header = current;
+        }
+        return current;
     }
 
+    /**
+     * 尚未反序列化的原始数据
+     *
+     * @param data 原始数据
+     * @param reader 用于反序列化原始数据的函数
+     */
+    private record LazyPayload<T>(ByteBuf data, Function<ByteBuf, T> reader) {}
+
     public record Header(
         Rpc4jProtocol.Version version,
         Rpc4jProtocol.MessageType messageType,
         Rpc4jProtocol.SerializationType serializationType,
-        Rpc4jProtocol.CompressionType compressType
+        Rpc4jProtocol.CompressionType compressType,
+        long requestId,
+        int methodId,
+        int timeout
     ) {}
 }
@@ -0,0 +1,135 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * <p>方法表，用于为服务端暴露的每个方法分配一个在当前服务端内唯一的方法ID。
+ *
+ * <p>客户端与服务端建立连接后，将通过握手获取服务端的方法表，
+ * 此后发送请求时仅需在报文头部携带方法ID，而无需在请求中携带服务类型、方法名与参数类型。
+ * 方法ID从1开始分配，0表示请求未携带方法ID，服务端需要根据请求中的名称查找方法。
+ *
+ * @author huangchengxing
+ * @see Handshake
+ */
+public class MethodTable {
+
+    /**
+     * 表示请求未携带方法ID
+     */
+    public static final int NO_METHOD_ID = 0;
+
+    private final AtomicInteger methodIdGenerator = new AtomicInteger(NO_METHOD_ID);
+
+    /**
+     * 方法ID与方法签名的映射
+     */
+    private final Map<Integer, MethodSignature> signatures = new ConcurrentHashMap<>();
+
+    /**
+     * 方法键与方法ID的映射，key参见{@link #methodKey}
+     */
+    private final Map<String, Integer> methodIds = new ConcurrentHashMap<>();
+
+    /**
+     * 为服务中的全部公共方法分配方法ID，已经分配过的方法将保留原有的ID
+     *
+     * @param serviceType 服务类型
+     */
+    public void register(Class<?> serviceType) {
+        String targetName = serviceType.getName();
+        for (Method method : serviceType.getMethods()) {
+            String key = methodKey(targetName, method.getName(), method.getParameterTypes());
+            methodIds.computeIfAbsent(key, k -> {
+                int methodId = methodIdGenerator.incrementAndGet();
+                signatures.put(methodId, new MethodSignature(targetName, method.getName(), method.getParameterTypes()));
+                return methodId;
+            });
+        }
+    }
+
+    /**
+     * 回收服务中全部方法的方法ID
+     *
+     * @param serviceType 服务类型
+     */
+    public void unregister(Class<?> serviceType) {
+        String prefix = serviceType.getName() + "#";
+        methodIds.entrySet().removeIf(entry -> {
+            if (entry.getKey().startsWith(prefix)) {
+                signatures.remove(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 获取方法ID对应的方法签名
+     *
+     * @param methodId 方法ID
+     * @return 方法签名，若方法ID不存在则返回{@code null}
+     */
+    @Nullable
+    public MethodSignature getSignature(int methodId) {
+        return signatures.get(methodId);
+    }
+
+    /**
+     * 获取当前全部方法ID
+     *
+     * @return 方法键与方法ID的映射
+     */
+    public Map<String, Integer> getMethodIds() {
+        return Map.copyOf(methodIds);
+    }
+
+    /**
+     * 获取方法键，格式为{@code 服务类型全限定名#方法名(参数类型全限定名,...)}
+     *
+     * @param targetName 服务类型全限定名
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型
+     * @return 方法键
+     */
+    public static String methodKey(String targetName, String methodName, Class<?>[] parameterTypes) {
+        return targetName + "#" + methodName + Arrays.stream(parameterTypes)
+            .map(Class::getName)
+            .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * 方法签名
+     *
+     * @param targetName 服务类型全限定名
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型
+     */
+    public record MethodSignature(String targetName, String methodName, Class<?>[] parameterTypes) {
+
+        @Override
+        public String toString() {
+            return methodKey(targetName, methodName, parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MethodSignature other
+                && targetName.equals(other.targetName)
+                && methodName.equals(other.methodName)
+                && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * targetName.hashCode() + methodName.hashCode()) + Arrays.hashCode(parameterTypes);
+        }
+    }
+}
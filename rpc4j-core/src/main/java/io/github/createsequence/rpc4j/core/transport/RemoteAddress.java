@@ -2,6 +2,7 @@ package io.github.createsequence.rpc4j.core.transport;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -13,6 +14,7 @@ import lombok.Setter;
 @Builder
 @Setter
 @Getter
+@EqualsAndHashCode
 @AllArgsConstructor
 public class RemoteAddress {
 
@@ -1,41 +1,40 @@
 package io.github.createsequence.rpc4j.core.transport;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.io.Serializable;
 
 /**
- * 请求对象
+ * 请求对象，请求ID由报文头部携带，参见{@link Message#getRequestId()}
  *
  * @author huangchengxing
  */
 @Getter
-@RequiredArgsConstructor
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class Request implements Serializable {
 
-    /**
-     * 请求ID
-     */
-    private final String requestId;
-
     /**
      * 目标类型全限定名
      */
-    private final String targetName;
+    private String targetName;
 
     /**
      * 方法名
      */
-    private final String methodName;
+    private String methodName;
 
     /**
      * 参数类型
      */
-    private final Class<?>[] parameterTypes;
+    private Class<?>[] parameterTypes;
 
     /**
      * 参数
      */
-    private final Object[] arguments;
+    private Object[] arguments;
 }
@@ -2,63 +2,98 @@ package io.github.createsequence.rpc4j.core.transport;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.io.Serializable;
 
 /**
- * 响应对象
+ * 响应对象，请求ID由报文头部携带，参见{@link Message#getRequestId()}
  *
  * @author huangchengxing
  */
 @Getter
+@Setter
+@NoArgsConstructor
 @AllArgsConstructor
 public class Response implements Serializable {
 
     public static final String STATUS_SUCCESS = "success";
     public static final String STATUS_FAIL = "fail";
-
-    /**
-     * 请求ID
-     */
-    private final String requestId;
+    public static final String STATUS_OVERLOADED = "overloaded";
+    public static final String STATUS_UNKNOWN_METHOD = "unknown_method";
 
     /**
      * 调用结果
      */
-    private final Object result;
+    private Object result;
 
     /**
      * 响应状态
      */
-    private final String status;
+    private String status;
 
     /**
      * 响应消息
      */
-    @Setter
     private String message;
 
     /**
      * 创建成功响应
      *
      * @param result 调用结果
-     * @param requestId 请求ID
      * @return 响应对象
      */
-    public static Response success(String requestId, Object result) {
-        return new Response(requestId, result, STATUS_SUCCESS, "ok");
+    public static Response success(Object result) {
+        return new Response(result, STATUS_SUCCESS, "ok");
     }
 
     /**
      * 创建失败响应
      *
-     * @param requestId 请求ID
      * @param message 响应消息
      * @return 响应对象
      */
-    public static Response fail(String requestId, String message) {
-        return new Response(requestId, null, STATUS_FAIL, message);
+    public static Response fail(String message) {
+        return new Response(null, STATUS_FAIL, message);
+    }
+
+    /**
+     * 创建过载响应，表示服务端因资源不足而拒绝处理请求
+     *
+     * @param message 响应消息
+     * @return 响应对象
+     */
+    public static Response overloaded(String message) {
+        return new Response(null, STATUS_OVERLOADED, message);
+    }
+
+    /**
+     * 创建方法ID未知的响应，表示客户端持有的方法表已经过期，需要重新握手并通过方法名称发起请求
+     *
+     * @param message 响应消息
+     * @return 响应对象
+     */
+    public static Response unknownMethod(String message) {
+        return new Response(null, STATUS_UNKNOWN_METHOD, message);
+    }
+
+    /**
+     * 判断服务端是否因方法ID未知而拒绝处理请求
+     *
+     * @return 是否
+     */
+    public boolean isUnknownMethod() {
+        return STATUS_UNKNOWN_METHOD.equals(status);
+    }
+
+    /**
+     * 判断服务端是否因过载而拒绝处理请求
+     *
+     * @return 是否
+     */
+    public boolean isOverloaded() {
+        return STATUS_OVERLOADED.equals(status);
     }
 
     /**
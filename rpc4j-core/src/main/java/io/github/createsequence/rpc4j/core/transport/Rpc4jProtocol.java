@@ -4,14 +4,13 @@ import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyDecoder;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.Arrays;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.lang.reflect.Array;
+import java.util.function.ToIntFunction;
 
 /**
- * Rpc4j自定义协议，从头部开始计算共分为七个部分：
+ * Rpc4j自定义协议，从头部开始计算共分为十一个部分：
  * <ol>
  *     <li>魔数（5B）：用于校验是否是为rpc4j的自定义协议；</li>
  *     <li>协议版本号（1B）: 参见{@link Version}</li>
@@ -19,10 +18,15 @@ import java.util.stream.Collectors;
  *     <li>压缩算法（1B）: 参见{@link CompressionType}</li>
  *     <li>报文类型（1B）：表示当前请求报文类型，参见{@link MessageType}；</li>
  *     <li>请求状态（1B）；参见{@link ResponseStatus}</li>
+ *     <li>请求ID（8B）：在同一连接内单调递增，响应报文与其对应的请求报文具有相同的请求ID；</li>
+ *     <li>方法ID（4B）：客户端通过握手获得的方法ID，为0时表示请求中携带了完整的方法名称，参见{@link MethodTable}；</li>
+ *     <li>超时预算（4B）：请求剩余的超时时间，单位毫秒，为0时表示不限制，服务端将据此丢弃已经超时的请求，参见{@link Deadline}；</li>
  *     <li>报文长度（4B）；</li>
  *     <li>请求数据；</li>
  * </ol>
- * 一个数据帧的最大为10M。
+ * 一个数据帧的最大为10M，数据超过{@link #MAX_CHUNK_LENGTH}的消息将被拆分为多个数据帧发送，
+ * 除最后一帧外，其余数据帧的报文类型均为{@link MessageType#CHUNK}，
+ * 而最后一帧携带消息真实的报文类型与响应状态，接收方收到最后一帧后将各帧的数据按顺序拼接为完整的数据。
  *
  * @author huangchengxing
  * @see Rpc4jNettyDecoder
@@ -69,10 +73,32 @@ public interface Rpc4jProtocol {
      */
     int SIZE_OF_STATUS_FIELD = 1;
 
+    /**
+     * 请求ID，八个字节刚好为一个long
+     */
+    int SIZE_OF_REQUEST_ID_FIELD = 8;
+
+    /**
+     * 方法ID，四个字节刚好为一个int
+     */
+    int SIZE_OF_METHOD_ID_FIELD = 4;
+
+    /**
+     * 超时预算，即请求剩余的超时时间，单位毫秒，四个字节刚好为一个int
+     *
+     * @see #NO_TIMEOUT
+     */
+    int SIZE_OF_TIMEOUT_FIELD = 4;
+
+    /**
+     * 表示请求未携带超时预算
+     */
+    int NO_TIMEOUT = 0;
+
     /**
      * 报文头部总长度
      */
-    int SIZE_OF_HEADER_FIELDS = SIZE_OF_MAGIC_NUMBER_FIELD + SIZE_OF_VERSION_FIELD + SIZE_OF_SERIALIZER_TYPE_FIELD + SIZE_OF_COMPRESSION_TYPE_FIELD + SIZE_OF_TYPE_FIELD + SIZE_OF_STATUS_FIELD;
+    int SIZE_OF_HEADER_FIELDS = SIZE_OF_MAGIC_NUMBER_FIELD + SIZE_OF_VERSION_FIELD + SIZE_OF_SERIALIZER_TYPE_FIELD + SIZE_OF_COMPRESSION_TYPE_FIELD + SIZE_OF_TYPE_FIELD + SIZE_OF_STATUS_FIELD + SIZE_OF_REQUEST_ID_FIELD + SIZE_OF_METHOD_ID_FIELD + SIZE_OF_TIMEOUT_FIELD;
 
     /**
      * 长度域，表示一个完整报文的长度，四个字节刚好为一个int
@@ -84,6 +110,27 @@ public interface Rpc4jProtocol {
      */
     int MAX_FRAME_LENGTH = 10 * 1024 * 1024;
 
+    /**
+     * 单个数据帧中数据部分的最大长度，1M，超过该长度的数据将被拆分为多个数据帧
+     *
+     * @see MessageType#CHUNK
+     */
+    int MAX_CHUNK_LENGTH = 1024 * 1024;
+
+    /**
+     * 每条连接上正在拼接的数据的最大总长度，64M，超过该长度的消息将被丢弃
+     *
+     * @see MessageType#CHUNK
+     */
+    int MAX_AGGREGATED_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * 流式调用的初始信用值，即服务端在收到客户端追加的信用前，最多可以发送的流数据数
+     *
+     * @see MessageType#STREAM_CREDIT
+     */
+    int INITIAL_STREAM_CREDIT = 32;
+
     /**
      * 数据包类型
      *
@@ -103,17 +150,97 @@ public interface Rpc4jProtocol {
          */
         RPC_RESPONSE((byte)0x02, "响应"),
 
+        /**
+         * 心跳请求，不携带数据
+         */
+        HEARTBEAT_PING((byte)0x03, "心跳请求"),
+
+        /**
+         * 心跳响应，不携带数据
+         */
+        HEARTBEAT_PONG((byte)0x04, "心跳响应"),
+
+        /**
+         * 握手请求，不携带数据
+         */
+        HANDSHAKE_REQUEST((byte)0x05, "握手请求"),
+
+        /**
+         * 握手响应，对应{@link Handshake}
+         */
+        HANDSHAKE_RESPONSE((byte)0x06, "握手响应"),
+
+        /**
+         * 连接即将关闭，服务端停止时通知客户端不要再通过该连接发送新的请求，不携带数据
+         */
+        GOAWAY((byte)0x07, "连接即将关闭"),
+
+        /**
+         * 分片，一个消息的数据被拆分为多个数据帧时，除最后一帧外的其余数据帧，
+         * 其请求ID与所属消息相同，数据为所属消息的数据中的一段
+         */
+        CHUNK((byte)0x08, "分片"),
+
+        /**
+         * 流数据，服务端方法返回{@link java.util.concurrent.Flow.Publisher}或{@link java.util.stream.Stream}时，
+         * 其中的每个元素将作为一个流数据发送，对应{@link Response}
+         */
+        STREAM_ITEM((byte)0x09, "流数据"),
+
+        /**
+         * 流结束，服务端在发送完全部流数据，或流以异常结束时发送，对应{@link Response}
+         */
+        STREAM_COMPLETE((byte)0x0A, "流结束"),
+
+        /**
+         * 流信用，客户端每消费一批流数据后，通知服务端可以继续发送的流数据数，数据为{@link Integer}，
+         * 参见{@link #INITIAL_STREAM_CREDIT}
+         */
+        STREAM_CREDIT((byte)0x0B, "流信用"),
+
+        /**
+         * 取消流，客户端不再需要后续的流数据时发送，不携带数据
+         */
+        STREAM_CANCEL((byte)0x0C, "取消流"),
+
         ;
 
         /**
-         * 编码映射缓存
+         * 以编码为下标的编码表，用于在不装箱的情况下根据编码查找消息类型
          */
-        public static final Map<Byte, MessageType> LOOKUP = Map.copyOf(Arrays.stream(
-            MessageType.values()).collect(Collectors.toMap(MessageType::getCode, Function.identity())
-        ));
+        private static final MessageType[] CODE_TABLE = codeTable(values(), MessageType::getCode);
 
         private final byte code;
         private final String name;
+
+        /**
+         * 根据编码获取消息类型
+         *
+         * @param code 编码
+         * @return 消息类型，若编码未知则返回{@code null}
+         */
+        @Nullable
+        public static MessageType valueOf(byte code) {
+            return CODE_TABLE[code & 0xFF];
+        }
+
+        /**
+         * 是否为心跳消息
+         *
+         * @return 是否
+         */
+        public boolean isHeartbeat() {
+            return this == HEARTBEAT_PING || this == HEARTBEAT_PONG;
+        }
+
+        /**
+         * 是否携带数据
+         *
+         * @return 是否
+         */
+        public boolean hasPayload() {
+            return !isHeartbeat() && this != HANDSHAKE_REQUEST && this != GOAWAY && this != STREAM_CANCEL;
+        }
     }
 
     /**
@@ -133,14 +260,23 @@ public interface Rpc4jProtocol {
         ;
 
         /**
-         * 编码映射缓存
+         * 以编码为下标的编码表，用于在不装箱的情况下根据编码查找协议版本
          */
-        public static final Map<Byte, Version> LOOKUP = Map.copyOf(Arrays.stream(
-            Version.values()).collect(Collectors.toMap(Version::getCode, Function.identity())
-        ));
+        private static final Version[] CODE_TABLE = codeTable(values(), Version::getCode);
 
         private final byte code;
         private final String name;
+
+        /**
+         * 根据编码获取协议版本
+         *
+         * @param code 编码
+         * @return 协议版本，若编码未知则返回{@code null}
+         */
+        @Nullable
+        public static Version valueOf(byte code) {
+            return CODE_TABLE[code & 0xFF];
+        }
     }
 
     /**
@@ -165,14 +301,23 @@ public interface Rpc4jProtocol {
         ;
 
         /**
-         * 编码映射缓存
+         * 以编码为下标的编码表，用于在不装箱的情况下根据编码查找响应状态
          */
-        public static final Map<Byte, ResponseStatus> LOOKUP = Map.copyOf(Arrays.stream(
-            ResponseStatus.values()).collect(Collectors.toMap(ResponseStatus::getCode, Function.identity())
-        ));
+        private static final ResponseStatus[] CODE_TABLE = codeTable(values(), ResponseStatus::getCode);
 
         private final byte code;
         private final String name;
+
+        /**
+         * 根据编码获取响应状态
+         *
+         * @param code 编码
+         * @return 响应状态，若编码未知则返回{@code null}
+         */
+        @Nullable
+        public static ResponseStatus valueOf(byte code) {
+            return CODE_TABLE[code & 0xFF];
+        }
     }
 
     /**
@@ -192,14 +337,23 @@ public interface Rpc4jProtocol {
         ;
 
         /**
-         * 编码映射缓存
+         * 以编码为下标的编码表，用于在不装箱的情况下根据编码查找压缩方式
          */
-        public static final Map<Byte, CompressionType> LOOKUP = Map.copyOf(Arrays.stream(
-            CompressionType.values()).collect(Collectors.toMap(CompressionType::getCode, Function.identity())
-        ));
+        private static final CompressionType[] CODE_TABLE = codeTable(values(), CompressionType::getCode);
 
         private final byte code;
         private final String name;
+
+        /**
+         * 根据编码获取压缩方式
+         *
+         * @param code 编码
+         * @return 压缩方式，若编码未知则返回{@code null}
+         */
+        @Nullable
+        public static CompressionType valueOf(byte code) {
+            return CODE_TABLE[code & 0xFF];
+        }
     }
 
     /**
@@ -219,13 +373,39 @@ public interface Rpc4jProtocol {
         ;
 
         /**
-         * 编码映射缓存
+         * 以编码为下标的编码表，用于在不装箱的情况下根据编码查找序列化方式
          */
-        public static final Map<Byte, SerializationType> LOOKUP = Map.copyOf(Arrays.stream(
-            SerializationType.values()).collect(Collectors.toMap(SerializationType::getCode, Function.identity())
-        ));
+        private static final SerializationType[] CODE_TABLE = codeTable(values(), SerializationType::getCode);
 
         private final byte code;
         private final String name;
+
+        /**
+         * 根据编码获取序列化方式
+         *
+         * @param code 编码
+         * @return 序列化方式，若编码未知则返回{@code null}
+         */
+        @Nullable
+        public static SerializationType valueOf(byte code) {
+            return CODE_TABLE[code & 0xFF];
+        }
+    }
+
+    /**
+     * 创建以编码为下标的编码表，编码将被视为无符号字节
+     *
+     * @param values 全部枚举值
+     * @param codeGetter 获取枚举值编码的方法
+     * @param <E> 枚举类型
+     * @return 长度为256的编码表，未使用的编码对应的元素为{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> E[] codeTable(E[] values, ToIntFunction<E> codeGetter) {
+        E[] table = (E[])Array.newInstance(values.getClass().getComponentType(), 1 << Byte.SIZE);
+        for (E value : values) {
+            table[codeGetter.applyAsInt(value) & 0xFF] = value;
+        }
+        return table;
     }
 }
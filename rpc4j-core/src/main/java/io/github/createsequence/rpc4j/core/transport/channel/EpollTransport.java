@@ -0,0 +1,58 @@
+package io.github.createsequence.rpc4j.core.transport.channel;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 基于Linux epoll的传输实现，仅在能够加载Netty本地库的Linux平台上可用
+ *
+ * @author huangchengxing
+ */
+public class EpollTransport implements NettyTransport {
+
+    public static final String NAME = "epoll";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            return Epoll.isAvailable();
+        } catch (Throwable ex) {
+            // 本地库缺失时，加载Epoll类本身就可能失败
+            return false;
+        }
+    }
+
+    @Override
+    public EventLoopGroup newEventLoopGroup(int nThreads, ThreadFactory threadFactory) {
+        return new EpollEventLoopGroup(nThreads, threadFactory);
+    }
+
+    @Override
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return EpollSocketChannel.class;
+    }
+
+    @Override
+    public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+        return EpollServerSocketChannel.class;
+    }
+
+    @Override
+    public ChannelOption<Boolean> getReusePortOption() {
+        return EpollChannelOption.SO_REUSEPORT;
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.createsequence.rpc4j.core.transport.channel;
+
+import io.github.createsequence.common.util.Asserts;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * <p>事件循环资源，持有一组按指定大小创建的事件循环组，以及与之匹配的{@link NettyTransport}。
+ *
+ * <p>同一个实例可以被服务端与客户端共享：
+ * 服务端使用{@link #getBossGroup()}接受连接，使用{@link #getWorkerGroup()}处理连接上的读写；
+ * 客户端同样使用{@link #getWorkerGroup()}处理连接上的读写。
+ * 如此一来，服务端与客户端无需各自创建一组工作线程，进程内的IO线程总数将保持在指定的大小。
+ *
+ * <p>需要注意，服务方法默认在分发线程池中执行，因此服务端在处理请求时发起的调用并不会在接收该请求的事件循环上完成，
+ * 只有在工作线程中发起的异步调用，才会优先使用注册在当前事件循环上的连接，参见{@link #inEventLoop()}。
+ *
+ * @author huangchengxing
+ */
+@Slf4j
+@Getter
+public class EventLoopResources implements Closeable {
+
+    /**
+     * 网络传输实现
+     */
+    private final NettyTransport transport;
+
+    /**
+     * 用于接受连接的事件循环组
+     */
+    private final EventLoopGroup bossGroup;
+
+    /**
+     * 用于处理连接读写的事件循环组
+     */
+    private final EventLoopGroup workerGroup;
+
+    /**
+     * 使用自动选择的传输实现创建资源，工作线程数与处理器核心数相同
+     */
+    public EventLoopResources() {
+        this(NettyTransports.getDefault(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 创建资源
+     *
+     * @param transport 网络传输实现
+     * @param workerThreads 工作线程数
+     */
+    public EventLoopResources(NettyTransport transport, int workerThreads) {
+        Asserts.isTrue(workerThreads > 0, "工作线程数必须大于0：{}", workerThreads);
+        this.transport = transport;
+        this.bossGroup = transport.newEventLoopGroup(1, new DefaultThreadFactory("rpc4j-boss"));
+        this.workerGroup = transport.newEventLoopGroup(workerThreads, new WorkerThreadFactory(this));
+        log.info("创建事件循环资源，传输实现为[{}]，工作线程数为[{}]", transport.getName(), workerThreads);
+    }
+
+    /**
+     * 获取当前线程所在的工作事件循环
+     *
+     * @return 事件循环，若当前线程不是工作线程则返回{@code null}
+     */
+    @Nullable
+    public EventLoop currentEventLoop() {
+        for (EventExecutor executor : workerGroup) {
+            if (executor.inEventLoop() && executor instanceof EventLoop eventLoop) {
+                return eventLoop;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 当前线程是否为工作线程，工作线程在创建时即记录了其所属的资源，因此无需遍历事件循环组
+     *
+     * @return 是否
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() instanceof WorkerThread workerThread && workerThread.owner == this;
+    }
+
+    /**
+     * 关闭全部事件循环组
+     */
+    @Override
+    public void close() {
+        bossGroup.shutdownGracefully();
+        workerGroup.shutdownGracefully();
+    }
+
+    /**
+     * 用于创建工作线程的线程工厂
+     */
+    private static class WorkerThreadFactory extends DefaultThreadFactory {
+
+        private final EventLoopResources owner;
+
+        WorkerThreadFactory(EventLoopResources owner) {
+            super("rpc4j-worker");
+            this.owner = owner;
+        }
+
+        @Override
+        protected Thread newThread(Runnable r, String name) {
+            return new WorkerThread(threadGroup, r, name, owner);
+        }
+    }
+
+    /**
+     * 工作线程，记录其所属的资源
+     */
+    private static class WorkerThread extends FastThreadLocalThread {
+
+        private final EventLoopResources owner;
+
+        WorkerThread(ThreadGroup group, Runnable target, String name, EventLoopResources owner) {
+            super(group, target, name);
+            this.owner = owner;
+        }
+    }
+}
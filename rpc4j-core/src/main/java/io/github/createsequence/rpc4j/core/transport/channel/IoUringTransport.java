@@ -0,0 +1,80 @@
+package io.github.createsequence.rpc4j.core.transport.channel;
+
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>基于Linux io_uring的传输实现。<br />
+ * io_uring由Netty的孵化模块{@code netty-incubator-transport-native-io_uring}提供，
+ * 该模块不是必须的依赖，因此相关类型均通过反射加载，
+ * 仅当该模块存在于类路径中且内核支持io_uring时可用。
+ *
+ * @author huangchengxing
+ */
+public class IoUringTransport implements NettyTransport {
+
+    public static final String NAME = "io_uring";
+
+    private static final String PACKAGE = "io.netty.incubator.channel.uring.";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            Class<?> ioUring = Class.forName(PACKAGE + "IOUring");
+            return (Boolean)ioUring.getMethod("isAvailable").invoke(null);
+        } catch (Throwable ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public EventLoopGroup newEventLoopGroup(int nThreads, ThreadFactory threadFactory) {
+        try {
+            return (EventLoopGroup)loadClass("IOUringEventLoopGroup")
+                .getConstructor(int.class, ThreadFactory.class)
+                .newInstance(nThreads, threadFactory);
+        } catch (ReflectiveOperationException ex) {
+            throw new Rpc4jException("无法创建io_uring事件循环组", ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return (Class<? extends SocketChannel>)loadClass("IOUringSocketChannel");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+        return (Class<? extends ServerSocketChannel>)loadClass("IOUringServerSocketChannel");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public ChannelOption<Boolean> getReusePortOption() {
+        try {
+            return (ChannelOption<Boolean>)loadClass("IOUringChannelOption").getField("SO_REUSEPORT").get(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    private static Class<?> loadClass(String simpleName) {
+        try {
+            return Class.forName(PACKAGE + simpleName);
+        } catch (ClassNotFoundException ex) {
+            throw new Rpc4jException("当前环境不支持io_uring，找不到类型[{}]", PACKAGE + simpleName, ex);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.createsequence.rpc4j.core.transport.channel;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>Netty网络传输实现，用于屏蔽不同IO模型下事件循环组与通道类型的差异。<br />
+ * 客户端与服务端通过该接口创建事件循环组，并获取与之匹配的通道类型，
+ * 同一个传输实现创建的事件循环组只能与该实现提供的通道类型搭配使用。
+ *
+ * @author huangchengxing
+ * @see NettyTransports
+ */
+public interface NettyTransport {
+
+    /**
+     * 获取传输实现名称
+     *
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * 当前环境是否支持该传输实现
+     *
+     * @return 是否
+     */
+    boolean isAvailable();
+
+    /**
+     * 创建事件循环组
+     *
+     * @param nThreads 线程数，为0时使用Netty的默认线程数
+     * @param threadFactory 线程工厂
+     * @return 事件循环组
+     */
+    EventLoopGroup newEventLoopGroup(int nThreads, ThreadFactory threadFactory);
+
+    /**
+     * 获取客户端通道类型
+     *
+     * @return 通道类型
+     */
+    Class<? extends SocketChannel> getSocketChannelClass();
+
+    /**
+     * 获取服务端通道类型
+     *
+     * @return 通道类型
+     */
+    Class<? extends ServerSocketChannel> getServerSocketChannelClass();
+
+    /**
+     * 获取用于开启端口复用（{@code SO_REUSEPORT}）的通道选项，
+     * 开启后多个监听套接字可以绑定到同一端口，并由内核在它们之间分配新的连接
+     *
+     * @return 通道选项，若该传输实现不支持端口复用则返回{@code null}
+     */
+    @Nullable
+    default ChannelOption<Boolean> getReusePortOption() {
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.createsequence.rpc4j.core.transport.channel;
+
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.common.util.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+/**
+ * <p>{@link NettyTransport}选择器。<br />
+ * 未指定传输实现，或指定为{@value #AUTO}时，将按io_uring、epoll、nio的顺序选择第一个可用的实现；
+ * 若指定的传输实现在当前环境不可用，则回退到nio。
+ *
+ * <p>传输实现可通过系统属性{@value #TRANSPORT_PROPERTY}指定，
+ * 可选值为{@value #AUTO}、{@value NioTransport#NAME}、{@value EpollTransport#NAME}和{@value IoUringTransport#NAME}。
+ *
+ * @author huangchengxing
+ */
+@Slf4j
+public class NettyTransports {
+
+    /**
+     * 用于指定传输实现的系统属性
+     */
+    public static final String TRANSPORT_PROPERTY = "rpc4j.transport";
+
+    /**
+     * 自动选择传输实现
+     */
+    public static final String AUTO = "auto";
+
+    private static final NettyTransport NIO = new NioTransport();
+
+    /**
+     * 按优先级排列的传输实现
+     */
+    private static final List<NettyTransport> TRANSPORTS = List.of(
+        new IoUringTransport(), new EpollTransport(), NIO
+    );
+
+    private NettyTransports() {
+    }
+
+    /**
+     * 根据系统属性{@value #TRANSPORT_PROPERTY}选择传输实现
+     *
+     * @return 传输实现
+     */
+    public static NettyTransport getDefault() {
+        return select(System.getProperty(TRANSPORT_PROPERTY));
+    }
+
+    /**
+     * 选择传输实现
+     *
+     * @param name 传输实现名称，为空或为{@value #AUTO}时自动选择
+     * @return 传输实现
+     */
+    public static NettyTransport select(@Nullable String name) {
+        NettyTransport transport;
+        if (StringUtils.isEmpty(name) || AUTO.equalsIgnoreCase(name)) {
+            transport = TRANSPORTS.stream()
+                .filter(NettyTransport::isAvailable)
+                .findFirst()
+                .orElse(NIO);
+        } else {
+            transport = TRANSPORTS.stream()
+                .filter(t -> t.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new Rpc4jException("未知的传输实现：{}", name));
+            if (!transport.isAvailable()) {
+                log.warn("传输实现[{}]在当前环境不可用，回退到[{}]", name, NIO.getName());
+                transport = NIO;
+            }
+        }
+        log.info("使用[{}]作为网络传输实现", transport.getName());
+        return transport;
+    }
+}
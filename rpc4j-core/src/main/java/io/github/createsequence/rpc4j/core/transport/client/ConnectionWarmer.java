@@ -0,0 +1,24 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 连接预热器，用于在发起真正的调用前预先建立与服务端之间的连接
+ *
+ * @author huangchengxing
+ * @see io.github.createsequence.rpc4j.core.support.service.Reference#warmUp()
+ */
+public interface ConnectionWarmer {
+
+    /**
+     * 预先建立与指定地址之间的全部连接，并在每条连接上发送指定次数的心跳，
+     * 以便提前完成连接建立、通道初始化与编解码器的预热
+     *
+     * @param address 服务端地址，必须为{@link RemoteAddress.Type#FIXED_IP}类型
+     * @param heartbeats 每条连接上发送的心跳次数，为0时仅建立连接
+     * @return 当全部连接建立且心跳均收到响应后完成
+     */
+    CompletableFuture<Void> warmUp(RemoteAddress address, int heartbeats);
+}
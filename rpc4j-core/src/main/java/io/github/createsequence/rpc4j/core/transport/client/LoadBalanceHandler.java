@@ -8,9 +8,12 @@ import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
 import io.github.createsequence.rpc4j.core.transport.Attributes;
 import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
+import lombok.Setter;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * 负载均衡调用器，用于在客户端调用前确认服务端地址
@@ -24,6 +27,13 @@ public class LoadBalanceHandler extends RequiredAttributeCheckHandlerDelegate {
 
     private final ComponentManager componentManager;
 
+    /**
+     * 用于判断服务端地址当前是否可写，将通过{@link Attributes#ADDRESS_WRITABILITY}传递给负载均衡器
+     */
+    @Nullable
+    @Setter
+    private Predicate<RemoteAddress> addressWritability;
+
     public LoadBalanceHandler(
         RpcInvocationHandler delegate, ComponentManager componentManager) {
         super(delegate);
@@ -51,6 +61,9 @@ public class LoadBalanceHandler extends RequiredAttributeCheckHandlerDelegate {
     protected RpcInvocation beforeInvoke(RpcInvocation rpcInvocation) {
         rpcInvocation = super.beforeInvoke(rpcInvocation);
         List<RemoteAddress> addresses = rpcInvocation.getRemoteAddresses();
+        if (Objects.nonNull(addressWritability)) {
+            rpcInvocation.setAttribute(Attributes.ADDRESS_WRITABILITY, addressWritability);
+        }
         LoadBalancer loadBalancer = componentManager.getComponent(LoadBalancer.class, rpcInvocation.getAttribute(Attributes.LOAD_BALANCE_STRATEGY));
         RemoteAddress address = loadBalancer.select(addresses, rpcInvocation);
         rpcInvocation.setAttribute(Attributes.REMOTE_ADDRESS, address);
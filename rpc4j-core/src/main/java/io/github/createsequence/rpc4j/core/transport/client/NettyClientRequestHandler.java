@@ -1,18 +1,28 @@
 package io.github.createsequence.rpc4j.core.transport.client;
 
 import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.common.exception.ConnectionClosingException;
+import io.github.createsequence.common.exception.OverloadException;
 import io.github.createsequence.common.exception.RequestFailException;
 import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.common.exception.TimeoutException;
 import io.github.createsequence.common.util.Asserts;
 import io.github.createsequence.rpc4j.core.support.handler.Depends;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
 import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.FlushBatchingHandler;
+import io.github.createsequence.rpc4j.core.transport.Handshake;
 import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
 import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
 import io.github.createsequence.rpc4j.core.transport.Request;
 import io.github.createsequence.rpc4j.core.transport.Response;
 import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.channel.EventLoopResources;
+import io.github.createsequence.rpc4j.core.transport.channel.NettyTransport;
+import io.github.createsequence.rpc4j.core.transport.channel.NettyTransports;
+import io.github.createsequence.rpc4j.core.transport.codec.DiscardedMessage;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyDecoder;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
 import io.netty.bootstrap.Bootstrap;
@@ -23,10 +33,15 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.timeout.IdleState;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.ScheduledFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -34,13 +49,15 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.Closeable;
 import java.net.InetSocketAddress;
 import java.util.Objects;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
  * Netty客户端调用器，用于执行远程方法调用
@@ -53,14 +70,43 @@ import java.util.concurrent.TimeoutException;
     @Depends.Attr(name = Attributes.REQUEST_TIMEOUT_UNIT, type = TimeUnit.class, required = true),
     @Depends.Attr(name = Attributes.REQUEST_PROTOCOL_VERSION, type = Byte.class, required = true),
     @Depends.Attr(name = Attributes.COMPRESSION_TYPE, type = Byte.class, required = true),
-    @Depends.Attr(name = Attributes.SERIALIZATION_TYPE, type = Byte.class, required = true)
+    @Depends.Attr(name = Attributes.SERIALIZATION_TYPE, type = Byte.class, required = true),
+    @Depends.Attr(name = Attributes.ASYNC_INVOCATION, type = Boolean.class),
+    @Depends.Attr(name = Attributes.STREAM_INVOCATION, type = Boolean.class),
+    @Depends.Attr(name = Attributes.METHOD_KEY, type = String.class)
 })
 @Slf4j
-public class NettyClientRequestHandler implements RpcInvocationHandler, Closeable {
+public class NettyClientRequestHandler implements RpcInvocationHandler, ConnectionWarmer, Closeable {
 
-    private final ConcurrentMap<String, CompletableFuture<Object>> uncompletedRequests = new ConcurrentHashMap<>();
+    /**
+     * 检查并回收空闲连接的周期，单位毫秒
+     */
+    private static final long IDLE_CHECK_PERIOD_MILLIS = 1000L;
+
+    /**
+     * 超时定时器的时间轮刻度，单位毫秒，请求的实际超时时间误差不超过一个刻度
+     */
+    private static final long TIMEOUT_TICK_MILLIS = 10L;
+
+    private final ConcurrentMap<InetSocketAddress, NettyConnectionPool> connectionPools = new ConcurrentHashMap<>();
     private final Bootstrap bootstrap;
-    private final EventLoopGroup worker;
+    private final EventLoopResources eventLoopResources;
+    private final boolean ownEventLoopResources;
+    private final ScheduledFuture<?> idleCheckTask;
+
+    /**
+     * 请求超时定时器，由全部连接上的未完成请求共享
+     */
+    private final Timer timeoutTimer = new HashedWheelTimer(
+        new DefaultThreadFactory("rpc4j-request-timeout", true), TIMEOUT_TICK_MILLIS, TimeUnit.MILLISECONDS
+    );
+
+    /**
+     * 异步调用的回调线程池，异步调用返回的任务总是在该线程池中完成，
+     * 从而使调用方注册的后续操作不会在IO线程或超时定时器线程中执行，默认为{@link ForkJoinPool#commonPool()}
+     */
+    @Setter
+    private Executor callbackExecutor = ForkJoinPool.commonPool();
 
     /**
      * 连接超时时间
@@ -74,27 +120,139 @@ public class NettyClientRequestHandler implements RpcInvocationHandler, Closeabl
     @Setter
     private TimeUnit connectTimeoutUnit = TimeUnit.MILLISECONDS;
 
+    /**
+     * 与每个服务端地址之间的最大连接数，仅对此后新建的连接池生效
+     */
+    @Setter
+    private int maxConnectionsPerAddress = 2;
+
+    /**
+     * 连接的最大空闲时间，单位毫秒，超过该时间且没有未完成请求的连接将被关闭
+     */
+    @Setter
+    private long idleTimeoutMillis = 60_000L;
+
+    /**
+     * 通道写缓冲区的低水位线，单位字节，仅对此后新建的连接生效
+     */
+    @Setter
+    private int writeBufferLowWaterMark = WriteBufferWaterMark.DEFAULT.low();
+
+    /**
+     * 通道写缓冲区的高水位线，单位字节，写缓冲区超过该值时通道将不可写，仅对此后新建的连接生效
+     */
+    @Setter
+    private int writeBufferHighWaterMark = WriteBufferWaterMark.DEFAULT.high();
+
+    /**
+     * 通道不可写时，每条连接上最多等待发送的请求数，超过该值的请求将以{@link OverloadException}被拒绝，
+     * 仅对此后新建的连接池生效
+     */
+    @Setter
+    private int maxPendingWritesPerConnection = 1024;
+
+    /**
+     * 心跳间隔，单位毫秒，连接上超过该时间没有写出数据时将发送心跳，小于等于0时不发送心跳，仅对此后新建的连接生效
+     */
+    @Setter
+    private long heartbeatIntervalMillis = 10_000L;
+
+    /**
+     * 允许连续丢失的心跳次数，连接上超过{@code heartbeatIntervalMillis * maxMissedHeartbeats}没有读到数据时，
+     * 认为服务端已经不可用并关闭连接
+     */
+    @Setter
+    private int maxMissedHeartbeats = 3;
+
+    /**
+     * 每条连接上最多合并的刷新次数，小于等于1时表示每次写入后都立即刷新，仅对此后新建的连接生效
+     */
+    @Setter
+    private int maxFlushBatchSize = 64;
+
+    /**
+     * 延迟刷新时间，为0时表示在当前事件循环的任务执行完毕后刷新，仅对此后新建的连接生效
+     *
+     * @see FlushBatchingHandler
+     */
+    @Setter
+    private long flushDelay = 0L;
+
+    /**
+     * 延迟刷新时间单位
+     */
+    @Setter
+    private TimeUnit flushDelayUnit = TimeUnit.MICROSECONDS;
+
+    /**
+     * 是否在连接建立后与服务端握手以获取其方法表，握手完成后，请求将仅通过方法ID指定要调用的方法，
+     * 而不再携带服务类型、方法名与参数类型，仅对此后新建的连接生效
+     *
+     * @see MethodTable
+     */
+    @Setter
+    private boolean methodIdHandshake = true;
+
     public NettyClientRequestHandler(
         ComponentManager componentManager) {
-        this.worker = new NioEventLoopGroup();
+        this(componentManager, NettyTransports.getDefault());
+    }
+
+    public NettyClientRequestHandler(
+        ComponentManager componentManager, NettyTransport transport) {
+        this(componentManager, new EventLoopResources(transport, Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * 创建一个实例，客户端连接将使用给定资源中的工作事件循环组，关闭客户端时不会关闭该资源
+     *
+     * @param componentManager 组件管理器
+     * @param eventLoopResources 事件循环资源
+     */
+    public NettyClientRequestHandler(
+        ComponentManager componentManager, EventLoopResources eventLoopResources) {
+        this(componentManager, eventLoopResources, false);
+    }
+
+    private NettyClientRequestHandler(
+        ComponentManager componentManager, EventLoopResources eventLoopResources, boolean ownEventLoopResources) {
+        log.info("netty客户端使用[{}]作为网络传输实现", eventLoopResources.getTransport().getName());
+        this.eventLoopResources = eventLoopResources;
+        this.ownEventLoopResources = ownEventLoopResources;
         this.bootstrap = new Bootstrap()
-            .group(worker)
-            .channel(NioSocketChannel.class)
+            .group(eventLoopResources.getWorkerGroup())
+            .channel(eventLoopResources.getTransport().getSocketChannelClass())
             .option(ChannelOption.TCP_NODELAY, true)
             //.handler(new LoggingHandler(LogLevel.INFO))
             .handler(new ChannelInitializer<SocketChannel>() {
                 @Override
                 protected void initChannel(SocketChannel ch) {
+                    ch.config().setWriteBufferWaterMark(
+                        new WriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark)
+                    );
                     ChannelPipeline pipeline = ch.pipeline();
+                    if (heartbeatIntervalMillis > 0) {
+                        pipeline.addLast(new IdleStateHandler(
+                            heartbeatIntervalMillis * maxMissedHeartbeats, heartbeatIntervalMillis, 0, TimeUnit.MILLISECONDS
+                        ));
+                    }
+                    if (maxFlushBatchSize > 1) {
+                        pipeline.addLast(new FlushBatchingHandler(maxFlushBatchSize, flushDelay, flushDelayUnit));
+                    }
                     pipeline.addLast(new Rpc4jNettyEncoder(componentManager));
                     pipeline.addLast(new Rpc4jNettyDecoder(componentManager));
                     pipeline.addLast(new ClientInboundHandler());
                 }
             });
+        this.idleCheckTask = eventLoopResources.getWorkerGroup().scheduleAtFixedRate(
+            this::closeIdleConnections, IDLE_CHECK_PERIOD_MILLIS, IDLE_CHECK_PERIOD_MILLIS, TimeUnit.MILLISECONDS
+        );
     }
 
     /**
-     * 执行方法调用
+     * 执行方法调用，若调用上下文中指定了{@link Attributes#ASYNC_INVOCATION}，
+     * 则不会阻塞当前线程，而是直接返回一个{@link CompletableFuture}，
+     * 若指定了{@link Attributes#STREAM_INVOCATION}，则直接返回一个{@link Flow.Publisher}，请求将在订阅时发送
      *
      * @param rpcInvocation 调用参数
      * @return 返回值
@@ -102,11 +260,232 @@ public class NettyClientRequestHandler implements RpcInvocationHandler, Closeabl
     @Override
     public Object invoke(RpcInvocation rpcInvocation) {
         RemoteAddress remoteAddress = rpcInvocation.getAttribute(Attributes.REMOTE_ADDRESS);
-        Channel channel = getChannel(new InetSocketAddress(remoteAddress.getHost(), remoteAddress.getPort()));
-        Asserts.isTrue(channel.isActive(), "连接[{}]已经关闭！", channel.id());
-        Asserts.isTrue(channel.isWritable(), "连接[{}]不可写！", channel.id());
-        Response response = doConnect(channel, rpcInvocation);
-        return resolveResult(response);
+        InetSocketAddress address = toSocketAddress(remoteAddress);
+        if (Boolean.TRUE.equals(rpcInvocation.getAttribute(Attributes.STREAM_INVOCATION))) {
+            return invokeStream(address, rpcInvocation);
+        }
+        if (Boolean.TRUE.equals(rpcInvocation.getAttribute(Attributes.ASYNC_INVOCATION))) {
+            return invokeAsync(address, rpcInvocation);
+        }
+        // 同步调用将阻塞当前线程，若当前线程为事件循环线程，则该线程上的全部连接都将被阻塞
+        Asserts.isFalse(
+            eventLoopResources.inEventLoop(),
+            "不允许在事件循环线程[{}]中发起同步调用，请改用异步方法", Thread.currentThread().getName()
+        );
+        // 连接可能恰好在获取后因空闲而被回收，此时请求尚未发送，改用其他连接重试即可
+        for (int attempt = 1; ; attempt++) {
+            try {
+                NettyConnection connection = getConnection(address);
+                Response response = doConnect(connection, rpcInvocation);
+                return resolveResult(response);
+            } catch (ConnectionClosingException ex) {
+                if (!isRetryable(ex, attempt)) {
+                    throw ex;
+                }
+                log.debug("客户端获取的连接正在关闭，改用其他连接重试，服务端地址[{}]", address);
+            }
+        }
+    }
+
+    /**
+     * 以全异步的方式执行方法调用，获取连接、发送请求与等待响应的过程均不会阻塞当前线程，
+     * 无论调用成功与否，返回的任务都将在{@link #callbackExecutor}中完成
+     *
+     * @param address 地址
+     * @param rpcInvocation 调用参数
+     * @return 调用结果
+     */
+    protected CompletableFuture<Object> invokeAsync(InetSocketAddress address, RpcInvocation rpcInvocation) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        invokeAsync(address, rpcInvocation, result, 1);
+        return result;
+    }
+
+    private void invokeAsync(
+        InetSocketAddress address, RpcInvocation rpcInvocation, CompletableFuture<Object> result, int attempt) {
+        getConnectionPool(address).acquireAsync()
+            .orTimeout(connectTimeout, connectTimeoutUnit)
+            .thenAccept(connection -> sendAsync(
+                address, connection, rpcInvocation, getMethodId(connection, rpcInvocation), result, attempt
+            ))
+            .exceptionally(ex -> {
+                if (isRetryable(ex, attempt)) {
+                    invokeAsync(address, rpcInvocation, result, attempt + 1);
+                    return null;
+                }
+                callbackExecutor.execute(() -> result.completeExceptionally(ex));
+                return null;
+            });
+    }
+
+    /**
+     * 异步发送请求，响应数据将在{@link #callbackExecutor}中反序列化，
+     * 若服务端不认识请求中的方法ID，则重新握手，并改为通过方法名称再次发送请求，
+     * 若连接恰好因空闲而被回收，则重新获取连接后再次发送请求
+     *
+     * @param address 地址
+     * @param connection 连接
+     * @param rpcInvocation 调用参数
+     * @param methodId 方法ID
+     * @param result 调用结果
+     * @param attempt 当前是第几次尝试获取连接
+     */
+    private void sendAsync(
+        InetSocketAddress address, NettyConnection connection, RpcInvocation rpcInvocation,
+        int methodId, CompletableFuture<Object> result, int attempt) {
+        sendRequest(connection, rpcInvocation, connection.nextRequestId(), methodId)
+            .whenCompleteAsync((message, ex) -> {
+                if (Objects.nonNull(ex) && isRetryable(ex, attempt)) {
+                    invokeAsync(address, rpcInvocation, result, attempt + 1);
+                    return;
+                }
+                if (Objects.nonNull(ex)) {
+                    result.completeExceptionally(ex);
+                    return;
+                }
+                try {
+                    Response response = toResponse(message);
+                    if (methodId != MethodTable.NO_METHOD_ID && response.isUnknownMethod()) {
+                        handshakeAgain(connection);
+                        sendAsync(address, connection, rpcInvocation, MethodTable.NO_METHOD_ID, result, attempt);
+                        return;
+                    }
+                    result.complete(resolveResult(response));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }, callbackExecutor);
+    }
+
+    /**
+     * <p>以流的方式执行方法调用，每次订阅都将发起一次新的请求，服务端返回的流数据将按订阅者的需求依次转交。
+     *
+     * <p>流的持续时间取决于订阅者的消费速度，因此请求不携带超时预算，也不受客户端请求超时的限制，
+     * 并且总是通过方法名称指定要调用的方法，以免服务端方法表变更时流以失败结束。
+     *
+     * @param address 地址
+     * @param rpcInvocation 调用参数
+     * @return 发布者
+     * @see StreamReceiver
+     */
+    protected Flow.Publisher<Object> invokeStream(InetSocketAddress address, RpcInvocation rpcInvocation) {
+        return subscriber -> {
+            StreamReceiver receiver = new StreamReceiver(subscriber, Rpc4jProtocol.INITIAL_STREAM_CREDIT);
+            subscriber.onSubscribe(receiver);
+            subscribeStream(address, rpcInvocation, receiver, 1);
+        };
+    }
+
+    private void subscribeStream(InetSocketAddress address, RpcInvocation rpcInvocation, StreamReceiver receiver, int attempt) {
+        getConnectionPool(address).acquireAsync()
+            .orTimeout(connectTimeout, connectTimeoutUnit)
+            .whenComplete((connection, ex) -> {
+                if (Objects.nonNull(ex)) {
+                    if (isRetryable(ex, attempt)) {
+                        subscribeStream(address, rpcInvocation, receiver, attempt + 1);
+                    } else {
+                        receiver.onError(ex);
+                    }
+                    return;
+                }
+                long requestId = connection.nextRequestId();
+                Message<Request> message = createRequestMessage(
+                    rpcInvocation, requestId, MethodTable.NO_METHOD_ID, Rpc4jProtocol.NO_TIMEOUT
+                );
+                CompletableFuture<Void> sent = receiver.bind(connection, requestId, message);
+                if (Objects.isNull(sent)) {
+                    return;
+                }
+                sent.whenComplete((v, e) -> {
+                    if (Objects.isNull(e)) {
+                        return;
+                    }
+                    connection.removeStream(requestId);
+                    // 连接恰好因空闲而被回收时，流尚未注册，改用其他连接重试即可
+                    if (isRetryable(e, attempt)) {
+                        subscribeStream(address, rpcInvocation, receiver, attempt + 1);
+                        return;
+                    }
+                    log.error("客户端发送流式请求失败，请求ID为[{}]", requestId);
+                    receiver.onError(e);
+                });
+            });
+    }
+
+    /**
+     * 判断请求是否因所使用的连接或连接池恰好被回收而失败，且仍可以重新获取连接后重试，
+     * 由于每次获取连接都会选择另一个槽位，因此最多尝试的次数比每个地址的最大连接数多一次
+     *
+     * @param ex 异常
+     * @param attempt 当前是第几次尝试获取连接
+     * @return 是否
+     */
+    private boolean isRetryable(Throwable ex, int attempt) {
+        Throwable cause = ex instanceof CompletionException && Objects.nonNull(ex.getCause()) ? ex.getCause() : ex;
+        return cause instanceof ConnectionClosingException && attempt <= maxConnectionsPerAddress;
+    }
+
+    /**
+     * 预先建立与指定地址之间的全部连接，并在每条连接上依次发送指定次数的心跳
+     *
+     * @param remoteAddress 服务端地址
+     * @param heartbeats 每条连接上发送的心跳次数
+     * @return 当全部连接建立且心跳均收到响应后完成
+     */
+    @Override
+    public CompletableFuture<Void> warmUp(RemoteAddress remoteAddress, int heartbeats) {
+        CompletableFuture<?>[] futures = getConnectionPool(toSocketAddress(remoteAddress)).acquireAll().stream()
+            .map(connection -> connection
+                .orTimeout(connectTimeout, connectTimeoutUnit)
+                .thenCompose(conn -> sendHeartbeats(conn, heartbeats)))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures);
+    }
+
+    private CompletableFuture<Void> sendHeartbeats(NettyConnection connection, int heartbeats) {
+        CompletableFuture<Void> result = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < heartbeats; i++) {
+            result = result.thenCompose(v -> sendHeartbeat(connection).thenAccept(pong -> {}));
+        }
+        return result;
+    }
+
+    /**
+     * 发送一次需要等待响应的心跳，心跳的超时时间与连接超时时间相同
+     *
+     * @param connection 连接
+     * @return 心跳对应的任务，当收到服务端响应后完成
+     */
+    private CompletableFuture<Object> sendHeartbeat(NettyConnection connection) {
+        long requestId = connection.nextRequestId();
+        var heartbeat = connection.registerRequest(requestId, timeoutTimer, connectTimeout, connectTimeoutUnit);
+        if (heartbeat.isDone()) {
+            return heartbeat;
+        }
+        connection.getChannel()
+            .writeAndFlush(Message.heartbeat(Rpc4jProtocol.MessageType.HEARTBEAT_PING, requestId))
+            .addListener((ChannelFutureListener) future -> {
+                if (!future.isSuccess()) {
+                    connection.removeRequest(requestId);
+                    heartbeat.completeExceptionally(future.cause());
+                }
+            });
+        return heartbeat;
+    }
+
+    /**
+     * 判断与指定地址之间的连接当前是否可写，若尚未与该地址建立连接，则认为其可写
+     *
+     * @param remoteAddress 服务端地址
+     * @return 是否
+     */
+    public boolean isWritable(RemoteAddress remoteAddress) {
+        NettyConnectionPool pool = connectionPools.get(toSocketAddress(remoteAddress));
+        return Objects.isNull(pool) || pool.isWritable();
+    }
+
+    private static InetSocketAddress toSocketAddress(RemoteAddress remoteAddress) {
+        return new InetSocketAddress(remoteAddress.getHost(), remoteAddress.getPort());
     }
 
     /**
@@ -119,100 +498,211 @@ public class NettyClientRequestHandler implements RpcInvocationHandler, Closeabl
         if (response.isSuccess()) {
             return response.getResult();
         }
+        if (response.isOverloaded()) {
+            throw new OverloadException("服务端过载，错误信息：{}", response.getMessage());
+        }
         throw new RequestFailException("服务端响应异常，错误信息：{}", response.getMessage());
     }
 
     /**
-     * 获取通道
+     * 从连接池中获取连接，连接池中的连接将被多个请求复用
      *
      * @param address 地址
-     * @return 通道
-     */
-    // TODO 使用连接池复用Channel
-    protected Channel getChannel(InetSocketAddress address) {
-        CompletableFuture<Channel> future = new CompletableFuture<>();
-        bootstrap.connect(address).addListener((ChannelFutureListener) channelFuture -> {
-            if (channelFuture.isSuccess()) {
-                Channel channel = channelFuture.channel();
-                future.complete(channel);
-                log.info("客户端与服务端连接成功，服务端地址[{}]，通道ID为[{}]", address.toString(), channel.id());
-            } else {
-                future.completeExceptionally(channelFuture.cause());
-            }
-        });
+     * @return 连接
+     */
+    protected NettyConnection getConnection(InetSocketAddress address) {
+        return getConnectionPool(address).acquire(connectTimeout, connectTimeoutUnit);
+    }
+
+    /**
+     * 获取指定地址对应的连接池
+     *
+     * @param address 地址
+     * @return 连接池
+     */
+    protected NettyConnectionPool getConnectionPool(InetSocketAddress address) {
+        return connectionPools.computeIfAbsent(
+            address, addr -> new NettyConnectionPool(
+                addr, bootstrap, maxConnectionsPerAddress, maxPendingWritesPerConnection
+            )
+        );
+    }
+
+    /**
+     * 关闭所有连接池中的空闲连接，并移除连接已经全部被回收的连接池，
+     * 从而使已经不再使用的服务端地址不会一直占用连接池
+     */
+    protected void closeIdleConnections() {
         try {
-            return future.get(connectTimeout, connectTimeoutUnit);
+            connectionPools.forEach((address, pool) -> {
+                pool.closeIdleConnections(idleTimeoutMillis);
+                // 与获取连接池互斥，此后获取的总是新的连接池
+                connectionPools.computeIfPresent(address, (addr, current) -> current == pool && pool.closeIfEmpty() ? null : current);
+            });
+        } catch (Exception ex) {
+            log.warn("回收空闲连接失败", ex);
+        }
+    }
+
+    /**
+     * 建立链接，发送请求并获得响应，请求超时由{@link #timeoutTimer}统一处理。
+     * 若连接已经完成握手，则优先通过方法ID指定要调用的方法，
+     * 若服务端不认识该方法ID，则重新握手，并改为通过方法名称再次发送请求
+     *
+     * @param connection 连接
+     * @param rpcInvocation 调用参数
+     * @return 响应
+     */
+    private Response doConnect(NettyConnection connection, RpcInvocation rpcInvocation) {
+        int methodId = getMethodId(connection, rpcInvocation);
+        Response response = awaitResponse(connection, rpcInvocation, methodId);
+        if (methodId != MethodTable.NO_METHOD_ID && response.isUnknownMethod()) {
+            handshakeAgain(connection);
+            response = awaitResponse(connection, rpcInvocation, MethodTable.NO_METHOD_ID);
+        }
+        return response;
+    }
+
+    /**
+     * 发送请求并阻塞当前线程，直到收到响应或被超时定时器终止，响应数据将在当前线程中反序列化
+     *
+     * @param connection 连接
+     * @param rpcInvocation 调用参数
+     * @param methodId 方法ID
+     * @return 响应
+     */
+    private Response awaitResponse(NettyConnection connection, RpcInvocation rpcInvocation, int methodId) {
+        long requestId = connection.nextRequestId();
+        CompletableFuture<Object> uncompletedRequest = sendRequest(connection, rpcInvocation, requestId, methodId);
+        try {
+            return toResponse(uncompletedRequest.get());
         } catch (InterruptedException e) {
+            // 从连接中移除该请求，取消该请求的同时，其超时任务也将被一并取消
+            CompletableFuture<Object> registered = connection.removeRequest(requestId);
+            if (Objects.nonNull(registered)) {
+                registered.cancel(false);
+            } else if (uncompletedRequest.isDone() && !uncompletedRequest.isCompletedExceptionally()
+                && uncompletedRequest.join() instanceof Message<?> message) {
+                // 响应恰好在中断时到达，由于不再获取该响应，需要释放其尚未反序列化的数据
+                message.releasePayload();
+            }
             Thread.currentThread().interrupt();
-            throw new Rpc4jException("客户端连接被中断", e);
+            throw new Rpc4jException("客户端请求被中断", e);
         } catch (ExecutionException e) {
-            throw new Rpc4jException("客户端连接发生异常", e);
-        } catch (TimeoutException e) {
-            throw new Rpc4jException("客户端连接超时: {} {}", connectTimeout, connectTimeoutUnit.name().toLowerCase(), e);
+            if (e.getCause() instanceof Rpc4jException ex) {
+                throw ex;
+            }
+            throw new Rpc4jException("客户端请求发生异常", e.getCause());
         }
     }
 
+    private static int getMethodId(NettyConnection connection, RpcInvocation rpcInvocation) {
+        String methodKey = rpcInvocation.getAttribute(Attributes.METHOD_KEY);
+        return Objects.isNull(methodKey) ?
+            connection.getMethodId(rpcInvocation.getTargetName(), rpcInvocation.getMethodName(), rpcInvocation.getParameterTypes()) :
+            connection.getMethodId(methodKey);
+    }
+
+    private static void handshakeAgain(NettyConnection connection) {
+        log.warn("服务端方法表已经变更，重新握手，通道ID为[{}]", connection.getChannel().id());
+        connection.setMethodIds(null);
+        connection.getChannel().writeAndFlush(Message.handshake(Rpc4jProtocol.MessageType.HANDSHAKE_REQUEST, null));
+    }
+
     /**
-     * 建立链接，发送请求并获得响应
+     * 获取响应，IO线程仅将尚未反序列化的响应消息转交给等待的调用方，由调用方完成反序列化
      *
-     * @param channel 通道
-     * @param rpcInvocation 调用参数
+     * @param response 响应消息
      * @return 响应
      */
-    private Response doConnect(Channel channel, RpcInvocation rpcInvocation) {
-        Asserts.isTrue(channel.isActive(), "连接[{}]已经关闭！", channel.id());
-
-        Request request = new Request(
-            UUID.randomUUID().toString(),
-            rpcInvocation.getTargetName(), rpcInvocation.getMethodName(),
-            rpcInvocation.getParameterTypes(), rpcInvocation.getArguments()
-        );
+    private static Response toResponse(Object response) {
+        return response instanceof Message<?> message ? (Response)message.getPayload() : (Response)response;
+    }
 
+    /**
+     * 注册请求并通过通道异步发送，该方法不会阻塞当前线程
+     *
+     * @param connection 连接
+     * @param rpcInvocation 调用参数
+     * @param requestId 请求ID
+     * @param methodId 方法ID，为{@link MethodTable#NO_METHOD_ID}时表示通过方法名称指定要调用的方法
+     * @return 请求对应的任务，当收到服务端响应后完成
+     */
+    private CompletableFuture<Object> sendRequest(
+        NettyConnection connection, RpcInvocation rpcInvocation, long requestId, int methodId) {
+        Channel channel = connection.getChannel();
+        // 连接已经因空闲而被回收，请求尚未发送，调用方可以改用其他连接重试
+        if (connection.isClosing()) {
+            return CompletableFuture.failedFuture(new ConnectionClosingException("连接[{}]正在关闭！", channel.id()));
+        }
+        Asserts.isTrue(channel.isActive(), "连接[{}]已经关闭！", channel.id());
         Long timeout = rpcInvocation.getAttribute(Attributes.REQUEST_TIMEOUT);
         TimeUnit timeUnit = rpcInvocation.getAttribute(Attributes.REQUEST_TIMEOUT_UNIT);
-        byte protocolVersion = rpcInvocation.getAttribute(Attributes.REQUEST_PROTOCOL_VERSION);
-        byte compressionType = rpcInvocation.getAttribute(Attributes.COMPRESSION_TYPE);
-        byte serializationType = rpcInvocation.getAttribute(Attributes.SERIALIZATION_TYPE);
-        byte messageType = Rpc4jProtocol.MessageType.RPC_REQUEST.getCode();
+        // 超时时间可能已经被调用链上游的截止时间耗尽，此时无需再发送请求
+        if (timeout <= 0) {
+            return CompletableFuture.failedFuture(new TimeoutException(
+                "客户端请求的截止时间已过，请求未发送，请求ID为[{}]", requestId
+            ));
+        }
 
-        // 创建并注册任务
-        String requestId = request.getRequestId();
-        var uncompletedRequest = uncompletedRequests.computeIfAbsent(
-            requestId, id -> new CompletableFuture<>()
-        );
+        // 创建并注册任务，任务超时后将被自动移除
+        var uncompletedRequest = connection.registerRequest(requestId, timeoutTimer, timeout, timeUnit);
+        if (uncompletedRequest.isCompletedExceptionally()) {
+            return uncompletedRequest;
+        }
 
         // 通过通道异步发送请求
-        Message<Request> message = new Message<>(
-            protocolVersion, messageType, serializationType, compressionType, request
-        );
-        channel.writeAndFlush(message).addListener((ChannelFutureListener) future -> {
-            if (future.isSuccess()) {
+        int timeoutBudget = (int)Math.min(Integer.MAX_VALUE, Math.max(1L, timeUnit.toMillis(timeout)));
+        Message<Request> message = createRequestMessage(rpcInvocation, requestId, methodId, timeoutBudget);
+        // 若通道不可写，请求将在等待队列中排队，等待队列已满时请求将被拒绝
+        connection.send(message).whenComplete((v, ex) -> {
+            if (Objects.isNull(ex)) {
                 log.info("客户端发送请求，请求ID为[{}]", requestId);
             } else {
                 log.error("客户端发送请求失败，请求ID为[{}]", requestId);
-                uncompletedRequest.completeExceptionally(future.cause());
+                connection.removeRequest(requestId);
+                uncompletedRequest.completeExceptionally(ex);
             }
         });
+        return uncompletedRequest;
+    }
 
-        // 阻塞当前线程，直到超时或任务完成
-        // TODO 可选是否选用全异步模式
-        try {
-            return (Response)uncompletedRequest.get(timeout, timeUnit);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new Rpc4jException("客户端请求被中断，请求ID为[{}]", requestId, e);
-        } catch (ExecutionException e) {
-            throw new Rpc4jException("客户端请求发生异常，请求ID为[{}]", requestId, e);
-        } catch (TimeoutException e) {
-            throw new Rpc4jException("客户端请求超时，请求ID为[{}]", requestId, e);
-        } finally {
-            uncompletedRequests.remove(requestId);
-        }
+    /**
+     * 创建请求消息
+     *
+     * @param rpcInvocation 调用参数
+     * @param requestId 请求ID
+     * @param methodId 方法ID，为{@link MethodTable#NO_METHOD_ID}时表示通过方法名称指定要调用的方法
+     * @param timeoutBudget 超时预算，单位毫秒，为{@link Rpc4jProtocol#NO_TIMEOUT}时表示不限制
+     * @return 请求消息
+     */
+    private static Message<Request> createRequestMessage(
+        RpcInvocation rpcInvocation, long requestId, int methodId, int timeoutBudget) {
+        // 若已经获得方法ID，则请求中仅需携带参数
+        Request request = methodId == MethodTable.NO_METHOD_ID ?
+            new Request(
+                rpcInvocation.getTargetName(), rpcInvocation.getMethodName(),
+                rpcInvocation.getParameterTypes(), rpcInvocation.getArguments()
+            ) :
+            new Request(null, null, null, rpcInvocation.getArguments());
+        byte protocolVersion = rpcInvocation.getAttribute(Attributes.REQUEST_PROTOCOL_VERSION);
+        byte compressionType = rpcInvocation.getAttribute(Attributes.COMPRESSION_TYPE);
+        byte serializationType = rpcInvocation.getAttribute(Attributes.SERIALIZATION_TYPE);
+        byte messageType = Rpc4jProtocol.MessageType.RPC_REQUEST.getCode();
+        return new Message<>(
+            protocolVersion, messageType, serializationType, compressionType, requestId, methodId, timeoutBudget, request
+        );
     }
 
     @Override
     public void close() {
-        worker.shutdownGracefully();
+        connectionPools.values().forEach(NettyConnectionPool::close);
+        connectionPools.clear();
+        timeoutTimer.stop();
+        idleCheckTask.cancel(false);
+        if (ownEventLoopResources) {
+            eventLoopResources.close();
+        }
     }
 
     /**
@@ -223,15 +713,135 @@ public class NettyClientRequestHandler implements RpcInvocationHandler, Closeabl
     @RequiredArgsConstructor
     public class ClientInboundHandler extends ChannelInboundHandlerAdapter {
 
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            if (methodIdHandshake) {
+                ctx.writeAndFlush(Message.handshake(Rpc4jProtocol.MessageType.HANDSHAKE_REQUEST, null));
+            }
+            super.channelActive(ctx);
+        }
+
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object target) {
             log.info("客户端接收到消息：{}", target);
-            if (target instanceof Message<?> msg && msg.getPayload() instanceof Response response) {
-                log.info("客户端接受响应，请求ID为[{}]", response.getRequestId());
-                var request = uncompletedRequests.get(response.getRequestId());
-                if (Objects.nonNull(request) && !request.isDone()) {
-                    request.complete(response);
+            if (target instanceof Message<?> msg && msg.is(Rpc4jProtocol.MessageType.GOAWAY)) {
+                NettyConnection connection = NettyConnection.of(ctx.channel());
+                if (Objects.nonNull(connection)) {
+                    log.info("服务端通知连接[{}]即将关闭，不再通过该连接发送新的请求", ctx.channel().id());
+                    connection.markGoingAway();
+                }
+                return;
+            }
+            if (target instanceof Message<?> msg && msg.is(Rpc4jProtocol.MessageType.HANDSHAKE_RESPONSE)) {
+                NettyConnection connection = NettyConnection.of(ctx.channel());
+                // 握手仅在连接建立或方法表变更时发生，因此直接在IO线程中反序列化
+                Handshake handshake = (Handshake)msg.getPayload();
+                if (Objects.nonNull(connection) && Objects.nonNull(handshake)) {
+                    connection.setMethodIds(handshake.getMethodIds());
+                    log.info("客户端完成握手，通道ID为[{}]", ctx.channel().id());
+                }
+                return;
+            }
+            // 请求ID不为0的心跳响应对应一次需要等待响应的心跳
+            if (target instanceof Message<?> msg
+                && msg.is(Rpc4jProtocol.MessageType.HEARTBEAT_PONG) && msg.getRequestId() != 0L) {
+                NettyConnection connection = NettyConnection.of(ctx.channel());
+                if (Objects.nonNull(connection)) {
+                    connection.completeRequest(msg.getRequestId(), msg);
+                }
+                return;
+            }
+            // 流数据与流结束消息，以及服务端在执行前直接拒绝流式请求的响应，均交由流的接收者处理
+            if (target instanceof Message<?> msg
+                && (msg.is(Rpc4jProtocol.MessageType.STREAM_ITEM) || msg.is(Rpc4jProtocol.MessageType.STREAM_COMPLETE)
+                || msg.is(Rpc4jProtocol.MessageType.RPC_RESPONSE))) {
+                NettyConnection connection = NettyConnection.of(ctx.channel());
+                StreamReceiver receiver = Objects.isNull(connection) ? null : connection.getStream(msg.getRequestId());
+                if (Objects.nonNull(receiver)) {
+                    if (msg.is(Rpc4jProtocol.MessageType.STREAM_ITEM)) {
+                        receiver.onItem(msg);
+                    } else {
+                        receiver.onComplete(msg);
+                    }
+                    return;
+                }
+                if (!msg.is(Rpc4jProtocol.MessageType.RPC_RESPONSE)) {
+                    // 流已经被取消，后续到达的流数据直接丢弃
+                    msg.releasePayload();
+                    return;
+                }
+            }
+            if (target instanceof DiscardedMessage discarded) {
+                failDiscarded(ctx, discarded);
+                return;
+            }
+            // 响应数据不在IO线程中反序列化，而是由等待响应的调用方或异步回调完成
+            if (target instanceof Message<?> msg && msg.is(Rpc4jProtocol.MessageType.RPC_RESPONSE)) {
+                log.info("客户端接受响应，请求ID为[{}]", msg.getRequestId());
+                NettyConnection connection = NettyConnection.of(ctx.channel());
+                if (Objects.nonNull(connection)) {
+                    connection.completeRequest(msg.getRequestId(), msg);
+                } else {
+                    msg.releasePayload();
+                }
+                return;
+            }
+            if (target instanceof Message<?> msg) {
+                msg.releasePayload();
+            }
+        }
+
+        /**
+         * 响应或流数据超出长度上限而被解码器丢弃时，以异常结束对应的请求或流，
+         * 若被丢弃的是流数据，则同时通知服务端取消该流
+         *
+         * @param ctx 上下文
+         * @param discarded 被丢弃的消息
+         */
+        private void failDiscarded(ChannelHandlerContext ctx, DiscardedMessage discarded) {
+            NettyConnection connection = NettyConnection.of(ctx.channel());
+            if (Objects.isNull(connection)) {
+                return;
+            }
+            long requestId = discarded.requestId();
+            log.error("客户端丢弃数据长度超出上限的消息，请求ID为[{}]", requestId);
+            RequestFailException ex = new RequestFailException("响应数据长度超过上限，请求ID为[{}]", requestId);
+            StreamReceiver receiver = connection.removeStream(requestId);
+            if (Objects.nonNull(receiver)) {
+                if (discarded.is(Rpc4jProtocol.MessageType.STREAM_ITEM)) {
+                    connection.send(Message.streamCancel(requestId));
                 }
+                receiver.onError(ex);
+                return;
+            }
+            CompletableFuture<Object> request = connection.removeRequest(requestId);
+            if (Objects.nonNull(request)) {
+                request.completeExceptionally(ex);
+            }
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            NettyConnection connection = NettyConnection.of(ctx.channel());
+            if (ctx.channel().isWritable() && Objects.nonNull(connection)) {
+                connection.drainPendingWrites();
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (!(evt instanceof IdleStateEvent event)) {
+                super.userEventTriggered(ctx, evt);
+                return;
+            }
+            // 长时间没有写出数据时发送心跳，长时间没有读到数据时认为服务端已经不可用
+            if (event.state() == IdleState.WRITER_IDLE) {
+                ctx.writeAndFlush(Message.heartbeat(Rpc4jProtocol.MessageType.HEARTBEAT_PING))
+                    .addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+            } else if (event.state() == IdleState.READER_IDLE) {
+                log.warn("客户端连接[{}]长时间未收到服务端数据，关闭连接", ctx.channel().id());
+                ctx.close();
             }
         }
 
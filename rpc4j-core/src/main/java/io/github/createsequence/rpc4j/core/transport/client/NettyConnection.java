@@ -0,0 +1,505 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.common.exception.ConnectionClosingException;
+import io.github.createsequence.common.exception.OverloadException;
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.common.exception.TimeoutException;
+import io.github.createsequence.rpc4j.core.transport.ConcurrentLongObjectMap;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
+import io.netty.util.AttributeKey;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>客户端与服务端之间的一条长连接。<br />
+ * 连接支持多路复用，同一时刻可以有多个未完成的请求共享该连接，
+ * 当服务端响应时，将根据请求ID找到对应的请求并完成它。
+ *
+ * <p>当通道的写缓冲区超过高水位线而不可写时，待发送的消息将进入一个有界的等待队列，
+ * 并在通道恢复可写后按顺序发送，若等待队列已满，则消息将以{@link OverloadException}被拒绝。
+ *
+ * <p>当服务端通知连接即将关闭时，连接将不再被连接池分配给新的请求，
+ * 并在已有的请求全部完成后主动关闭。
+ *
+ * <p>当连接关闭时，所有尚未完成的请求与尚未发送的消息都将以异常结束。
+ * 若注册请求时指定了超时时间，则请求将在超时后由{@link Timer}从未完成请求表中移除，
+ * 并以{@link TimeoutException}结束。
+ *
+ * <p>连接上同样可以进行服务端流式调用，流在结束或被取消前都被视为未完成的请求，参见{@link StreamReceiver}。
+ *
+ * <p>连接池回收空闲连接前，需要先通过{@link #markClosingIfIdle()}将连接标记为正在关闭，
+ * 该标记仅在连接上没有未完成的请求时才能设置成功。注册请求时，请求将先加入未完成请求表，再检查该标记，
+ * 因此并发的回收与注册中至少有一方能发现另一方：要么回收放弃关闭连接，
+ * 要么注册以{@link ConnectionClosingException}失败，此时请求尚未发送，调用方可以改用其他连接重试。
+ *
+ * @author huangchengxing
+ * @see NettyConnectionPool
+ */
+@Slf4j
+public class NettyConnection {
+
+    /**
+     * 用于在{@link Channel}上绑定连接对象的属性
+     */
+    static final AttributeKey<NettyConnection> CONNECTION = AttributeKey.valueOf(NettyConnection.class, "connection");
+
+    /**
+     * 未完成的请求
+     */
+    private final ConcurrentLongObjectMap<CompletableFuture<Object>> uncompletedRequests = new ConcurrentLongObjectMap<>();
+
+    /**
+     * 尚未结束的流式调用
+     */
+    private final ConcurrentLongObjectMap<StreamReceiver> streams = new ConcurrentLongObjectMap<>();
+
+    /**
+     * 请求ID生成器，请求ID在同一连接内单调递增
+     */
+    private final AtomicLong requestIdGenerator = new AtomicLong();
+
+    /**
+     * 等待通道恢复可写的消息，仅在事件循环中访问
+     */
+    private final Queue<PendingWrite> pendingWrites = new ArrayDeque<>();
+
+    /**
+     * 等待队列的最大长度
+     */
+    private final int maxPendingWrites;
+
+    /**
+     * 等待队列的当前长度
+     */
+    private volatile int pendingWriteCount;
+
+    /**
+     * 通过握手获得的服务端方法表，握手完成前为空
+     *
+     * @see MethodTable
+     */
+    private volatile Map<String, Integer> methodIds = Map.of();
+
+    /**
+     * 通道
+     */
+    @Getter
+    private final Channel channel;
+
+    /**
+     * 服务端是否已经通知连接即将关闭
+     */
+    @Getter
+    private volatile boolean goingAway = false;
+
+    /**
+     * 连接是否因空闲而正在被连接池回收
+     */
+    private final AtomicBoolean closing = new AtomicBoolean(false);
+
+    /**
+     * 最后一次发送请求或接收响应的时间
+     */
+    @Getter
+    private volatile long lastActiveTime;
+
+    /**
+     * 创建一个连接，并将其绑定到通道上
+     *
+     * @param channel 通道
+     * @param maxPendingWrites 通道不可写时，等待队列的最大长度
+     */
+    public NettyConnection(Channel channel, int maxPendingWrites) {
+        this.channel = channel;
+        this.maxPendingWrites = maxPendingWrites;
+        this.lastActiveTime = System.currentTimeMillis();
+        channel.attr(CONNECTION).set(this);
+        channel.closeFuture().addListener(future -> {
+            Rpc4jException ex = new Rpc4jException("连接[{}]已经关闭！", channel.id());
+            failPendingWrites(ex);
+            failUncompletedRequests(ex);
+            failStreams(ex);
+        });
+    }
+
+    /**
+     * 获取通道上绑定的连接
+     *
+     * @param channel 通道
+     * @return 连接，若通道未绑定连接则返回{@code null}
+     */
+    @Nullable
+    public static NettyConnection of(Channel channel) {
+        return channel.attr(CONNECTION).get();
+    }
+
+    /**
+     * 连接是否可用
+     *
+     * @return 是否
+     */
+    public boolean isActive() {
+        return channel.isActive();
+    }
+
+    /**
+     * 连接是否可以用于发送新的请求，即连接可用且服务端未通知连接即将关闭
+     *
+     * @return 是否
+     */
+    public boolean isAvailable() {
+        return !goingAway && !closing.get() && channel.isActive();
+    }
+
+    /**
+     * 连接是否因空闲而正在被连接池回收
+     *
+     * @return 是否
+     */
+    public boolean isClosing() {
+        return closing.get();
+    }
+
+    /**
+     * 若连接上没有未完成的请求，则将连接标记为正在关闭，此后在该连接上注册的请求都将失败
+     *
+     * @return 是否标记成功，若连接上仍有未完成的请求，或连接已经被标记，则返回{@code false}
+     */
+    public boolean markClosingIfIdle() {
+        if (!closing.compareAndSet(false, true)) {
+            return false;
+        }
+        // 先设置标记再检查请求数，与注册请求时的顺序相反，从而保证二者至少有一方能发现另一方
+        if (getUncompletedRequestCount() == 0) {
+            return true;
+        }
+        closing.set(false);
+        return false;
+    }
+
+    /**
+     * 标记服务端已经通知连接即将关闭，若连接上已经没有未完成的请求，则立即关闭连接
+     */
+    public void markGoingAway() {
+        goingAway = true;
+        closeIfDrained();
+    }
+
+    /**
+     * 连接是否可写，即通道可写且没有等待发送的消息
+     *
+     * @return 是否
+     */
+    public boolean isWritable() {
+        return channel.isWritable() && pendingWriteCount == 0;
+    }
+
+    /**
+     * 获取等待通道恢复可写的消息数
+     *
+     * @return 消息数
+     */
+    public int getPendingWriteCount() {
+        return pendingWriteCount;
+    }
+
+    /**
+     * <p>发送消息。<br />
+     * 若通道可写且没有等待发送的消息，则立即写出并刷新，否则将消息加入等待队列，
+     * 若等待队列已满，则以{@link OverloadException}拒绝该消息。
+     *
+     * @param message 消息
+     * @return 当消息写出后完成的任务
+     */
+    public CompletableFuture<Void> send(Object message) {
+        CompletableFuture<Void> promise = new CompletableFuture<>();
+        EventLoop eventLoop = channel.eventLoop();
+        if (eventLoop.inEventLoop()) {
+            doSend(message, promise);
+        } else {
+            eventLoop.execute(() -> doSend(message, promise));
+        }
+        return promise;
+    }
+
+    /**
+     * 在通道恢复可写后，按顺序写出等待队列中的消息，直到队列为空或通道再次不可写，
+     * 该方法必须在事件循环中调用
+     */
+    public void drainPendingWrites() {
+        boolean written = false;
+        PendingWrite pendingWrite;
+        while (channel.isWritable() && (pendingWrite = pendingWrites.poll()) != null) {
+            write(pendingWrite.message(), pendingWrite.promise(), false);
+            written = true;
+        }
+        pendingWriteCount = pendingWrites.size();
+        if (written) {
+            channel.flush();
+        }
+    }
+
+    /**
+     * 更新通过握手获得的服务端方法表
+     *
+     * @param methodIds 方法键与方法ID的映射
+     */
+    public void setMethodIds(@Nullable Map<String, Integer> methodIds) {
+        this.methodIds = Objects.isNull(methodIds) ? Map.of() : methodIds;
+    }
+
+    /**
+     * 获取方法在服务端的方法ID
+     *
+     * @param targetName 服务类型全限定名
+     * @param methodName 方法名
+     * @param parameterTypes 参数类型
+     * @return 方法ID，若尚未完成握手或方法不在服务端的方法表中，则返回{@link MethodTable#NO_METHOD_ID}
+     */
+    public int getMethodId(String targetName, String methodName, Class<?>[] parameterTypes) {
+        if (methodIds.isEmpty()) {
+            return MethodTable.NO_METHOD_ID;
+        }
+        return getMethodId(MethodTable.methodKey(targetName, methodName, parameterTypes));
+    }
+
+    /**
+     * 获取方法在服务端的方法ID
+     *
+     * @param methodKey 方法键，参见{@link MethodTable#methodKey}
+     * @return 方法ID，若尚未完成握手或方法不在服务端的方法表中，则返回{@link MethodTable#NO_METHOD_ID}
+     */
+    public int getMethodId(String methodKey) {
+        return methodIds.getOrDefault(methodKey, MethodTable.NO_METHOD_ID);
+    }
+
+    /**
+     * 获取当前连接上尚未完成的请求数，包括尚未结束的流式调用
+     *
+     * @return 请求数
+     */
+    public int getUncompletedRequestCount() {
+        return uncompletedRequests.size() + streams.size();
+    }
+
+    /**
+     * 生成一个在当前连接内唯一的请求ID
+     *
+     * @return 请求ID
+     */
+    public long nextRequestId() {
+        return requestIdGenerator.incrementAndGet();
+    }
+
+    /**
+     * 注册一个未完成的请求，若连接正在被回收，则返回的任务将以{@link ConnectionClosingException}结束
+     *
+     * @param requestId 请求ID
+     * @return 请求对应的任务
+     */
+    public CompletableFuture<Object> registerRequest(long requestId) {
+        lastActiveTime = System.currentTimeMillis();
+        CompletableFuture<Object> request = new CompletableFuture<>();
+        uncompletedRequests.put(requestId, request);
+        // 先注册请求再检查标记，若连接已经被回收，则撤回注册
+        if (closing.get()) {
+            uncompletedRequests.remove(requestId);
+            request.completeExceptionally(new ConnectionClosingException("连接[{}]正在关闭！", channel.id()));
+        }
+        return request;
+    }
+
+    /**
+     * 注册一个未完成的请求，若请求在超时时间内仍未完成，
+     * 则将其从未完成请求表中移除，并以{@link TimeoutException}结束
+     *
+     * @param requestId 请求ID
+     * @param timer 用于调度超时任务的定时器
+     * @param timeout 超时时间
+     * @param timeUnit 时间单位
+     * @return 请求对应的任务
+     */
+    public CompletableFuture<Object> registerRequest(long requestId, Timer timer, long timeout, TimeUnit timeUnit) {
+        CompletableFuture<Object> request = registerRequest(requestId);
+        if (request.isDone()) {
+            return request;
+        }
+        Timeout expiration = timer.newTimeout(t -> expireRequest(requestId, timeout, timeUnit), timeout, timeUnit);
+        request.whenComplete((response, ex) -> expiration.cancel());
+        return request;
+    }
+
+    /**
+     * 移除一个未完成的请求
+     *
+     * @param requestId 请求ID
+     * @return 请求对应的任务，若请求不存在则返回{@code null}
+     */
+    @Nullable
+    public CompletableFuture<Object> removeRequest(long requestId) {
+        return uncompletedRequests.remove(requestId);
+    }
+
+    /**
+     * 完成一个请求，并将其从未完成请求表中移除，若请求已经不存在，则释放响应消息中尚未反序列化的数据
+     *
+     * @param requestId 请求ID
+     * @param response 响应
+     */
+    public void completeRequest(long requestId, Object response) {
+        lastActiveTime = System.currentTimeMillis();
+        CompletableFuture<Object> request = uncompletedRequests.remove(requestId);
+        if (request == null) {
+            log.warn("连接[{}]收到未知请求的响应，请求可能已经超时，请求ID为[{}]", channel.id(), requestId);
+        }
+        // 没有调用方会再获取该响应，其尚未反序列化的数据需要在此释放
+        if ((request == null || !request.complete(response)) && response instanceof Message<?> message) {
+            message.releasePayload();
+        }
+        if (goingAway) {
+            closeIfDrained();
+        }
+    }
+
+    /**
+     * 注册一个流式调用
+     *
+     * @param requestId 请求ID
+     * @param receiver 流的接收者
+     * @return 是否注册成功，若连接正在被回收则返回{@code false}
+     */
+    boolean registerStream(long requestId, StreamReceiver receiver) {
+        lastActiveTime = System.currentTimeMillis();
+        streams.put(requestId, receiver);
+        if (closing.get()) {
+            streams.remove(requestId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取一个尚未结束的流式调用
+     *
+     * @param requestId 请求ID
+     * @return 流的接收者，若流不存在或已经结束则返回{@code null}
+     */
+    @Nullable
+    StreamReceiver getStream(long requestId) {
+        lastActiveTime = System.currentTimeMillis();
+        return streams.get(requestId);
+    }
+
+    /**
+     * 移除一个流式调用
+     *
+     * @param requestId 请求ID
+     * @return 流的接收者，若流不存在或已经结束则返回{@code null}
+     */
+    @Nullable
+    StreamReceiver removeStream(long requestId) {
+        StreamReceiver receiver = streams.remove(requestId);
+        if (goingAway) {
+            closeIfDrained();
+        }
+        return receiver;
+    }
+
+    /**
+     * 关闭连接
+     */
+    public void close() {
+        channel.close();
+    }
+
+    private void closeIfDrained() {
+        if (uncompletedRequests.isEmpty() && streams.isEmpty() && pendingWriteCount == 0) {
+            log.info("连接[{}]即将被服务端关闭，且已经没有未完成的请求，关闭连接", channel.id());
+            channel.close();
+        }
+    }
+
+    private void doSend(Object message, CompletableFuture<Void> promise) {
+        if (!channel.isActive()) {
+            promise.completeExceptionally(new Rpc4jException("连接[{}]已经关闭！", channel.id()));
+            return;
+        }
+        if (pendingWrites.isEmpty() && channel.isWritable()) {
+            write(message, promise, true);
+            return;
+        }
+        if (pendingWrites.size() >= maxPendingWrites) {
+            promise.completeExceptionally(new OverloadException(
+                "连接[{}]的写缓冲区已满，且等待发送的消息数已达到上限[{}]", channel.id(), maxPendingWrites
+            ));
+            return;
+        }
+        pendingWrites.add(new PendingWrite(message, promise));
+        pendingWriteCount = pendingWrites.size();
+    }
+
+    private void write(Object message, CompletableFuture<Void> promise, boolean flush) {
+        ChannelFutureListener listener = future -> {
+            if (future.isSuccess()) {
+                promise.complete(null);
+            } else {
+                promise.completeExceptionally(future.cause());
+            }
+        };
+        (flush ? channel.writeAndFlush(message) : channel.write(message)).addListener(listener);
+    }
+
+    private void failPendingWrites(Throwable cause) {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = pendingWrites.poll()) != null) {
+            pendingWrite.promise().completeExceptionally(cause);
+        }
+        pendingWriteCount = 0;
+    }
+
+    private void expireRequest(long requestId, long timeout, TimeUnit timeUnit) {
+        CompletableFuture<Object> request = uncompletedRequests.remove(requestId);
+        if (request != null) {
+            request.completeExceptionally(new TimeoutException(
+                "客户端请求超时，请求ID为[{}]，超时时间：{} {}", requestId, timeout, timeUnit.name().toLowerCase()
+            ));
+        }
+    }
+
+    private void failUncompletedRequests(Throwable cause) {
+        if (uncompletedRequests.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Object>> requests = uncompletedRequests.drain();
+        log.warn("连接[{}]关闭，{}个未完成的请求将以异常结束", channel.id(), requests.size());
+        requests.forEach(request -> request.completeExceptionally(cause));
+    }
+
+    private void failStreams(Throwable cause) {
+        if (streams.isEmpty()) {
+            return;
+        }
+        List<StreamReceiver> receivers = streams.drain();
+        log.warn("连接[{}]关闭，{}个未结束的流将以异常结束", channel.id(), receivers.size());
+        receivers.forEach(receiver -> receiver.onError(cause));
+    }
+
+    private record PendingWrite(Object message, CompletableFuture<Void> promise) {}
+}
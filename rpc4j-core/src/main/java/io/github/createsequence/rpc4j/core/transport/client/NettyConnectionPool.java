@@ -0,0 +1,318 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.common.exception.ConnectionClosingException;
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.common.util.Asserts;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>连接池，用于复用客户端与同一服务端地址之间的长连接。
+ *
+ * <p>连接池中最多维护{@code maxConnections}条连接，每条连接占用一个槽位。
+ * 由于连接支持多路复用，因此获取连接时只需轮询地选择一个槽位即可，
+ * 若该槽位上的连接尚未建立或已经断开，则会在该槽位上重新建立连接，
+ * 并发获取同一槽位的线程将共享同一次连接过程。
+ *
+ * <p>若在事件循环线程中获取连接，例如在IO线程中发起异步调用，则优先返回注册在当前事件循环上的连接，
+ * 若需要新建连接，新连接同样将注册到当前事件循环上，从而避免在线程之间传递数据。
+ * 由于服务方法默认在分发线程池中执行，服务端在处理请求时发起的调用通常不会命中该优化。
+ *
+ * <p>长时间没有请求的连接将通过{@link #closeIdleConnections}被回收，回收前连接将被标记为正在关闭，
+ * 若此时恰好有请求获得了该连接，则请求的注册将以{@link ConnectionClosingException}失败，调用方可以重新获取连接，
+ * 参见{@link NettyConnection#markClosingIfIdle()}。
+ * 服务端通知即将关闭的连接将不再被分配，其所在的槽位将在下次获取时重新建立连接。
+ *
+ * <p>当全部连接都被回收后，连接池可以通过{@link #closeIfEmpty()}关闭，
+ * 此后从该连接池获取连接将以{@link ConnectionClosingException}失败，调用方应当重新创建连接池。
+ *
+ * @author huangchengxing
+ * @see NettyConnection
+ */
+@Slf4j
+public class NettyConnectionPool implements Closeable {
+
+    /**
+     * 服务端地址
+     */
+    @Getter
+    private final InetSocketAddress address;
+
+    /**
+     * 用于创建连接的启动器
+     */
+    private final Bootstrap bootstrap;
+
+    /**
+     * 连接槽位
+     */
+    private final AtomicReferenceArray<CompletableFuture<NettyConnection>> slots;
+
+    /**
+     * 通道不可写时，每条连接上最多等待发送的消息数
+     */
+    private final int maxPendingWrites;
+
+    /**
+     * 下一个要使用的槽位
+     */
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /**
+     * 连接池是否已经关闭
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * 创建一个连接池
+     *
+     * @param address 服务端地址
+     * @param bootstrap 用于创建连接的启动器
+     * @param maxConnections 最大连接数
+     * @param maxPendingWrites 通道不可写时，每条连接上最多等待发送的消息数
+     */
+    public NettyConnectionPool(
+        InetSocketAddress address, Bootstrap bootstrap, int maxConnections, int maxPendingWrites) {
+        Asserts.isTrue(maxConnections > 0, "最大连接数必须大于0：{}", maxConnections);
+        Asserts.isTrue(maxPendingWrites >= 0, "最大等待发送消息数不能小于0：{}", maxPendingWrites);
+        this.address = address;
+        this.bootstrap = bootstrap;
+        this.maxPendingWrites = maxPendingWrites;
+        this.slots = new AtomicReferenceArray<>(maxConnections);
+    }
+
+    /**
+     * 获取一条可用的连接，若连接尚未建立则等待其建立完成
+     *
+     * @param connectTimeout 连接超时时间
+     * @param timeUnit 时间单位
+     * @return 连接
+     */
+    public NettyConnection acquire(long connectTimeout, TimeUnit timeUnit) {
+        try {
+            return acquireAsync().get(connectTimeout, timeUnit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Rpc4jException("客户端连接被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ConnectionClosingException ex) {
+                throw ex;
+            }
+            throw new Rpc4jException("客户端连接发生异常", e.getCause());
+        } catch (TimeoutException e) {
+            throw new Rpc4jException("客户端连接超时: {} {}", connectTimeout, timeUnit.name().toLowerCase(), e);
+        }
+    }
+
+    /**
+     * 获取一条可用的连接，若连接尚未建立，则在连接建立完成后完成返回的任务
+     *
+     * @return 连接
+     */
+    public CompletableFuture<NettyConnection> acquireAsync() {
+        if (closed) {
+            return CompletableFuture.failedFuture(new ConnectionClosingException("连接池已经关闭：{}", address));
+        }
+        // 事件循环资源创建的工作线程均为FastThreadLocalThread，其他线程无需查找当前事件循环上的连接
+        CompletableFuture<NettyConnection> local = Thread.currentThread() instanceof FastThreadLocalThread ?
+            findConnectionInCurrentEventLoop() : null;
+        if (local != null) {
+            return local;
+        }
+        int slot = Math.floorMod(nextSlot.getAndIncrement(), slots.length());
+        CompletableFuture<NettyConnection> future = slots.get(slot);
+        return isAvailable(future) ? future : connect(slot, future);
+    }
+
+    /**
+     * 在全部槽位上建立连接，已经建立的连接将被直接复用
+     *
+     * @return 每个槽位上的连接
+     */
+    public List<CompletableFuture<NettyConnection>> acquireAll() {
+        if (closed) {
+            return List.of(CompletableFuture.failedFuture(new ConnectionClosingException("连接池已经关闭：{}", address)));
+        }
+        List<CompletableFuture<NettyConnection>> connections = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            CompletableFuture<NettyConnection> future = slots.get(i);
+            connections.add(isAvailable(future) ? future : connect(i, future));
+        }
+        return connections;
+    }
+
+    /**
+     * 关闭空闲时间超过指定时长，且没有未完成请求的连接
+     *
+     * @param idleTimeoutMillis 空闲时长，单位毫秒
+     */
+    public void closeIdleConnections(long idleTimeoutMillis) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < slots.length(); i++) {
+            CompletableFuture<NettyConnection> future = slots.get(i);
+            if (!isAvailable(future) || !future.isDone()) {
+                continue;
+            }
+            NettyConnection connection = future.join();
+            // 仅在连接上没有未完成的请求时才能标记成功，此后该连接上的注册都将失败
+            if (now - connection.getLastActiveTime() > idleTimeoutMillis && connection.markClosingIfIdle()) {
+                slots.compareAndSet(i, future, null);
+                log.info("关闭空闲连接，服务端地址[{}]，通道ID为[{}]", address, connection.getChannel().id());
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * 若全部槽位上都没有连接，则关闭连接池
+     *
+     * @return 连接池是否已经关闭
+     */
+    public synchronized boolean closeIfEmpty() {
+        if (closed) {
+            return true;
+        }
+        // 先设置标记再检查槽位，与建立连接时的顺序相反，从而保证二者至少有一方能发现另一方
+        closed = true;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                closed = false;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 连接池是否已经关闭
+     *
+     * @return 是否
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 连接池是否可写，即是否存在可写的连接，若尚未建立任何连接，则认为其可写
+     *
+     * @return 是否
+     */
+    public boolean isWritable() {
+        boolean connected = false;
+        for (int i = 0; i < slots.length(); i++) {
+            CompletableFuture<NettyConnection> future = slots.get(i);
+            if (future == null || !future.isDone() || !isAvailable(future)) {
+                continue;
+            }
+            connected = true;
+            if (future.join().isWritable()) {
+                return true;
+            }
+        }
+        return !connected;
+    }
+
+    /**
+     * 获取当前已经建立的连接数
+     *
+     * @return 连接数
+     */
+    public int getActiveConnectionCount() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (isAvailable(slots.get(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 关闭连接池中的全部连接
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (int i = 0; i < slots.length(); i++) {
+            CompletableFuture<NettyConnection> future = slots.getAndSet(i, null);
+            if (future != null) {
+                future.thenAccept(NettyConnection::close);
+            }
+        }
+    }
+
+    private CompletableFuture<NettyConnection> connect(int slot, CompletableFuture<NettyConnection> expired) {
+        CompletableFuture<NettyConnection> future = new CompletableFuture<>();
+        // 若其他线程已经在该槽位上发起了连接，则直接复用其结果
+        if (!slots.compareAndSet(slot, expired, future)) {
+            CompletableFuture<NettyConnection> current = slots.get(slot);
+            return current != null ? current : connect(slot, null);
+        }
+        // 先占用槽位再检查标记，若连接池已经关闭，则撤回占用且不再建立连接
+        if (closed) {
+            slots.compareAndSet(slot, future, null);
+            future.completeExceptionally(new ConnectionClosingException("连接池已经关闭：{}", address));
+            return future;
+        }
+        currentBootstrap().connect(address).addListener((ChannelFutureListener) channelFuture -> {
+            if (channelFuture.isSuccess()) {
+                NettyConnection connection = new NettyConnection(channelFuture.channel(), maxPendingWrites);
+                future.complete(connection);
+                log.info("客户端与服务端连接成功，服务端地址[{}]，通道ID为[{}]", address, connection.getChannel().id());
+            } else {
+                future.completeExceptionally(channelFuture.cause());
+                slots.compareAndSet(slot, future, null);
+            }
+        });
+        return future;
+    }
+
+    @Nullable
+    private CompletableFuture<NettyConnection> findConnectionInCurrentEventLoop() {
+        for (int i = 0; i < slots.length(); i++) {
+            CompletableFuture<NettyConnection> future = slots.get(i);
+            if (future != null && future.isDone() && isAvailable(future)
+                && future.join().getChannel().eventLoop().inEventLoop()) {
+                return future;
+            }
+        }
+        return null;
+    }
+
+    private Bootstrap currentBootstrap() {
+        for (EventExecutor executor : bootstrap.config().group()) {
+            if (executor.inEventLoop() && executor instanceof EventLoop eventLoop) {
+                return bootstrap.clone(eventLoop);
+            }
+        }
+        return bootstrap;
+    }
+
+    private static boolean isAvailable(CompletableFuture<NettyConnection> future) {
+        if (future == null) {
+            return false;
+        }
+        // 连接中的任务视为可用，等待其完成即可
+        if (!future.isDone()) {
+            return true;
+        }
+        return !future.isCompletedExceptionally() && future.join().isAvailable();
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.createsequence.rpc4j.core.transport.client;
 
+import io.github.createsequence.common.exception.OverloadException;
 import io.github.createsequence.common.exception.RequestFailException;
 import io.github.createsequence.rpc4j.core.support.handler.InvocationHandlerDelegate;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
@@ -38,6 +39,9 @@ public class ResponseResultHandler extends InvocationHandlerDelegate {
             if (resp.isSuccess()) {
                 return resp.getResult();
             }
+            if (resp.isOverloaded()) {
+                throw new OverloadException(resp.getMessage());
+            }
             throw new RequestFailException(resp.getMessage());
         }
         return delegateResult;
@@ -0,0 +1,283 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.common.exception.ConnectionClosingException;
+import io.github.createsequence.common.exception.OverloadException;
+import io.github.createsequence.common.exception.RequestFailException;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * <p>客户端流式调用的接收者，负责将服务端发送的流数据按订阅者的需求转交给订阅者。
+ *
+ * <p>服务端最多只会发送客户端已经授予信用的流数据，因此接收者中缓存的流数据不会超过{@link #window}，
+ * 订阅者每消费完半个窗口的流数据，接收者便通过{@link Rpc4jProtocol.MessageType#STREAM_CREDIT}向服务端追加等量的信用，
+ * 若订阅者不再请求新的数据，则服务端也将停止发送。
+ *
+ * <p>接收者缓存的是尚未反序列化的消息，流数据仅在转交给订阅者时才会反序列化，
+ * 因此当订阅者的消费速度慢于服务端的发送速度时，反序列化将在订阅者请求数据的线程中完成，而被取消的流数据则不会被反序列化。
+ *
+ * <p>订阅者的回调可能在IO线程中被调用，因此订阅者不应在回调中执行耗时或阻塞的操作。
+ *
+ * @author huangchengxing
+ * @see NettyConnection#registerStream
+ */
+@Slf4j
+class StreamReceiver implements Flow.Subscription {
+
+    private final Flow.Subscriber<Object> subscriber;
+
+    /**
+     * 窗口大小，即服务端在未收到追加的信用前最多可以发送的流数据数
+     */
+    private final int window;
+
+    /**
+     * 已经收到但尚未转交给订阅者的流数据消息
+     */
+    private final Queue<Message<?>> items = new ArrayDeque<>();
+
+    private NettyConnection connection;
+    private long requestId;
+    private long demand = 0L;
+
+    /**
+     * 已经转交给订阅者，但尚未作为信用归还给服务端的流数据数
+     */
+    private int consumed = 0;
+
+    /**
+     * 流结束时的异常，流正常结束时为{@code null}
+     */
+    private Throwable error;
+
+    /**
+     * 流结束消息，或服务端直接拒绝请求时的响应消息，在转交给订阅者时才会反序列化
+     */
+    private Message<?> completion;
+    private boolean completed = false;
+    private boolean cancelled = false;
+    private boolean draining = false;
+    private boolean missed = false;
+
+    /**
+     * 创建一个接收者
+     *
+     * @param subscriber 订阅者
+     * @param window 窗口大小
+     */
+    StreamReceiver(Flow.Subscriber<Object> subscriber, int window) {
+        this.subscriber = subscriber;
+        this.window = window;
+    }
+
+    /**
+     * 绑定流式调用所在的连接与请求ID，并在持有锁的情况下注册流并发送请求，
+     * 使并发的{@link #cancel()}要么在绑定前发生而无需发送请求，要么在绑定后发生并总能移除已经注册的流，
+     * 且取消消息总是在请求之后发送
+     *
+     * @param connection 连接
+     * @param requestId 请求ID
+     * @param request 请求消息
+     * @return 请求消息写出后完成的任务，若订阅已经被取消则返回{@code null}，此时不会发送请求，
+     * 若连接正在被回收，则任务以{@link ConnectionClosingException}结束，此时同样不会发送请求
+     */
+    @Nullable
+    synchronized CompletableFuture<Void> bind(NettyConnection connection, long requestId, Message<?> request) {
+        if (cancelled) {
+            return null;
+        }
+        this.connection = connection;
+        this.requestId = requestId;
+        if (!connection.registerStream(requestId, this)) {
+            return CompletableFuture.failedFuture(new ConnectionClosingException("连接[{}]正在关闭！", connection.getChannel().id()));
+        }
+        return connection.send(request);
+    }
+
+    /**
+     * 收到一个流数据
+     *
+     * @param item 流数据消息
+     */
+    void onItem(Message<?> item) {
+        synchronized (this) {
+            if (!cancelled && !completed) {
+                items.add(item);
+                item = null;
+            }
+        }
+        if (Objects.nonNull(item)) {
+            item.releasePayload();
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * 收到流结束消息，或服务端直接以响应拒绝了请求
+     *
+     * @param message 流结束消息或响应消息
+     */
+    void onComplete(Message<?> message) {
+        synchronized (this) {
+            if (cancelled || completed) {
+                message.releasePayload();
+                return;
+            }
+            completed = true;
+            completion = message;
+        }
+        drain();
+    }
+
+    /**
+     * 流以异常结束
+     *
+     * @param ex 异常，为{@code null}时表示流正常结束
+     */
+    void onError(@Nullable Throwable ex) {
+        synchronized (this) {
+            if (cancelled || completed) {
+                return;
+            }
+            completed = true;
+            error = ex;
+        }
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            subscriber.onError(new IllegalArgumentException("请求的元素数必须大于0：" + n));
+            return;
+        }
+        synchronized (this) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        NettyConnection conn;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            releaseAll();
+            conn = connection;
+        }
+        // 流已经结束时，服务端已经释放了该流，无需再通知
+        if (Objects.nonNull(conn) && Objects.nonNull(conn.removeStream(requestId))) {
+            conn.send(Message.streamCancel(requestId));
+        }
+    }
+
+    /**
+     * 将流数据转交给订阅者，同一时刻仅有一个线程在转交
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                missed = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            Message<?> item = null;
+            int credit = 0;
+            boolean terminate = false;
+            Throwable ex = null;
+            Message<?> completionMessage = null;
+            synchronized (this) {
+                if (cancelled) {
+                    draining = false;
+                    return;
+                }
+                if (demand > 0 && !items.isEmpty()) {
+                    item = items.poll();
+                    demand--;
+                    // 每消费完半个窗口的流数据，归还一次信用
+                    if (++consumed >= Math.max(1, window / 2)) {
+                        credit = consumed;
+                        consumed = 0;
+                    }
+                } else if (completed && items.isEmpty()) {
+                    cancelled = true;
+                    terminate = true;
+                    ex = error;
+                    completionMessage = completion;
+                    completion = null;
+                } else if (missed) {
+                    missed = false;
+                    continue;
+                } else {
+                    draining = false;
+                    return;
+                }
+            }
+            if (terminate) {
+                terminate(Objects.isNull(completionMessage) ? ex : toException(completionMessage));
+                return;
+            }
+            if (credit > 0) {
+                connection.send(Message.streamCredit(requestId, credit));
+            }
+            Object result;
+            try {
+                result = ((Response)item.getPayload()).getResult();
+            } catch (RuntimeException e) {
+                log.error("客户端反序列化流数据失败，请求ID为[{}]", requestId, e);
+                cancel();
+                subscriber.onError(e);
+                return;
+            }
+            subscriber.onNext(result);
+        }
+    }
+
+    private void releaseAll() {
+        items.forEach(Message::releasePayload);
+        items.clear();
+        if (Objects.nonNull(completion)) {
+            completion.releasePayload();
+            completion = null;
+        }
+    }
+
+    private void terminate(@Nullable Throwable ex) {
+        if (Objects.nonNull(connection)) {
+            connection.removeStream(requestId);
+        }
+        if (Objects.isNull(ex)) {
+            subscriber.onComplete();
+        } else {
+            subscriber.onError(ex);
+        }
+    }
+
+    @Nullable
+    private static Throwable toException(Message<?> message) {
+        Response response = (Response)message.getPayload();
+        if (Objects.isNull(response) || response.isSuccess()) {
+            return null;
+        }
+        if (response.isOverloaded()) {
+            return new OverloadException("服务端过载，错误信息：{}", response.getMessage());
+        }
+        return new RequestFailException("服务端响应异常，错误信息：{}", response.getMessage());
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.createsequence.rpc4j.core.transport.codec;
+
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.netty.buffer.ByteBuf;
+
+import java.io.OutputStream;
+
+/**
+ * <p>将数据写入输出缓冲区中的数据帧的输出流。
+ *
+ * <p>创建输出流前，输出缓冲区中需要已经写入第一个数据帧的报文头部与长度域的占位，
+ * 此后写入的数据将作为该数据帧的数据部分，当数据部分达到{@code maxChunkLength}时，
+ * 将复制当前数据帧的报文头部以开始一个新的数据帧，并将已经写满的数据帧的报文类型改为{@link Rpc4jProtocol.MessageType#CHUNK}。
+ * 因此，关闭输出流后，只有最后一个数据帧保留原本的报文类型，且每个数据帧的长度域都已经回填。
+ * 若写入的数据总长度超过{@code maxPayloadLength}，则写入将以异常中止。
+ *
+ * @author huangchengxing
+ * @see Rpc4jNettyEncoder
+ */
+class ChunkedFrameOutputStream extends OutputStream implements Rpc4jProtocol {
+
+    /**
+     * 报文类型在报文头部中的偏移量
+     */
+    private static final int OFFSET_OF_TYPE_FIELD = SIZE_OF_MAGIC_NUMBER_FIELD + SIZE_OF_VERSION_FIELD
+        + SIZE_OF_SERIALIZER_TYPE_FIELD + SIZE_OF_COMPRESSION_TYPE_FIELD;
+    private static final int SIZE_OF_FRAME_HEADER = SIZE_OF_HEADER_FIELDS + SIZE_OF_LENGTH_FIELD;
+
+    private final int maxChunkLength;
+
+    /**
+     * 全部数据帧中数据部分的最大总长度
+     */
+    private final int maxPayloadLength;
+    private ByteBuf out;
+
+    /**
+     * 当前数据帧的起始位置
+     */
+    private int frameStartIndex;
+
+    /**
+     * 已经写入的数据总长度
+     */
+    private int payloadLength;
+
+    /**
+     * 创建一个输出流
+     *
+     * @param out 输出缓冲区
+     * @param frameStartIndex 第一个数据帧的起始位置
+     * @param maxChunkLength 单个数据帧中数据部分的最大长度
+     * @param maxPayloadLength 全部数据帧中数据部分的最大总长度
+     */
+    ChunkedFrameOutputStream(ByteBuf out, int frameStartIndex, int maxChunkLength, int maxPayloadLength) {
+        this.out = out;
+        this.frameStartIndex = frameStartIndex;
+        this.maxChunkLength = maxChunkLength;
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    /**
+     * 创建一个尚未绑定输出缓冲区的输出流，使用前需要通过{@link #reset}绑定
+     *
+     * @param maxChunkLength 单个数据帧中数据部分的最大长度
+     * @param maxPayloadLength 全部数据帧中数据部分的最大总长度
+     */
+    ChunkedFrameOutputStream(int maxChunkLength, int maxPayloadLength) {
+        this(null, 0, maxChunkLength, maxPayloadLength);
+    }
+
+    /**
+     * 重新绑定输出缓冲区，使同一个输出流可以被同一个编码器反复使用
+     *
+     * @param out 输出缓冲区
+     * @param frameStartIndex 第一个数据帧的起始位置
+     * @return 当前输出流
+     */
+    ChunkedFrameOutputStream reset(ByteBuf out, int frameStartIndex) {
+        this.out = out;
+        this.frameStartIndex = frameStartIndex;
+        this.payloadLength = 0;
+        return this;
+    }
+
+    /**
+     * 计算指定长度的数据被拆分后，全部数据帧的总长度
+     *
+     * @param payloadLength 数据长度
+     * @param maxChunkLength 单个数据帧中数据部分的最大长度
+     * @return 总长度
+     */
+    static int sizeOfFrames(int payloadLength, int maxChunkLength) {
+        int frames = Math.max(1, (payloadLength + maxChunkLength - 1) / maxChunkLength);
+        return frames * SIZE_OF_FRAME_HEADER + payloadLength;
+    }
+
+    @Override
+    public void write(int b) {
+        checkPayloadLength(1);
+        if (remaining() == 0) {
+            nextFrame();
+        }
+        out.writeByte(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        checkPayloadLength(len);
+        while (len > 0) {
+            int remaining = remaining();
+            if (remaining == 0) {
+                nextFrame();
+                remaining = maxChunkLength;
+            }
+            int length = Math.min(remaining, len);
+            out.writeBytes(b, off, length);
+            off += length;
+            len -= length;
+        }
+    }
+
+    /**
+     * 回填最后一个数据帧的长度域，该方法不会关闭输出缓冲区
+     */
+    @Override
+    public void close() {
+        fillLength();
+    }
+
+    /**
+     * 在写入前校验数据总长度，使输出缓冲区不会因超出上限的数据而无限扩容
+     *
+     * @param length 将要写入的数据长度
+     */
+    private void checkPayloadLength(int length) {
+        if (length > maxPayloadLength - payloadLength) {
+            throw new Rpc4jException("消息数据长度超过上限[{}]", maxPayloadLength);
+        }
+        payloadLength += length;
+    }
+
+    private int remaining() {
+        return maxChunkLength - (out.writerIndex() - frameStartIndex - SIZE_OF_FRAME_HEADER);
+    }
+
+    private void nextFrame() {
+        int previous = frameStartIndex;
+        frameStartIndex = out.writerIndex();
+        // 新的数据帧沿用当前数据帧的报文头部，再将当前数据帧标记为分片
+        out.writeBytes(out, previous, SIZE_OF_HEADER_FIELDS);
+        out.writeInt(0);
+        out.setByte(previous + OFFSET_OF_TYPE_FIELD, MessageType.CHUNK.getCode());
+        out.setInt(previous + SIZE_OF_HEADER_FIELDS, frameStartIndex - previous);
+    }
+
+    private void fillLength() {
+        out.setInt(frameStartIndex + SIZE_OF_HEADER_FIELDS, out.writerIndex() - frameStartIndex);
+    }
+}
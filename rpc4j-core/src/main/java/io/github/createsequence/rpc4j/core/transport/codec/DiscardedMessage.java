@@ -0,0 +1,31 @@
+package io.github.createsequence.rpc4j.core.transport.codec;
+
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+
+/**
+ * <p>因暂存的数据超出长度上限而被丢弃的消息。
+ *
+ * <p>解码器在收到被丢弃消息的最后一帧时，将以该对象代替原本的消息传递给后续的处理器，
+ * 其中仅包含最后一帧的报文头部信息，以便服务端以失败响应拒绝对应的请求，或客户端以异常结束对应的请求。
+ *
+ * @param version 协议版本
+ * @param messageType 消息类型，即最后一帧的报文类型
+ * @param serializationType 序列化方式
+ * @param compressionType 压缩方式
+ * @param requestId 请求ID
+ * @author huangchengxing
+ * @see Rpc4jNettyDecoder
+ */
+public record DiscardedMessage(
+    byte version, byte messageType, byte serializationType, byte compressionType, long requestId) {
+
+    /**
+     * 判断被丢弃的消息是否为指定类型
+     *
+     * @param type 消息类型
+     * @return 是否
+     */
+    public boolean is(Rpc4jProtocol.MessageType type) {
+        return messageType == type.getCode();
+    }
+}
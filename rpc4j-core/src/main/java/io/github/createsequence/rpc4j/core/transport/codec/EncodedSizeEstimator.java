@@ -0,0 +1,57 @@
+package io.github.createsequence.rpc4j.core.transport.codec;
+
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+
+/**
+ * <p>编码后报文长度的估算器，按消息类型分别记录最近编码的报文长度，用于确定编码时输出缓冲区的初始容量。
+ *
+ * <p>当报文长度超过估算值时，估算值将立即增大到该长度，从而避免后续的同类报文在编码时扩容缓冲区；
+ * 而当报文长度小于估算值时，估算值将按指数加权移动平均逐步减小，避免因为偶尔出现的大报文长期占用过大的缓冲区。
+ *
+ * <p>该类不是线程安全的，每个编码器持有一个实例，且仅在通道所在的事件循环中访问。
+ *
+ * @author huangchengxing
+ */
+public class EncodedSizeEstimator implements Rpc4jProtocol {
+
+    /**
+     * 估算值的上限，更大的报文将在编码时按需扩容
+     */
+    public static final int MAX_ESTIMATED_SIZE = 1 << 20;
+
+    /**
+     * 估算值减小时的衰减因子，即每次减小估算值与实际长度之差的{@code 1 / 2^DECAY_SHIFT}
+     */
+    private static final int DECAY_SHIFT = 3;
+
+    private static final int INITIAL_ESTIMATED_SIZE = 256;
+
+    /**
+     * 按消息类型编码索引的估算值
+     */
+    private final int[] estimatedSizes = new int[1 << Byte.SIZE];
+
+    /**
+     * 获取指定类型消息编码后的估算长度
+     *
+     * @param messageType 消息类型编码
+     * @return 估算长度
+     */
+    public int estimate(byte messageType) {
+        int estimated = estimatedSizes[messageType & 0xFF];
+        return estimated > 0 ? estimated : INITIAL_ESTIMATED_SIZE;
+    }
+
+    /**
+     * 记录一次编码后的实际长度
+     *
+     * @param messageType 消息类型编码
+     * @param size 实际长度
+     */
+    public void record(byte messageType, int size) {
+        int index = messageType & 0xFF;
+        int estimated = estimate(messageType);
+        int updated = size >= estimated ? size : estimated - ((estimated - size) >> DECAY_SHIFT);
+        estimatedSizes[index] = Math.max(SIZE_OF_HEADER_FIELDS + SIZE_OF_LENGTH_FIELD, Math.min(updated, MAX_ESTIMATED_SIZE));
+    }
+}
@@ -5,17 +5,25 @@ import io.github.createsequence.common.exception.Rpc4jException;
 import io.github.createsequence.common.util.Asserts;
 import io.github.createsequence.rpc4j.core.compress.Compressor;
 import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.transport.Handshake;
 import io.github.createsequence.rpc4j.core.transport.Message;
 import io.github.createsequence.rpc4j.core.transport.Request;
 import io.github.createsequence.rpc4j.core.transport.Response;
 import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * <p>Netty解码器，当客户端接受到服务端响应，或服务端接受到客户端请求时，
@@ -30,12 +38,21 @@ import java.util.List;
  *     <li>{@code lengthAdjustment}：由于解码后我们仅需要保留数据包，因此获得的报文长度需要减去报文头部以及长度域本的长度，剩下的即为数据长度；</li>
  *     <li>{@code initialBytesToStrip}：解码后，跳过头部和长度域，即仅保留数据；</li>
  * </ul>
- * 完成解码后，最终拦截器将会获得请求参数，根据数据包类型不同，将会反序列化为不同的对象：
+ * 完成解码后，最终拦截器将会获得请求参数，根据数据包类型不同，将会在第一次获取时反序列化为不同的对象：
  * <ul>
  *     <li>{@link Request}：服务端收到客户端请求时；</li>
- *     <li>{@link Response}：客户端收到服务的响应时；</li>
+ *     <li>{@link Response}：客户端收到服务的响应，或流数据与流结束消息时；</li>
+ *     <li>{@link Integer}：服务端收到客户端的流信用消息时；</li>
+ *     <li>{@link Handshake}：客户端收到服务端的握手响应时；</li>
  * </ul>
- * 最终数据将会包装为{@link Message}并返回。
+ * 最终数据将会包装为{@link Message}并返回，此时消息仅持有原始数据，
+ * 解压缩与反序列化将在业务线程第一次通过{@link Message#getPayload()}获取数据时进行。
+ *
+ * <p>若消息的数据被拆分为多个数据帧，则解码器将按请求ID暂存{@link Rpc4jProtocol.MessageType#CHUNK}中的数据，
+ * 并在收到最后一帧后，以{@link CompositeByteBuf}的形式将各帧的数据拼接为完整的数据，拼接过程中不会复制数据。
+ * 每个解码器仅对应一条连接，若该连接上暂存的数据总长度超过{@code maxAggregatedLength}，
+ * 则使暂存数据超出上限的消息将被丢弃，从而使每条连接占用的内存不会随消息的大小无限增长。
+ * 被丢弃的消息在收到最后一帧时将以{@link DiscardedMessage}代替，以便后续的处理器以失败结束对应的请求。
  *
  * @author huangchengxing
  * @see <a href = "https://www.lilinchao.com/archives/2166.html">Netty进阶之长度域解码器</a>
@@ -45,6 +62,12 @@ public class Rpc4jNettyDecoder
     extends LengthFieldBasedFrameDecoder implements Rpc4jProtocol {
 
     private static final byte[] MAGIC_NUMBER = new byte[]{'r', 'p', 'c', '4', 'j'};
+
+    /**
+     * 魔数的前四个字节与最后一个字节，用于在不分配数组的情况下校验魔数
+     */
+    private static final int MAGIC_NUMBER_PREFIX = ('r' << 24) | ('p' << 16) | ('c' << 8) | '4';
+    private static final byte MAGIC_NUMBER_SUFFIX = 'j';
     private static final int MINIMUM_SIZE_OF_MESSAGE = SIZE_OF_HEADER_FIELDS + SIZE_OF_LENGTH_FIELD;
 
     /**
@@ -52,12 +75,42 @@ public class Rpc4jNettyDecoder
      */
     private final ComponentManager componentManager;
 
+    /**
+     * 暂存的数据的最大总长度
+     */
+    private final int maxAggregatedLength;
+
+    /**
+     * 正在拼接的数据，key为请求ID
+     */
+    private final LongObjectMap<CompositeByteBuf> pendingChunks = new LongObjectHashMap<>();
+
+    /**
+     * 因暂存的数据超出长度上限而被丢弃的消息的请求ID，以基本类型作为键，避免装箱
+     */
+    private final LongObjectMap<Boolean> discardedRequests = new LongObjectHashMap<>();
+
+    /**
+     * 当前暂存的数据的总长度
+     */
+    private int aggregatedLength = 0;
+
     /**
      * 创建一个Netty解码器
      *
      * @param componentManager 组件管理器
      */
     public Rpc4jNettyDecoder(ComponentManager componentManager) {
+        this(componentManager, MAX_AGGREGATED_LENGTH);
+    }
+
+    /**
+     * 创建一个Netty解码器
+     *
+     * @param componentManager 组件管理器
+     * @param maxAggregatedLength 暂存的数据的最大总长度
+     */
+    public Rpc4jNettyDecoder(ComponentManager componentManager, int maxAggregatedLength) {
         super(
             MAX_FRAME_LENGTH,
             SIZE_OF_HEADER_FIELDS,
@@ -66,6 +119,7 @@ public class Rpc4jNettyDecoder
             0
         );
         this.componentManager = componentManager;
+        this.maxAggregatedLength = maxAggregatedLength;
     }
 
     /**
@@ -101,6 +155,9 @@ public class Rpc4jNettyDecoder
         byte compressionType = in.readByte();
         byte packetType = in.readByte();
         in.readByte();
+        long requestId = in.readLong();
+        int methodId = in.readInt();
+        int timeout = in.readInt();
         int packetLength = in.readInt();
 
         // 解析请求参数
@@ -108,39 +165,138 @@ public class Rpc4jNettyDecoder
         if (sizeOfPayload < 0) {
             return null;
         }
-        byte[] data = new byte[sizeOfPayload];
-        in.readBytes(data);
-        return deserialize(version, packetType, serializerType, compressionType, data);
+        // 数据部分直接以切片的形式交给解压缩器与反序列化器，不再复制为字节数组
+        ByteBuf data = in.readSlice(sizeOfPayload);
+        if (packetType == Rpc4jProtocol.MessageType.CHUNK.getCode()) {
+            appendChunk(requestId, data);
+            return null;
+        }
+        if (!discardedRequests.isEmpty() && Objects.nonNull(discardedRequests.remove(requestId))) {
+            log.warn("丢弃超出长度上限的消息的最后一帧，请求ID为[{}]", requestId);
+            return new DiscardedMessage(version, packetType, serializerType, compressionType, requestId);
+        }
+        CompositeByteBuf chunks = pendingChunks.isEmpty() ? null : pendingChunks.remove(requestId);
+        if (Objects.isNull(chunks)) {
+            return deserialize(version, packetType, serializerType, compressionType, requestId, methodId, timeout, data);
+        }
+        // 收到最后一帧，拼接完整的数据
+        aggregatedLength -= chunks.readableBytes();
+        chunks.addComponent(true, data.retain());
+        try {
+            return deserialize(version, packetType, serializerType, compressionType, requestId, methodId, timeout, chunks);
+        } finally {
+            chunks.release();
+        }
+    }
+
+    /**
+     * 暂存分片中的数据，若暂存的数据总长度超过上限，则丢弃该分片所属的消息，
+     * 并在收到该消息的最后一帧时返回{@link DiscardedMessage}
+     *
+     * @param requestId 请求ID
+     * @param data 分片中的数据
+     */
+    private void appendChunk(long requestId, ByteBuf data) {
+        if (!discardedRequests.isEmpty() && discardedRequests.containsKey(requestId)) {
+            return;
+        }
+        if (aggregatedLength + data.readableBytes() > maxAggregatedLength) {
+            CompositeByteBuf chunks = pendingChunks.remove(requestId);
+            if (Objects.nonNull(chunks)) {
+                aggregatedLength -= chunks.readableBytes();
+                chunks.release();
+            }
+            discardedRequests.put(requestId, Boolean.TRUE);
+            log.error("连接上暂存的数据长度超过上限[{}]，丢弃消息，请求ID为[{}]", maxAggregatedLength, requestId);
+            return;
+        }
+        CompositeByteBuf chunks = pendingChunks.get(requestId);
+        if (Objects.isNull(chunks)) {
+            // 不限制组件数，避免组件过多时合并组件而复制数据
+            chunks = data.alloc().compositeBuffer(Integer.MAX_VALUE);
+            pendingChunks.put(requestId, chunks);
+        }
+        chunks.addComponent(true, data.retain());
+        aggregatedLength += data.readableBytes();
+    }
+
+    /**
+     * 解码器被移除时，释放全部暂存的数据
+     *
+     * @param ctx 上下文
+     * @throws Exception 异常
+     */
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+        pendingChunks.values().forEach(CompositeByteBuf::release);
+        pendingChunks.clear();
+        discardedRequests.clear();
+        aggregatedLength = 0;
+        super.handlerRemoved0(ctx);
     }
 
-    protected Object deserialize(byte version, byte messageType, byte serializerType, byte compressionType, byte[] data) {
-        // 对原始数据进行解压缩
-        Compressor compressor = componentManager.getComponent(Compressor.class, Rpc4jProtocol.CompressionType.LOOKUP.get(compressionType).getName());
-        data = compressor.decompress(data);
-        // 对解压缩后的数据进行反序列化
-        Rpc4jProtocol.SerializationType type = Rpc4jProtocol.SerializationType.LOOKUP.get(serializerType);
-        Asserts.isNotNull(serializerType, "未知的序列化类型编码: [{}]", type);
-        Serializer serializer = componentManager.getComponent(Serializer.class, type.getName());
-        Object payload = switch (Rpc4jProtocol.MessageType.LOOKUP.get(messageType)) {
-            case RPC_REQUEST -> serializer.deserialize(data, Request.class);
-            case RPC_RESPONSE -> serializer.deserialize(data, Response.class);
+    protected Object deserialize(
+        byte version, byte messageType, byte serializerType, byte compressionType,
+        long requestId, int methodId, int timeout, ByteBuf data) {
+        Rpc4jProtocol.MessageType type = Rpc4jProtocol.MessageType.valueOf(messageType);
+        Asserts.isNotNull(type, "未知的消息类型编码: [{}]", messageType);
+        // 心跳与握手请求不携带数据
+        if (!type.hasPayload()) {
+            return new Message<>(version, messageType, serializerType, compressionType, requestId, methodId, timeout, null);
+        }
+        Rpc4jProtocol.CompressionType compressType = Rpc4jProtocol.CompressionType.valueOf(compressionType);
+        Asserts.isNotNull(compressType, "未知的压缩方式编码: [{}]", compressionType);
+        Compressor compressor = componentManager.getComponent(Compressor.class, compressType.getName());
+        Rpc4jProtocol.SerializationType serializationType = Rpc4jProtocol.SerializationType.valueOf(serializerType);
+        Asserts.isNotNull(serializationType, "未知的序列化类型编码: [{}]", serializerType);
+        Serializer serializer = componentManager.getComponent(Serializer.class, serializationType.getName());
+        Class<?> payloadType = switch (type) {
+            case RPC_REQUEST -> Request.class;
+            case RPC_RESPONSE, STREAM_ITEM, STREAM_COMPLETE -> Response.class;
+            case HANDSHAKE_RESPONSE -> Handshake.class;
+            case STREAM_CREDIT -> Integer.class;
+            default -> null;
         };
-        return new Message<>(
-            version, messageType, serializerType, compressionType, payload
+        if (Objects.isNull(payloadType)) {
+            return new Message<>(version, messageType, serializerType, compressionType, requestId, methodId, timeout, null);
+        }
+        // 解压缩与反序列化推迟到第一次获取数据时进行，IO线程仅负责拆分数据帧
+        return Message.lazy(
+            version, messageType, serializerType, compressionType, requestId, methodId, timeout,
+            data.retain(), buf -> readPayload(buf, payloadType, compressor, serializer)
         );
     }
 
+    /**
+     * 对数据进行解压缩与反序列化，若数据位于一块连续的内存中，则直接以{@link ByteBuffer}的形式读取，
+     * 否则以{@link InputStream}的形式读取
+     *
+     * @param data 数据
+     * @param payloadType 数据类型
+     * @param compressor 压缩器
+     * @param serializer 序列化器
+     * @return 反序列化后的数据
+     */
+    private static Object readPayload(ByteBuf data, Class<?> payloadType, Compressor compressor, Serializer serializer) {
+        if (data.nioBufferCount() == 1) {
+            ByteBuffer buffer = compressor.decompress(data.nioBuffer());
+            return serializer.deserialize(buffer, payloadType);
+        }
+        InputStream input = compressor.decompress(new ByteBufInputStream(data));
+        return serializer.deserialize(input, payloadType);
+    }
+
     protected byte checkVersion(ByteBuf byteBuf) {
         return byteBuf.readByte();
     }
 
     private void checkMagicNumber(ByteBuf byteBuf) {
-        byte[] magicNumber = new byte[SIZE_OF_MAGIC_NUMBER_FIELD];
-        byteBuf.readBytes(magicNumber);
-        for (int i = 0; i < SIZE_OF_MAGIC_NUMBER_FIELD; i++) {
-            if (magicNumber[i] != MAGIC_NUMBER[i]) {
-                throw new Rpc4jException("报文前五位魔数必须为[{}]，但实际为[{}]", List.of(MAGIC_NUMBER), List.of(magicNumber));
-            }
+        int prefix = byteBuf.readInt();
+        byte suffix = byteBuf.readByte();
+        if (prefix != MAGIC_NUMBER_PREFIX || suffix != MAGIC_NUMBER_SUFFIX) {
+            byte[] magicNumber = new byte[SIZE_OF_MAGIC_NUMBER_FIELD];
+            byteBuf.getBytes(byteBuf.readerIndex() - SIZE_OF_MAGIC_NUMBER_FIELD, magicNumber);
+            throw new Rpc4jException("报文前五位魔数必须为[{}]，但实际为[{}]", Arrays.toString(MAGIC_NUMBER), Arrays.toString(magicNumber));
         }
     }
 }
@@ -1,24 +1,37 @@
 package io.github.createsequence.rpc4j.core.transport.codec;
 
 import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.common.exception.Rpc4jException;
 import io.github.createsequence.common.util.Asserts;
 import io.github.createsequence.rpc4j.core.compress.Compressor;
 import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.transport.EncodedPayload;
 import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.Response;
 import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
-import lombok.RequiredArgsConstructor;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
 
 /**
- * Netty编码器，当客户端向发送请求，或服务端向客户端响应时，
+ * <p>Netty编码器，当客户端向发送请求，或服务端向客户端响应时，
  * 将使用该编码器将数据包编码为Rpc4j协议格式的数据包。
  *
+ * <p>编码时，数据将经由压缩器与序列化器直接写入输出缓冲区，并在写入完毕后回填长度域，
+ * 输出缓冲区的初始容量由{@link EncodedSizeEstimator}根据同类消息最近的报文长度确定。
+ *
+ * <p>若数据长度超过{@code maxChunkLength}，则数据将在写入时被拆分为多个数据帧，
+ * 除最后一帧外均为{@link Rpc4jProtocol.MessageType#CHUNK}，参见{@link ChunkedFrameOutputStream}。
+ * 数据总长度不得超过{@code maxMessageLength}，即对端解码器能够暂存的数据长度，
+ * 超出上限的消息将在分配或扩容输出缓冲区前以异常拒绝，而不会被完整写入后再由对端丢弃。
+ *
  * @author huangchengxing
  * @see <a href = "https://www.lilinchao.com/archives/2166.html">Netty进阶之长度域解码器</a>
  */
-@RequiredArgsConstructor
 public class Rpc4jNettyEncoder
     extends MessageToByteEncoder<Message<Object>> implements Rpc4jProtocol {
 
@@ -26,38 +39,156 @@ public class Rpc4jNettyEncoder
 
     private final ComponentManager componentManager;
 
+    /**
+     * 单个数据帧中数据部分的最大长度
+     */
+    private final int maxChunkLength;
+
+    /**
+     * 消息数据的最大总长度
+     */
+    private final int maxMessageLength;
+
+    /**
+     * 报文长度估算器，用于确定输出缓冲区的初始容量
+     */
+    private final EncodedSizeEstimator sizeEstimator = new EncodedSizeEstimator();
+
+    /**
+     * 数据帧输出流，编码器仅在所属通道的事件循环中使用，因此可以在每次编码时复用
+     */
+    private final ChunkedFrameOutputStream frames;
+
+    /**
+     * 创建一个Netty编码器
+     *
+     * @param componentManager 组件管理器
+     */
+    public Rpc4jNettyEncoder(ComponentManager componentManager) {
+        this(componentManager, MAX_CHUNK_LENGTH);
+    }
+
+    /**
+     * 创建一个Netty编码器
+     *
+     * @param componentManager 组件管理器
+     * @param maxChunkLength 单个数据帧中数据部分的最大长度
+     */
+    public Rpc4jNettyEncoder(ComponentManager componentManager, int maxChunkLength) {
+        this(componentManager, maxChunkLength, MAX_AGGREGATED_LENGTH);
+    }
+
+    /**
+     * 创建一个Netty编码器
+     *
+     * @param componentManager 组件管理器
+     * @param maxChunkLength 单个数据帧中数据部分的最大长度
+     * @param maxMessageLength 消息数据的最大总长度
+     */
+    public Rpc4jNettyEncoder(ComponentManager componentManager, int maxChunkLength, int maxMessageLength) {
+        Asserts.isTrue(
+            maxChunkLength > 0 && maxChunkLength <= MAX_FRAME_LENGTH - SIZE_OF_HEADER_FIELDS - SIZE_OF_LENGTH_FIELD,
+            "数据帧中数据部分的最大长度超出范围：{}", maxChunkLength
+        );
+        Asserts.isTrue(maxMessageLength > 0, "消息数据的最大总长度必须大于0：{}", maxMessageLength);
+        this.componentManager = componentManager;
+        this.maxChunkLength = maxChunkLength;
+        this.maxMessageLength = maxMessageLength;
+        this.frames = new ChunkedFrameOutputStream(maxChunkLength, maxMessageLength);
+    }
+
+    /**
+     * 按消息类型的估算长度分配输出缓冲区，已经编码的数据将按其实际长度分配，若其长度超过上限则直接拒绝
+     *
+     * @param ctx 上下文
+     * @param msg 消息
+     * @param preferDirect 是否优先使用堆外内存
+     * @return 输出缓冲区
+     */
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Message<Object> msg, boolean preferDirect) {
+        int initialCapacity;
+        if (msg.getPayload() instanceof EncodedPayload encoded) {
+            if (encoded.getBytes().length > maxMessageLength) {
+                throw new Rpc4jException(
+                    "消息数据长度[{}]超过上限[{}]，请求ID为[{}]", encoded.getBytes().length, maxMessageLength, msg.getRequestId()
+                );
+            }
+            initialCapacity = ChunkedFrameOutputStream.sizeOfFrames(encoded.getBytes().length, maxChunkLength);
+        } else {
+            initialCapacity = sizeEstimator.estimate(msg.getMessageType());
+        }
+        return preferDirect ? ctx.alloc().ioBuffer(initialCapacity) : ctx.alloc().heapBuffer(initialCapacity);
+    }
+
     @Override
-    protected void encode(ChannelHandlerContext channelHandlerContext, Message<Object> target, ByteBuf byteBuf) {
+    protected void encode(ChannelHandlerContext channelHandlerContext, Message<Object> target, ByteBuf byteBuf) throws IOException {
+        int startIndex = byteBuf.writerIndex();
         // 写入魔数
         byteBuf.writeBytes(MAGIC_NUMBER);
 
-        Message.Header protocolHeader = target.getHeader();
-        verifyHeader(target, protocolHeader);
+        // 直接根据编码校验报文头部，避免为每条消息创建报文头部对象
+        Rpc4jProtocol.MessageType messageType = Rpc4jProtocol.MessageType.valueOf(target.getMessageType());
+        verifyHeader(target, messageType);
 
         // 版本号
-        byteBuf.writeByte(protocolHeader.version().getCode());
+        byteBuf.writeByte(target.getVersion());
         // 序列方式
-        Serializer serializer = componentManager.getComponent(Serializer.class, protocolHeader.serializationType().getName());
-        byteBuf.writeByte(protocolHeader.serializationType().getCode());
+        byteBuf.writeByte(target.getSerializationType());
         // 压缩方式
-        Compressor compressor = componentManager.getComponent(Compressor.class, protocolHeader.compressType().getName());
-        byteBuf.writeByte(protocolHeader.compressType().getCode());
+        byteBuf.writeByte(target.getCompressType());
         // 消息类型
-        byteBuf.writeByte(protocolHeader.messageType().getCode());
+        byteBuf.writeByte(target.getMessageType());
         // 响应状态
-        byteBuf.writeByte(Rpc4jProtocol.ResponseStatus.SUCCESS.getCode());
-        // 序列化数据，并在计算数据包总长度后写入
-        byte[] payload = serializer.serialize(target.getPayload());
-        payload = compressor.compress(payload);
-        int packetLength = SIZE_OF_HEADER_FIELDS + SIZE_OF_LENGTH_FIELD + payload.length;
-        byteBuf.writeInt(packetLength);
-        byteBuf.writeBytes(payload);
+        boolean failed = target.getPayload() instanceof Response response ? !response.isSuccess()
+            : target.getPayload() instanceof EncodedPayload encoded && !encoded.isSuccess();
+        Rpc4jProtocol.ResponseStatus status = failed ? Rpc4jProtocol.ResponseStatus.FAIL : Rpc4jProtocol.ResponseStatus.SUCCESS;
+        byteBuf.writeByte(status.getCode());
+        // 请求ID
+        byteBuf.writeLong(target.getRequestId());
+        // 方法ID
+        byteBuf.writeInt(target.getMethodId());
+        // 超时预算
+        byteBuf.writeInt(target.getTimeout());
+        // 心跳与握手请求不携带数据
+        if (!messageType.hasPayload()) {
+            byteBuf.writeInt(SIZE_OF_HEADER_FIELDS + SIZE_OF_LENGTH_FIELD);
+            return;
+        }
+        // 先占位长度域，在数据写入完毕后再回填各数据帧的长度
+        byteBuf.writeInt(0);
+        ChunkedFrameOutputStream frames = this.frames.reset(byteBuf, startIndex);
+        // 已经编码的数据将直接写入，否则将序列化与压缩后的数据直接写入输出缓冲区
+        if (target.getPayload() instanceof EncodedPayload encoded) {
+            frames.write(encoded.getBytes());
+        } else {
+            Serializer serializer = componentManager.getComponent(
+                Serializer.class, Rpc4jProtocol.SerializationType.valueOf(target.getSerializationType()).getName()
+            );
+            Compressor compressor = componentManager.getComponent(
+                Compressor.class, Rpc4jProtocol.CompressionType.valueOf(target.getCompressType()).getName()
+            );
+            try (OutputStream output = compressor.compress(frames)) {
+                serializer.serialize(target.getPayload(), output);
+            }
+        }
+        frames.close();
+        sizeEstimator.record(target.getMessageType(), byteBuf.writerIndex() - startIndex);
     }
 
-    private static void verifyHeader(Message<?> message, Message.Header header) {
-        Asserts.isNotNull(header.serializationType(), "未知的序列化方式：{}", message.getSerializationType());
-        Asserts.isNotNull(header.compressType(), "未知的压缩方式：{}", message.getCompressType());
-        Asserts.isNotNull(header.messageType(), "未知的消息类型：{}", message.getMessageType());
-        Asserts.isNotNull(header.version(), "未知的协议版本：{}", message.getVersion());
+    private static void verifyHeader(Message<?> message, Rpc4jProtocol.@Nullable MessageType messageType) {
+        // 仅在校验失败时才构建异常信息，使校验本身不产生任何分配
+        if (Rpc4jProtocol.SerializationType.valueOf(message.getSerializationType()) == null) {
+            throw new Rpc4jException("未知的序列化方式：{}", message.getSerializationType());
+        }
+        if (Rpc4jProtocol.CompressionType.valueOf(message.getCompressType()) == null) {
+            throw new Rpc4jException("未知的压缩方式：{}", message.getCompressType());
+        }
+        if (messageType == null) {
+            throw new Rpc4jException("未知的消息类型：{}", message.getMessageType());
+        }
+        if (Rpc4jProtocol.Version.valueOf(message.getVersion()) == null) {
+            throw new Rpc4jException("未知的协议版本：{}", message.getVersion());
+        }
     }
 }
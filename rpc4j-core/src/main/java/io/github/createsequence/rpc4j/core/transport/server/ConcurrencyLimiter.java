@@ -0,0 +1,40 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+/**
+ * <p>并发限制器，用于限制服务端同时处理的请求数。<br />
+ * 服务端在执行请求前通过{@link #tryAcquire()}申请许可，若申请失败，则直接以过载响应拒绝该请求，
+ * 请求处理完毕后，需要通过{@link #release(long)}归还许可，并反馈本次请求的处理耗时。
+ *
+ * @author huangchengxing
+ * @see VegasConcurrencyLimiter
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * 尝试申请一个许可
+     *
+     * @return 是否申请成功
+     */
+    boolean tryAcquire();
+
+    /**
+     * 归还一个许可
+     *
+     * @param latencyNanos 请求的处理耗时，单位纳秒，小于等于0时表示该请求的耗时不应被用于调整并发上限
+     */
+    void release(long latencyNanos);
+
+    /**
+     * 获取当前的并发上限
+     *
+     * @return 并发上限
+     */
+    int getLimit();
+
+    /**
+     * 获取当前正在处理的请求数
+     *
+     * @return 请求数
+     */
+    int getInFlight();
+}
@@ -0,0 +1,60 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.common.util.Asserts;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用于创建服务端分发线程池的工具类，分发线程池用于在IO线程之外执行服务方法
+ *
+ * @author huangchengxing
+ */
+@Slf4j
+public class DispatchExecutors {
+
+    private DispatchExecutors() {
+    }
+
+    /**
+     * 创建一个有界线程池，当线程与队列均已满时，新提交的任务将被拒绝
+     *
+     * @param name 线程名称前缀
+     * @param threads 线程数
+     * @param queueCapacity 队列容量
+     * @return 线程池
+     */
+    public static ThreadPoolExecutor newBoundedExecutor(String name, int threads, int queueCapacity) {
+        Asserts.isTrue(threads > 0, "线程数必须大于0：{}", threads);
+        Asserts.isTrue(queueCapacity > 0, "队列容量必须大于0：{}", queueCapacity);
+        return new ThreadPoolExecutor(
+            threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new DefaultThreadFactory(name, true),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * <p>创建一个为每个任务启动一个虚拟线程的线程池。<br />
+     * 虚拟线程需要JDK21及以上版本，由于项目以JDK17编译，因此通过反射调用
+     * {@code Executors#newVirtualThreadPerTaskExecutor()}。
+     *
+     * @return 线程池，若当前JDK不支持虚拟线程则返回空
+     */
+    public static Optional<ExecutorService> newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService)factory.invoke(null));
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            log.warn("当前JDK[{}]不支持虚拟线程", Runtime.version());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.common.util.Asserts;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>服务隔离策略，用于为服务分配独立的有界线程池，
+ * 使某个服务的执行缓慢或阻塞不会影响同一服务器上的其他服务。
+ *
+ * <p>当独立线程池的线程与队列均已满时，新的请求将立即以过载失败响应，
+ * 而不会进入共享的分发线程池排队。
+ *
+ * @author huangchengxing
+ * @see ServiceExecutors
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class IsolationPolicy {
+
+    /**
+     * 不进行隔离，服务方法将在服务器共享的分发线程池中执行
+     */
+    public static final IsolationPolicy SHARED = new IsolationPolicy(Scope.SHARED, 0, 0);
+
+    /**
+     * 隔离范围
+     */
+    private final Scope scope;
+
+    /**
+     * 线程数
+     */
+    private final int threads;
+
+    /**
+     * 队列容量
+     */
+    private final int queueCapacity;
+
+    /**
+     * 服务内的全部方法共享一个独立的线程池
+     *
+     * @param threads 线程数
+     * @param queueCapacity 队列容量
+     * @return 隔离策略
+     */
+    public static IsolationPolicy perService(int threads, int queueCapacity) {
+        return create(Scope.SERVICE, threads, queueCapacity);
+    }
+
+    /**
+     * 服务内的每个方法各自使用一个独立的线程池
+     *
+     * @param threads 每个方法的线程数
+     * @param queueCapacity 每个方法的队列容量
+     * @return 隔离策略
+     */
+    public static IsolationPolicy perMethod(int threads, int queueCapacity) {
+        return create(Scope.METHOD, threads, queueCapacity);
+    }
+
+    private static IsolationPolicy create(Scope scope, int threads, int queueCapacity) {
+        Asserts.isTrue(threads > 0, "线程数必须大于0：{}", threads);
+        Asserts.isTrue(queueCapacity > 0, "队列容量必须大于0：{}", queueCapacity);
+        return new IsolationPolicy(scope, threads, queueCapacity);
+    }
+
+    /**
+     * 隔离范围
+     *
+     * @author huangchengxing
+     */
+    public enum Scope {
+
+        /**
+         * 不隔离
+         */
+        SHARED,
+
+        /**
+         * 按服务隔离
+         */
+        SERVICE,
+
+        /**
+         * 按方法隔离
+         */
+        METHOD
+    }
+}
@@ -2,13 +2,21 @@ package io.github.createsequence.rpc4j.core.transport.server;
 
 import io.github.createsequence.common.ComponentManager;
 import io.github.createsequence.common.exception.Rpc4jException;
-import io.github.createsequence.common.util.Asserts;
-import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
 import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.ConcurrentLongObjectMap;
+import io.github.createsequence.rpc4j.core.transport.Deadline;
+import io.github.createsequence.rpc4j.core.transport.Handshake;
 import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
 import io.github.createsequence.rpc4j.core.transport.Request;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.channel.EventLoopResources;
+import io.github.createsequence.rpc4j.core.transport.channel.NettyTransport;
+import io.github.createsequence.rpc4j.core.transport.channel.NettyTransports;
+import io.github.createsequence.rpc4j.core.transport.codec.DiscardedMessage;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyDecoder;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
 import io.netty.bootstrap.ServerBootstrap;
@@ -19,17 +27,47 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.GlobalEventExecutor;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
- * 基于Netty的NIO服务器
+ * <p>基于Netty的服务器，底层的IO模型由{@link NettyTransport}决定。
+ *
+ * <p>服务方法不会在IO线程上执行，而是被提交到分发线程池中执行，
+ * 从而避免某个耗时的服务方法阻塞同一事件循环上的其他连接，
+ * 方法执行完毕后，响应将通过连接所在的事件循环写回。
+ *
+ * <p>若服务方法返回{@link Flow.Publisher}或{@link Stream}，则该调用将作为服务端流式调用处理，
+ * 结果中的元素将被逐个写回，发送速度受客户端授予的信用值限制，参见{@link StreamSubscriber}。
+ *
+ * <p>服务停止时，将先通知客户端连接即将关闭，并等待已经收到的请求处理完毕后再释放资源，参见{@link #doStop()}。
  *
  * @author huangchengxing
  */
@@ -37,39 +75,238 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class NettyServer extends AbstractServer {
 
+    /**
+     * 用于标记请求是否已经从{@link #concurrencyLimiter}获得许可的属性
+     */
+    private static final String CONCURRENCY_PERMIT = "concurrencyPermit";
+
     private final ComponentManager componentManager;
     private final RpcInvocationHandler invocationHandler;
 
-    private EventLoopGroup bossGroup;
-    private EventLoopGroup workGroup;
-    private ServerBootstrap bootstrap;
-    private Channel channel;
+    /**
+     * 监听端口的服务端通道，开启端口复用时将存在多个
+     */
+    private final List<Channel> serverChannels = new CopyOnWriteArrayList<>();
+
+    /**
+     * 网络传输实现，默认根据当前环境自动选择，仅在未指定{@link #eventLoopResources}时生效
+     *
+     * @see NettyTransports#getDefault()
+     */
+    @Setter
+    private NettyTransport transport;
+
+    /**
+     * 事件循环资源，若未指定，则服务器将在启动时创建，并在停止时关闭，
+     * 否则服务器停止时不会关闭由外部传入的资源
+     */
+    @Setter
+    private EventLoopResources eventLoopResources;
 
     /**
-     * 启动服务
+     * 事件循环资源是否由服务器自身创建
+     */
+    private boolean ownEventLoopResources = false;
+
+    /**
+     * 用于执行服务方法的分发线程池，若未指定，则在启动时根据{@link #useVirtualThreads}创建，并在停止时关闭，
+     * 指定为{@code Runnable::run}时，服务方法将直接在IO线程上执行
+     */
+    @Setter
+    private Executor dispatchExecutor;
+
+    /**
+     * 方法表，客户端握手时将获得该方法表，此后可以仅通过方法ID发起请求，
+     * 若未指定，则握手时返回空的方法表，客户端将始终通过方法名称发起请求
+     */
+    @Setter
+    private MethodTable methodTable;
+
+    /**
+     * 并发限制器，若已经指定，则请求在执行前需要先获得许可，未获得许可的请求将直接以过载响应拒绝，
+     * 若未指定，则不限制同时处理的请求数
+     *
+     * @see VegasConcurrencyLimiter
+     */
+    @Setter
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * 服务独立线程池，配置了隔离策略的服务将在其独立的线程池中执行，而不是在共享的分发线程池中执行
+     *
+     * @see IsolationPolicy
+     */
+    @Setter
+    private ServiceExecutors serviceExecutors;
+
+    /**
+     * 未指定分发线程池时，是否使用虚拟线程执行服务方法，仅在JDK21及以上版本生效，否则回退到有界线程池
+     */
+    @Setter
+    private boolean useVirtualThreads = false;
+
+    /**
+     * 未指定分发线程池时，有界线程池的线程数
+     */
+    @Setter
+    private int dispatchThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 未指定分发线程池时，有界线程池的队列容量，队列已满时请求将直接以失败响应
+     */
+    @Setter
+    private int dispatchQueueCapacity = 1024;
+
+    /**
+     * 分发线程池是否由服务器自身创建
+     */
+    private boolean ownDispatchExecutor = false;
+
+    /**
+     * 已提交到分发线程池但尚未开始执行的请求数
+     */
+    private final AtomicInteger dispatchQueueSize = new AtomicInteger();
+
+    /**
+     * 停止服务时等待未完成请求处理完毕的最长时间，单位毫秒，超过该时间后将直接关闭全部连接
+     */
+    @Setter
+    private long drainTimeoutMillis = 10_000L;
+
+    /**
+     * 已经接受的客户端连接
+     */
+    private final ChannelGroup clientChannels = new DefaultChannelGroup("rpc4j-server-clients", GlobalEventExecutor.INSTANCE);
+
+    /**
+     * 已经收到但尚未写回响应的请求数
+     */
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /**
+     * 服务是否正在停止，停止期间收到的新请求将被直接拒绝
+     */
+    private volatile boolean draining = false;
+
+    /**
+     * 停止服务期间，未完成的请求全部处理完毕时完成
+     */
+    private volatile CompletableFuture<Void> drained = CompletableFuture.completedFuture(null);
+
+    /**
+     * 连接的最大空闲时间，单位毫秒，超过该时间没有读到任何数据（包括心跳）的连接将被关闭，小于等于0时不检查
+     */
+    @Setter
+    private long readerIdleTimeMillis = 60_000L;
+
+    /**
+     * 是否合并刷新，开启后同一批次读取的请求所产生的响应将只刷新一次
+     *
+     * @see FlushConsolidationHandler
+     */
+    @Setter
+    private boolean flushConsolidation = true;
+
+    /**
+     * 开启合并刷新时，最多合并的刷新次数
+     */
+    @Setter
+    private int explicitFlushAfterFlushes = FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES;
+
+    /**
+     * <p>是否开启端口复用（{@code SO_REUSEPORT}）。<br />
+     * 开启后，服务器将在同一端口上绑定{@link #acceptors}个监听套接字，每个套接字注册在不同的工作事件循环上，
+     * 由内核在它们之间分配新的连接，且新连接将在接受它的事件循环上处理，从而不再依赖单个boss线程接受连接。
+     *
+     * <p>仅在传输实现支持端口复用时生效（例如Linux下的epoll），否则回退为单个监听套接字。
+     *
+     * @see NettyTransport#getReusePortOption()
+     */
+    @Setter
+    private boolean reusePort = false;
+
+    /**
+     * 开启端口复用时，监听套接字的数量，不超过工作事件循环的数量
+     */
+    @Setter
+    private int acceptors = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 启动服务，端口绑定完成后即返回，此时已经可以接受客户端的连接
      */
     @Override
     protected void doStart(String host, int port) {
-        this.bootstrap = prepareServerBootstrap();
+        prepareResources();
+        this.draining = false;
+        ChannelOption<Boolean> reusePortOption = eventLoopResources.getTransport().getReusePortOption();
+        if (reusePort && Objects.isNull(reusePortOption)) {
+            log.warn("传输实现[{}]不支持端口复用，使用单个监听套接字", eventLoopResources.getTransport().getName());
+        }
+        if (reusePort && Objects.nonNull(reusePortOption)) {
+            bindReusePort(host, reusePortOption);
+        } else {
+            bind(prepareServerBootstrap(), host);
+        }
+        log.info("netty服务器开始监听端口[{}]，监听套接字数量为[{}]......", getPort(), serverChannels.size());
+    }
+
+    private void bindReusePort(String host, ChannelOption<Boolean> reusePortOption) {
+        int count = 0;
+        for (EventExecutor executor : eventLoopResources.getWorkerGroup()) {
+            if (count++ >= acceptors) {
+                break;
+            }
+            // 监听套接字与其接受的连接注册在同一个事件循环上
+            EventLoop eventLoop = (EventLoop)executor;
+            ServerBootstrap serverBootstrap = prepareServerBootstrap(eventLoop, eventLoop)
+                .option(reusePortOption, true);
+            bind(serverBootstrap, host);
+        }
+    }
+
+    private void bind(ServerBootstrap serverBootstrap, String host) {
         try {
-            // 绑定端口，绑定后即服务启动，此时可以接受客户端的连接
-            ChannelFuture future = bootstrap.bind(host, getPort()).sync();
-            // 等待服务端监听端口关闭
-            this.channel = future.channel();
-            log.info("netty服务器开始监听端口[{}]......", getPort());
-            this.channel.closeFuture().sync();
+            ChannelFuture future = serverBootstrap.bind(host, getPort()).sync();
+            serverChannels.add(future.channel());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new Rpc4jException(e);
         }
     }
 
+    private void prepareResources() {
+        if (Objects.isNull(dispatchExecutor)) {
+            this.dispatchExecutor = createDispatchExecutor();
+            this.ownDispatchExecutor = true;
+        }
+        if (Objects.isNull(eventLoopResources)) {
+            NettyTransport nettyTransport = Objects.isNull(transport) ? NettyTransports.getDefault() : transport;
+            this.eventLoopResources = new EventLoopResources(nettyTransport, Runtime.getRuntime().availableProcessors());
+            this.ownEventLoopResources = true;
+        }
+        log.info("netty服务器使用[{}]作为网络传输实现", eventLoopResources.getTransport().getName());
+    }
+
+    /**
+     * 创建使用boss事件循环组接受连接，并使用工作事件循环组处理连接的启动器
+     *
+     * @return 启动器
+     */
     protected ServerBootstrap prepareServerBootstrap() {
-        this.bossGroup = new NioEventLoopGroup();
-        this.workGroup = new NioEventLoopGroup();
-        bootstrap = new ServerBootstrap();
-        bootstrap.group(bossGroup, workGroup)
-            .channel(NioServerSocketChannel.class)
+        return prepareServerBootstrap(eventLoopResources.getBossGroup(), eventLoopResources.getWorkerGroup());
+    }
+
+    /**
+     * 创建启动器
+     *
+     * @param parentGroup 用于接受连接的事件循环组
+     * @param childGroup 用于处理连接的事件循环组
+     * @return 启动器
+     */
+    protected ServerBootstrap prepareServerBootstrap(EventLoopGroup parentGroup, EventLoopGroup childGroup) {
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        bootstrap.group(parentGroup, childGroup)
+            .channel(eventLoopResources.getTransport().getServerSocketChannelClass())
             // TCP默认开启了 Nagle 算法，该算法的作用是尽可能的发送大数据快，减少网络传输。TCP_NODELAY 参数的作用就是控制是否启用 Nagle 算法。
             .childOption(ChannelOption.TCP_NODELAY, true)
             // 是否开启 TCP 底层心跳机制
@@ -81,6 +318,13 @@ public class NettyServer extends AbstractServer {
                 @Override
                 protected void initChannel(SocketChannel ch) {
                     ChannelPipeline pipeline = ch.pipeline();
+                    if (readerIdleTimeMillis > 0) {
+                        pipeline.addLast(new IdleStateHandler(readerIdleTimeMillis, 0, 0, TimeUnit.MILLISECONDS));
+                    }
+                    // 读取期间的刷新将推迟到channelReadComplete时进行，异步返回的响应同样将被合并刷新
+                    if (flushConsolidation) {
+                        pipeline.addLast(new FlushConsolidationHandler(explicitFlushAfterFlushes, true));
+                    }
                     pipeline.addLast(new Rpc4jNettyEncoder(componentManager));
                     pipeline.addLast(new Rpc4jNettyDecoder(componentManager));
                     pipeline.addLast(new ServerInboundHandler());
@@ -90,19 +334,23 @@ public class NettyServer extends AbstractServer {
     }
 
     /**
-     * 准备RPC调用上下文
+     * 准备RPC调用上下文，此时请求数据尚未反序列化，参见{@link RequestInvocation}
      *
      * @param message 消息
-     * @param request 请求
+     * @param signature 方法ID对应的方法签名，若请求未携带方法ID则为{@code null}
      * @return RPC调用上下文
      */
-    protected RpcInvocation prepareRpcInvocation(Message<?> message, Request request) {
-        RpcInvocation rpcInvocation = new DefaultInvocation(
-            Collections.emptyList(),
-            request.getTargetName(), request.getMethodName(),
-            request.getParameterTypes(), request.getArguments()
-        );
-        rpcInvocation.setAttribute(Attributes.REQUEST_ID, request.getRequestId());
+    protected RpcInvocation prepareRpcInvocation(Message<?> message, MethodTable.@Nullable MethodSignature signature) {
+        RpcInvocation rpcInvocation = new RequestInvocation(message, signature);
+        rpcInvocation.setAttribute(Attributes.REQUEST_ID, message.getRequestId());
+        long receivedTime = System.nanoTime();
+        rpcInvocation.setAttribute(Attributes.REQUEST_RECEIVED_TIME, receivedTime);
+        // 根据超时预算计算截止时间
+        if (message.getTimeout() > Rpc4jProtocol.NO_TIMEOUT) {
+            rpcInvocation.setAttribute(
+                Attributes.REQUEST_DEADLINE, Deadline.after(receivedTime, message.getTimeout(), TimeUnit.MILLISECONDS)
+            );
+        }
 
         // 响应头消息
         rpcInvocation.setAttribute(Attributes.SERIALIZATION_TYPE, message.getSerializationType());
@@ -112,50 +360,408 @@ public class NettyServer extends AbstractServer {
     }
 
     /**
-     * 停止服务
+     * 若请求通过方法ID指定要调用的方法，则从方法表中获取对应的方法签名
+     *
+     * @param message 消息
+     * @return 方法签名，若请求未携带方法ID，或方法ID未知则返回{@code null}
+     */
+    protected MethodTable.@Nullable MethodSignature resolveMethodSignature(Message<?> message) {
+        if (message.getMethodId() == MethodTable.NO_METHOD_ID || Objects.isNull(methodTable)) {
+            return null;
+        }
+        return methodTable.getSignature(message.getMethodId());
+    }
+
+    /**
+     * 获取已提交到分发线程池但尚未开始执行的请求数
+     *
+     * @return 请求数
+     */
+    public int getDispatchQueueSize() {
+        return dispatchQueueSize.get();
+    }
+
+    /**
+     * 创建默认的分发线程池
+     *
+     * @return 线程池
+     */
+    protected Executor createDispatchExecutor() {
+        if (useVirtualThreads) {
+            var executor = DispatchExecutors.newVirtualThreadExecutor();
+            if (executor.isPresent()) {
+                log.info("netty服务器使用虚拟线程执行服务方法");
+                return executor.get();
+            }
+        }
+        log.info("netty服务器使用有界线程池执行服务方法，线程数[{}]，队列容量[{}]", dispatchThreads, dispatchQueueCapacity);
+        return DispatchExecutors.newBoundedExecutor("rpc4j-server-dispatcher", dispatchThreads, dispatchQueueCapacity);
+    }
+
+    /**
+     * 获取已经收到但尚未写回响应的请求数
+     *
+     * @return 请求数
+     */
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    /**
+     * 获取当前监听端口的套接字数量，未开启端口复用时至多为1
+     *
+     * @return 套接字数量
+     */
+    public int getListeningChannelCount() {
+        return serverChannels.size();
+    }
+
+    /**
+     * <p>停止服务，停止过程分为以下几步：
+     * <ol>
+     *     <li>关闭监听端口，不再接受新的连接，此后在已有连接上收到的请求也将被直接拒绝；</li>
+     *     <li>通过{@link Rpc4jProtocol.MessageType#GOAWAY}通知全部客户端连接即将关闭，不要再发送新的请求；</li>
+     *     <li>等待已经收到的请求处理完毕，最多等待{@link #drainTimeoutMillis}；</li>
+     *     <li>关闭全部客户端连接，并释放分发线程池与事件循环资源；</li>
+     * </ol>
      */
     @Override
     public void doStop() {
-        channel.close();
-        channel.closeFuture();
-        workGroup.shutdownGracefully();
-        bossGroup.shutdownGracefully();
+        drained = new CompletableFuture<>();
+        draining = true;
+        serverChannels.forEach(serverChannel -> serverChannel.close().syncUninterruptibly());
+        serverChannels.clear();
+        if (!clientChannels.isEmpty()) {
+            clientChannels.writeAndFlush(Message.goAway());
+            awaitInFlightRequests();
+            clientChannels.close().awaitUninterruptibly();
+        }
+        if (ownDispatchExecutor && dispatchExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            dispatchExecutor = null;
+            ownDispatchExecutor = false;
+        }
+        if (ownEventLoopResources) {
+            eventLoopResources.close();
+            eventLoopResources = null;
+            ownEventLoopResources = false;
+        }
+    }
+
+    private void awaitInFlightRequests() {
+        // 进入停止状态前请求可能已经全部完成，此时不会再有请求去完成该回调
+        if (inFlightRequests.get() == 0) {
+            drained.complete(null);
+        }
+        try {
+            drained.get(drainTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // 等待超时后直接关闭连接
+        }
+        if (inFlightRequests.get() > 0) {
+            log.warn("netty服务器停止时仍有[{}]个请求未处理完毕", inFlightRequests.get());
+        }
     }
 
     /**
-     * 服务端入站请求处理器，目前仅可能收到{@link Request}请求
+     * 服务端入站请求处理器，目前仅可能收到{@link Request}请求、心跳或握手请求
      *
      * @author huangchengxing
      */
     @RequiredArgsConstructor
     public class ServerInboundHandler extends ChannelInboundHandlerAdapter {
 
+        /**
+         * 当前连接上尚未结束的服务端流式调用，以请求ID为键
+         */
+        private final ConcurrentLongObjectMap<StreamSubscriber> streams = new ConcurrentLongObjectMap<>();
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            clientChannels.add(ctx.channel());
+            super.channelActive(ctx);
+        }
+
         @Override
         public void channelRead(ChannelHandlerContext ctx, Object target) {
             if (target instanceof Message<?> message
-                && message.getPayload() instanceof Request request) {
+                && message.is(Rpc4jProtocol.MessageType.HEARTBEAT_PING)) {
+                ctx.writeAndFlush(Message.heartbeat(Rpc4jProtocol.MessageType.HEARTBEAT_PONG, message.getRequestId()));
+                return;
+            }
+            if (target instanceof Message<?> message
+                && message.is(Rpc4jProtocol.MessageType.HANDSHAKE_REQUEST)) {
+                Handshake handshake = new Handshake(Objects.isNull(methodTable) ? Map.of() : methodTable.getMethodIds());
+                ctx.writeAndFlush(Message.handshake(Rpc4jProtocol.MessageType.HANDSHAKE_RESPONSE, handshake));
+                return;
+            }
+            // 请求数据将在业务线程中反序列化，IO线程仅根据报文头部完成校验与分发
+            if (target instanceof Message<?> message
+                && message.is(Rpc4jProtocol.MessageType.RPC_REQUEST)) {
                 log.info("服务端收到消息：{}", message);
-                Asserts.isNotNull(request, "请求参数为空！");
-                log.info("服务端处理请求，请求ID为[{}]", request.getRequestId());
-                RpcInvocation rpcInvocation = prepareRpcInvocation(message, request);
-                handle(ctx, rpcInvocation);
+                log.info("服务端处理请求，请求ID为[{}]", message.getRequestId());
+                inFlightRequests.incrementAndGet();
+                MethodTable.MethodSignature signature = resolveMethodSignature(message);
+                RpcInvocation rpcInvocation = prepareRpcInvocation(message, signature);
+                if (draining) {
+                    writeResponse(ctx, rpcInvocation, ResponseToMessageHandler.createResponseMessage(
+                        rpcInvocation, Response.fail("服务端正在停止，请求被拒绝")
+                    ), false);
+                    return;
+                }
+                if (message.getMethodId() != MethodTable.NO_METHOD_ID && Objects.isNull(signature)) {
+                    log.warn("服务端收到未知的方法ID[{}]，请求ID为[{}]", message.getMethodId(), message.getRequestId());
+                    writeResponse(ctx, rpcInvocation, ResponseToMessageHandler.createResponseMessage(
+                        rpcInvocation, Response.unknownMethod("未知的方法ID：" + message.getMethodId())
+                    ), false);
+                    return;
+                }
+                if (!tryAcquirePermit(rpcInvocation)) {
+                    log.warn("服务端并发请求数已达上限[{}]，拒绝请求，请求ID为[{}]",
+                        concurrencyLimiter.getLimit(), message.getRequestId());
+                    writeResponse(ctx, rpcInvocation, ResponseToMessageHandler.createResponseMessage(
+                        rpcInvocation, Response.overloaded("服务端并发请求数已达上限，请求被拒绝")
+                    ), false);
+                    return;
+                }
+                dispatch(ctx, rpcInvocation);
+                return;
+            }
+            // 请求数据超出长度上限而被解码器丢弃，直接以失败响应拒绝，避免客户端等待至超时
+            if (target instanceof DiscardedMessage discarded
+                && discarded.is(Rpc4jProtocol.MessageType.RPC_REQUEST)) {
+                log.warn("服务端丢弃数据长度超出上限的请求，请求ID为[{}]", discarded.requestId());
+                ctx.writeAndFlush(new Message<>(
+                    discarded.version(), Rpc4jProtocol.MessageType.RPC_RESPONSE.getCode(),
+                    discarded.serializationType(), discarded.compressionType(),
+                    discarded.requestId(), MethodTable.NO_METHOD_ID, Response.fail("请求数据长度超过上限，请求被拒绝")
+                ));
+                return;
+            }
+            if (target instanceof Message<?> message
+                && message.is(Rpc4jProtocol.MessageType.STREAM_CREDIT)) {
+                StreamSubscriber subscriber = streams.get(message.getRequestId());
+                Integer credit = (Integer)message.getPayload();
+                if (Objects.nonNull(subscriber) && Objects.nonNull(credit)) {
+                    subscriber.addCredit(credit);
+                }
+                return;
+            }
+            if (target instanceof Message<?> message
+                && message.is(Rpc4jProtocol.MessageType.STREAM_CANCEL)) {
+                StreamSubscriber subscriber = streams.remove(message.getRequestId());
+                if (Objects.nonNull(subscriber)) {
+                    log.info("客户端取消流式调用，请求ID为[{}]", message.getRequestId());
+                    subscriber.cancel();
+                }
+                return;
+            }
+            // 未被处理的消息不会再被读取，直接释放其原始数据
+            if (target instanceof Message<?> message) {
+                message.releasePayload();
+            }
+        }
+
+        /**
+         * 分发请求，若请求通过方法名称指定要调用的方法，则需要反序列化请求数据后才能确定其所属的服务，
+         * 此时将先提交到分发线程池，再在其中选择服务的独立线程池，从而避免在IO线程中反序列化请求数据
+         *
+         * @param ctx 上下文
+         * @param rpcInvocation 调用参数
+         */
+        private void dispatch(ChannelHandlerContext ctx, RpcInvocation rpcInvocation) {
+            boolean methodResolved = !(rpcInvocation instanceof RequestInvocation requestInvocation)
+                || requestInvocation.isMethodResolved();
+            Executor isolatedExecutor = methodResolved ? selectIsolatedExecutor(rpcInvocation) : null;
+            if (Objects.nonNull(isolatedExecutor)) {
+                dispatchIsolated(ctx, rpcInvocation, isolatedExecutor);
+                return;
+            }
+            dispatchQueueSize.incrementAndGet();
+            try {
+                dispatchExecutor.execute(() -> {
+                    dispatchQueueSize.decrementAndGet();
+                    Executor executor = methodResolved ? null : selectIsolatedExecutor(rpcInvocation);
+                    if (Objects.nonNull(executor)) {
+                        dispatchIsolated(ctx, rpcInvocation, executor);
+                        return;
+                    }
+                    handle(ctx, rpcInvocation);
+                });
+            } catch (RejectedExecutionException ex) {
+                dispatchQueueSize.decrementAndGet();
+                log.warn("服务端分发线程池已满，拒绝请求，请求ID为[{}]", rpcInvocation.<Long>getAttribute(Attributes.REQUEST_ID));
+                writeResponse(ctx, rpcInvocation, ResponseToMessageHandler.createResponseMessage(
+                    rpcInvocation, Response.overloaded("服务端繁忙，请求被拒绝")
+                ), false);
+            }
+        }
+
+        @Nullable
+        private Executor selectIsolatedExecutor(RpcInvocation rpcInvocation) {
+            return Objects.isNull(serviceExecutors) ? null : serviceExecutors.select(rpcInvocation);
+        }
+
+        private void dispatchIsolated(ChannelHandlerContext ctx, RpcInvocation rpcInvocation, Executor executor) {
+            try {
+                executor.execute(() -> handle(ctx, rpcInvocation));
+            } catch (RejectedExecutionException ex) {
+                log.warn("服务[{}]的独立线程池已满，拒绝请求，请求ID为[{}]",
+                    rpcInvocation.getTargetName(), rpcInvocation.<Long>getAttribute(Attributes.REQUEST_ID));
+                writeResponse(ctx, rpcInvocation, ResponseToMessageHandler.createResponseMessage(
+                    rpcInvocation, Response.overloaded("服务[" + rpcInvocation.getTargetName() + "]繁忙，请求被拒绝")
+                ), false);
             }
         }
 
         private void handle(ChannelHandlerContext ctx, RpcInvocation rpcInvocation) {
-            // 完成调用
+            // 请求在排队期间已经超过截止时间，客户端已经放弃等待，直接丢弃而不再执行
+            Deadline deadline = rpcInvocation.getAttribute(Attributes.REQUEST_DEADLINE);
+            if (Objects.nonNull(deadline) && deadline.isExpired()) {
+                log.warn("服务端请求已经超过截止时间，丢弃请求，请求ID为[{}]", rpcInvocation.<Long>getAttribute(Attributes.REQUEST_ID));
+                completeRequest(rpcInvocation, false);
+                return;
+            }
+            // 完成调用，调用期间截止时间将绑定到当前线程，以便服务方法中发起的调用继承剩余的超时时间
+            Deadline previous = Deadline.attach(deadline);
             try {
                 Object response = invocationHandler.invoke(rpcInvocation);
-                if (ctx.channel().isActive() || ctx.channel().isWritable()) {
-                    ctx.writeAndFlush(response);
-                    log.info("服务端返回响应数据，请求ID为[{}]", rpcInvocation.<String>getAttribute(Attributes.REQUEST_ID));
-                } else {
-                    throw new Rpc4jException("服务端通道不可用");
+                if (response instanceof Stream<?> stream) {
+                    response = new StreamPublisher<>(stream, dispatchExecutor);
+                }
+                if (response instanceof Flow.Publisher<?> publisher) {
+                    subscribe(ctx, rpcInvocation, publisher);
+                    return;
                 }
+                // 若服务以异步的方式返回结果，则在任务完成后再写回响应
+                if (response instanceof CompletableFuture<?> future) {
+                    future.whenComplete((resp, ex) -> {
+                        if (Objects.nonNull(ex)) {
+                            completeRequest(rpcInvocation, false);
+                            log.error("服务端请求处理异常！", ex);
+                            return;
+                        }
+                        writeResponse(ctx, rpcInvocation, resp, true);
+                    });
+                    return;
+                }
+                writeResponse(ctx, rpcInvocation, response, true);
             } catch (Throwable ex) {
+                completeRequest(rpcInvocation, false);
                 ex.printStackTrace();
                 log.error("服务端请求处理异常！", ex);
+            } finally {
+                Deadline.restore(previous);
+            }
+        }
+
+        /**
+         * 订阅服务方法返回的发布者，流结束前请求将始终被视为未完成
+         *
+         * @param ctx 上下文
+         * @param rpcInvocation 调用参数
+         * @param publisher 发布者
+         */
+        private void subscribe(ChannelHandlerContext ctx, RpcInvocation rpcInvocation, Flow.Publisher<?> publisher) {
+            long requestId = rpcInvocation.getAttribute(Attributes.REQUEST_ID);
+            // 流的持续时间取决于客户端的消费速度，因此不将其用于调整并发上限
+            StreamSubscriber subscriber = new StreamSubscriber(ctx, rpcInvocation, () -> {
+                streams.remove(requestId);
+                completeRequest(rpcInvocation, false);
+            });
+            streams.put(requestId, subscriber);
+            publisher.subscribe(subscriber);
+        }
+
+        /**
+         * 写回响应并完成请求
+         *
+         * @param ctx 上下文
+         * @param rpcInvocation 调用参数
+         * @param response 响应
+         * @param success 请求是否经过正常处理，被拒绝的请求的耗时不能反映服务端的处理能力，不会被用于调整并发上限
+         */
+        private void writeResponse(ChannelHandlerContext ctx, RpcInvocation rpcInvocation, Object response, boolean success) {
+            // 响应总是通过连接所在的事件循环写回
+            if (!ctx.executor().inEventLoop()) {
+                ctx.executor().execute(() -> writeResponse(ctx, rpcInvocation, response, success));
+                return;
+            }
+            completeRequest(rpcInvocation, success);
+            if (ctx.channel().isActive() || ctx.channel().isWritable()) {
+                ctx.writeAndFlush(response).addListener(future -> {
+                    // 响应无法编码时（如数据长度超过上限），改为返回失败响应，避免客户端等待至超时
+                    if (!future.isSuccess() && ctx.channel().isActive()
+                        && response instanceof Message<?> message && message.is(Rpc4jProtocol.MessageType.RPC_RESPONSE)) {
+                        log.error("服务端写回响应失败，请求ID为[{}]", message.getRequestId(), future.cause());
+                        ctx.writeAndFlush(ResponseToMessageHandler.createResponseMessage(
+                            rpcInvocation, Response.fail("服务端写回响应失败：" + future.cause().getMessage())
+                        ));
+                    }
+                });
+                log.info("服务端返回响应数据，请求ID为[{}]", rpcInvocation.<Long>getAttribute(Attributes.REQUEST_ID));
+            } else {
+                log.error("服务端通道不可用，请求ID为[{}]", rpcInvocation.<Long>getAttribute(Attributes.REQUEST_ID));
+            }
+        }
+
+        private boolean tryAcquirePermit(RpcInvocation rpcInvocation) {
+            if (Objects.isNull(concurrencyLimiter)) {
+                return true;
+            }
+            if (concurrencyLimiter.tryAcquire()) {
+                rpcInvocation.setAttribute(CONCURRENCY_PERMIT, Boolean.TRUE);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 完成请求，若请求已经获得并发许可，则归还许可并反馈处理耗时
+         *
+         * @param rpcInvocation 调用参数
+         * @param success 请求是否正常完成，异常结束的请求的耗时不会被用于调整并发上限
+         */
+        private void completeRequest(RpcInvocation rpcInvocation, boolean success) {
+            if (inFlightRequests.decrementAndGet() == 0 && draining) {
+                drained.complete(null);
+            }
+            // 被拒绝的请求，或调用过程中未读取参数的请求，其原始数据需要在此释放
+            if (rpcInvocation instanceof RequestInvocation requestInvocation) {
+                requestInvocation.releaseRequest();
+            }
+            if (Objects.nonNull(concurrencyLimiter) && Boolean.TRUE.equals(rpcInvocation.getAttribute(CONCURRENCY_PERMIT))) {
+                long receivedTime = rpcInvocation.getAttribute(Attributes.REQUEST_RECEIVED_TIME);
+                concurrencyLimiter.release(success ? System.nanoTime() - receivedTime : 0L);
+            }
+        }
+
+        @Override
+        public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            // 通道恢复可写后，继续向发布者请求因通道不可写而暂存的信用
+            if (ctx.channel().isWritable() && !streams.isEmpty()) {
+                streams.values().forEach(StreamSubscriber::requestPendingCredit);
+            }
+            super.channelWritabilityChanged(ctx);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            // 连接已经断开，尚未结束的流无法再写回，直接取消
+            streams.drain().forEach(StreamSubscriber::cancel);
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt instanceof IdleStateEvent) {
+                log.info("服务端连接[{}]空闲时间过长，关闭连接", ctx.channel().id());
+                ctx.close();
+                return;
             }
+            super.userEventTriggered(ctx, evt);
         }
 
         @Override
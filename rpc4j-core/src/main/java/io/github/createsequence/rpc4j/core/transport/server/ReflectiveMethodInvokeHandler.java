@@ -1,19 +1,32 @@
 package io.github.createsequence.rpc4j.core.transport.server;
 
+import io.github.createsequence.common.exception.Rpc4jException;
 import io.github.createsequence.common.util.Asserts;
 import io.github.createsequence.common.util.ClassUtils;
 import io.github.createsequence.common.util.ReflectUtils;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 服务端请求处理器，用于将请求转发到服务端的指定服务
+ * <p>服务端请求处理器，用于将请求转发到服务端的指定服务。
+ *
+ * <p>注册服务时，将为服务接口中的每个方法预先创建一个绑定到服务实例的{@link MethodHandle}，
+ * 并以方法签名为key组织为调用表，处理请求时只需查表后直接调用，
+ * 而无需每次都加载服务类型、查找方法并通过反射调用。
+ * 若请求携带了方法ID，则直接以方法表中的方法签名查表，整个过程只需一次哈希查找。<br />
+ * 未注册的服务将在第一次被调用时尝试通过反射创建实例，并将其方法加入调用表。
  *
  * @author huangchengxing
  */
@@ -22,8 +35,19 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ReflectiveMethodInvokeHandler implements RpcInvocationHandler {
 
     private static final Object MISSING_SERVICE = new Object();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
     private final Map<Class<?>, Object> registeredServices = new ConcurrentHashMap<>();
 
+    /**
+     * 方法调用表，key为方法签名
+     */
+    private final Map<MethodTable.MethodSignature, MethodInvoker> methodInvokers = new ConcurrentHashMap<>();
+
+    /**
+     * 已经将方法加入调用表的服务类型全限定名
+     */
+    private final Set<String> loadedServices = ConcurrentHashMap.newKeySet();
+
     /**
      * 发送请求
      *
@@ -32,18 +56,15 @@ public class ReflectiveMethodInvokeHandler implements RpcInvocationHandler {
      */
     @Override
     public Object invoke(RpcInvocation rpcInvocation) {
-        // 获取要调用的方法
-        Class<?> serviceType = ClassUtils.forName(rpcInvocation.getTargetName());
-        Method method = ReflectUtils.getMethod(
-            serviceType, rpcInvocation.getMethodName(), rpcInvocation.getParameterTypes()
-        );
-        Asserts.isNotNull(method, "要调用的方法不存在：{}", rpcInvocation.getMethodName());
-
-        // 获取要调用的对象
-        Object service = getService(serviceType);
-        Asserts.isNotNull(service, "要调用的服务不存在：{}", rpcInvocation.getTargetName());
+        MethodTable.MethodSignature signature = RequestInvocation.signatureOf(rpcInvocation);
+        MethodInvoker methodInvoker = methodInvokers.get(signature);
+        if (Objects.isNull(methodInvoker) && !loadedServices.contains(signature.targetName())) {
+            loadService(signature.targetName());
+            methodInvoker = methodInvokers.get(signature);
+        }
+        Asserts.isNotNull(methodInvoker, "要调用的方法不存在：{}", signature);
         // 调用方法
-        return ReflectUtils.invoke(service, method, rpcInvocation.getArguments());
+        return methodInvoker.invoke(rpcInvocation.getArguments());
     }
 
     /**
@@ -52,8 +73,10 @@ public class ReflectiveMethodInvokeHandler implements RpcInvocationHandler {
      * @param serviceType 服务类型
      * @param service 服务实例
      */
-    public void registerService(Class<?> serviceType, Object service) {
+    public synchronized void registerService(Class<?> serviceType, Object service) {
         registeredServices.put(serviceType, service);
+        removeMethodInvokers(serviceType.getName());
+        putMethodInvokers(serviceType, service);
     }
 
     /**
@@ -61,8 +84,9 @@ public class ReflectiveMethodInvokeHandler implements RpcInvocationHandler {
      *
      * @param serviceType 服务类型
      */
-    public void unregisterService(Class<?> serviceType) {
+    public synchronized void unregisterService(Class<?> serviceType) {
         registeredServices.put(serviceType, MISSING_SERVICE);
+        removeMethodInvokers(serviceType.getName());
     }
 
     /**
@@ -93,4 +117,65 @@ public class ReflectiveMethodInvokeHandler implements RpcInvocationHandler {
         }
         return MISSING_SERVICE;
     }
+
+    private synchronized void loadService(String targetName) {
+        if (loadedServices.contains(targetName)) {
+            return;
+        }
+        Class<?> serviceType = ClassUtils.forName(targetName);
+        Object service = getService(serviceType);
+        Asserts.isNotNull(service, "要调用的服务不存在：{}", targetName);
+        putMethodInvokers(serviceType, service);
+    }
+
+    private void putMethodInvokers(Class<?> serviceType, Object service) {
+        String targetName = serviceType.getName();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Method method : serviceType.getMethods()) {
+            MethodTable.MethodSignature signature = new MethodTable.MethodSignature(
+                targetName, method.getName(), method.getParameterTypes()
+            );
+            methodInvokers.put(signature, MethodInvoker.create(lookup, method, service));
+        }
+        // 先加入调用表再标记，使未加锁的读取方在看到标记时总能查到调用器
+        loadedServices.add(targetName);
+    }
+
+    private void removeMethodInvokers(String targetName) {
+        loadedServices.remove(targetName);
+        methodInvokers.keySet().removeIf(signature -> signature.targetName().equals(targetName));
+    }
+
+    /**
+     * 方法调用器
+     *
+     * @param method 方法
+     * @param handle 已经绑定服务实例，且接受{@code Object[]}参数并返回{@code Object}的方法句柄
+     */
+    private record MethodInvoker(Method method, MethodHandle handle) {
+
+        static MethodInvoker create(MethodHandles.Lookup lookup, Method method, Object service) {
+            ReflectUtils.setAccessible(method);
+            try {
+                MethodHandle handle = lookup.unreflect(method)
+                    .bindTo(service)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+                return new MethodInvoker(method, handle);
+            } catch (IllegalAccessException ex) {
+                Rpc4jException exception = new Rpc4jException("无法为方法[{}]创建调用器", method);
+                exception.initCause(ex);
+                throw exception;
+            }
+        }
+
+        Object invoke(Object[] arguments) {
+            Object[] actualArguments = ReflectUtils.resolveMethodInvocationArguments(method, arguments);
+            try {
+                return (Object)handle.invokeExact(actualArguments);
+            } catch (Throwable ex) {
+                throw new Rpc4jException(ex);
+            }
+        }
+    }
 }
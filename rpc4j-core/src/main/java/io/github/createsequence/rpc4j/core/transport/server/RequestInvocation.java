@@ -0,0 +1,131 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
+import io.github.createsequence.rpc4j.core.transport.Request;
+import lombok.RequiredArgsConstructor;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>服务端根据请求消息创建的调用。
+ *
+ * <p>请求的数据仅在第一次获取调用的方法信息或参数时才会反序列化，
+ * 若请求通过方法ID指定了要调用的方法，则方法信息直接取自方法表，只有获取参数时才需要反序列化数据。
+ * 因此在IO线程中创建调用并检查请求头部，而在业务线程中完成反序列化与方法调用。
+ *
+ * @author huangchengxing
+ * @see Message#getPayload()
+ */
+@RequiredArgsConstructor
+class RequestInvocation implements RpcInvocation {
+
+    /**
+     * 请求消息
+     */
+    private final Message<?> message;
+
+    /**
+     * 方法ID对应的方法签名，若请求未携带方法ID则为{@code null}
+     */
+    private final MethodTable.@Nullable MethodSignature signature;
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    @Override
+    public List<RemoteAddress> getRemoteAddresses() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getTargetName() {
+        return Objects.nonNull(signature) ? signature.targetName() : getRequest().getTargetName();
+    }
+
+    @Override
+    public String getMethodName() {
+        return Objects.nonNull(signature) ? signature.methodName() : getRequest().getMethodName();
+    }
+
+    @Override
+    public Class<?>[] getParameterTypes() {
+        return Objects.nonNull(signature) ? signature.parameterTypes() : getRequest().getParameterTypes();
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return getRequest().getArguments();
+    }
+
+    /**
+     * 获取方法ID对应的方法签名
+     *
+     * @return 方法签名，若请求未携带方法ID则为{@code null}
+     */
+    public MethodTable.@Nullable MethodSignature getSignature() {
+        return signature;
+    }
+
+    /**
+     * 是否无需反序列化请求数据即可获取要调用的方法信息
+     *
+     * @return 是否
+     */
+    public boolean isMethodResolved() {
+        return Objects.nonNull(signature);
+    }
+
+    /**
+     * 获取调用的方法签名，若调用为请求携带了方法ID的{@link RequestInvocation}，
+     * 则直接复用方法表中的方法签名，而无需再创建新的签名
+     *
+     * @param rpcInvocation 调用
+     * @return 方法签名
+     */
+    static MethodTable.MethodSignature signatureOf(RpcInvocation rpcInvocation) {
+        if (rpcInvocation instanceof RequestInvocation requestInvocation && requestInvocation.isMethodResolved()) {
+            return requestInvocation.signature;
+        }
+        return new MethodTable.MethodSignature(
+            rpcInvocation.getTargetName(), rpcInvocation.getMethodName(), rpcInvocation.getParameterTypes()
+        );
+    }
+
+    /**
+     * 若请求数据尚未反序列化，则直接释放原始数据
+     */
+    public void releaseRequest() {
+        message.releasePayload();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public <T> T getAttribute(String name) {
+        return (T)attributes.get(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public <T> T getAttribute(String name, T defaultValue) {
+        return (T)attributes.getOrDefault(name, defaultValue);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        attributes.put(name, value);
+    }
+
+    private Request getRequest() {
+        Request request = (Request)message.getPayload();
+        return Objects.isNull(request) ? new Request() : request;
+    }
+}
@@ -0,0 +1,200 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.rpc4j.core.compress.Compressor;
+import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
+import io.github.createsequence.rpc4j.core.support.service.Cacheable;
+import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.EncodedPayload;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>服务端响应缓存处理器，用于缓存{@link Cacheable}方法已经完成序列化与压缩的响应数据。
+ *
+ * <p>缓存以方法为单位，每个方法拥有一个按{@link Cacheable}配置了有效期与容量的缓存，
+ * 缓存的key由请求的序列化方式、压缩方式与方法参数组成，value为{@link EncodedPayload}。
+ * 命中缓存时，将直接使用缓存的数据构建响应消息，既不会调用方法，也不会再经过编码器中的序列化与压缩；
+ * 未命中时，将在调用完成后对成功的响应进行编码，并将编码后的数据写入缓存。
+ *
+ * <p>该处理器需要位于{@link ResponseToMessageHandler}之前，即委托对象的返回值应当为响应消息。
+ *
+ * @author huangchengxing
+ * @see Cacheable
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ResponseCacheHandler implements RpcInvocationHandler {
+
+    private final ComponentManager componentManager;
+
+    /**
+     * 委托对象
+     */
+    @Getter
+    private final RpcInvocationHandler delegate;
+
+    /**
+     * 方法缓存，key为方法签名
+     */
+    private final Map<MethodTable.MethodSignature, Cache<CacheKey, EncodedPayload>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * <p>获取排序值。<br />
+     * 值越小，对象的优先级越高。
+     *
+     * @return 排序值
+     */
+    @Override
+    public int getOrder() {
+        return delegate.getOrder();
+    }
+
+    /**
+     * 为服务中声明了{@link Cacheable}的方法创建缓存，若服务已经注册，则原有的缓存将被丢弃
+     *
+     * @param serviceType 服务类型
+     * @param service 服务实例
+     */
+    public void register(Class<?> serviceType, Object service) {
+        unregister(serviceType);
+        String targetName = serviceType.getName();
+        for (Method method : serviceType.getMethods()) {
+            Cacheable cacheable = findCacheable(method, service);
+            if (Objects.isNull(cacheable)) {
+                continue;
+            }
+            Cache<CacheKey, EncodedPayload> cache = CacheBuilder.newBuilder()
+                .maximumSize(cacheable.maximumSize())
+                .expireAfterWrite(cacheable.ttl(), cacheable.timeUnit())
+                .build();
+            MethodTable.MethodSignature signature = new MethodTable.MethodSignature(
+                targetName, method.getName(), method.getParameterTypes()
+            );
+            caches.put(signature, cache);
+            log.info("为方法[{}]开启响应缓存，有效期[{} {}]，最大容量[{}]",
+                signature, cacheable.ttl(), cacheable.timeUnit().name().toLowerCase(), cacheable.maximumSize());
+        }
+    }
+
+    /**
+     * 移除服务中全部方法的缓存
+     *
+     * @param serviceType 服务类型
+     */
+    public void unregister(Class<?> serviceType) {
+        String targetName = serviceType.getName();
+        caches.entrySet().removeIf(entry -> {
+            if (entry.getKey().targetName().equals(targetName)) {
+                entry.getValue().invalidateAll();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 执行方法调用，若方法开启了响应缓存且缓存命中，则直接返回缓存的响应
+     *
+     * @param rpcInvocation 调用参数
+     * @return 响应消息
+     * @throws Throwable 异常
+     */
+    @Override
+    public Object invoke(RpcInvocation rpcInvocation) throws Throwable {
+        if (caches.isEmpty()) {
+            return delegate.invoke(rpcInvocation);
+        }
+        Cache<CacheKey, EncodedPayload> cache = caches.get(RequestInvocation.signatureOf(rpcInvocation));
+        if (Objects.isNull(cache)) {
+            return delegate.invoke(rpcInvocation);
+        }
+        CacheKey key = new CacheKey(
+            rpcInvocation.getAttribute(Attributes.SERIALIZATION_TYPE),
+            rpcInvocation.getAttribute(Attributes.COMPRESSION_TYPE),
+            rpcInvocation.getArguments()
+        );
+        EncodedPayload cached = cache.getIfPresent(key);
+        if (Objects.nonNull(cached)) {
+            return ResponseToMessageHandler.createResponseMessage(rpcInvocation, cached);
+        }
+        Object result = delegate.invoke(rpcInvocation);
+        if (result instanceof CompletableFuture<?> future) {
+            return future.thenApply(message -> cacheResponse(rpcInvocation, cache, key, message));
+        }
+        return cacheResponse(rpcInvocation, cache, key, result);
+    }
+
+    private Object cacheResponse(
+        RpcInvocation rpcInvocation, Cache<CacheKey, EncodedPayload> cache, CacheKey key, Object result) {
+        if (!(result instanceof Message<?> message)
+            || !(message.getPayload() instanceof Response response)
+            || !response.isSuccess()) {
+            return result;
+        }
+        EncodedPayload payload = encode(message, response);
+        cache.put(key, payload);
+        return ResponseToMessageHandler.createResponseMessage(rpcInvocation, payload);
+    }
+
+    private EncodedPayload encode(Message<?> message, Response response) {
+        Message.Header header = message.getHeader();
+        Serializer serializer = componentManager.getComponent(Serializer.class, header.serializationType().getName());
+        Compressor compressor = componentManager.getComponent(Compressor.class, header.compressType().getName());
+        byte[] bytes = compressor.compress(serializer.serialize(response));
+        return new EncodedPayload(bytes, true);
+    }
+
+    @Nullable
+    private static Cacheable findCacheable(Method method, Object service) {
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (Objects.nonNull(cacheable)) {
+            return cacheable;
+        }
+        try {
+            return service.getClass().getMethod(method.getName(), method.getParameterTypes()).getAnnotation(Cacheable.class);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 缓存键，不同的序列化与压缩方式将产生不同的响应数据，因此需要分别缓存
+     *
+     * @param serializationType 序列化方式，参见{@link Rpc4jProtocol.SerializationType}
+     * @param compressionType 压缩方式，参见{@link Rpc4jProtocol.CompressionType}
+     * @param arguments 方法参数
+     */
+    private record CacheKey(byte serializationType, byte compressionType, Object[] arguments) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CacheKey other
+                && serializationType == other.serializationType
+                && compressionType == other.compressionType
+                && Arrays.deepEquals(arguments, other.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * serializationType + compressionType) + Arrays.deepHashCode(arguments);
+        }
+    }
+}
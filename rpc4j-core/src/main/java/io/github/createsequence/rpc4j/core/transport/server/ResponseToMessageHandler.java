@@ -5,12 +5,16 @@ import io.github.createsequence.rpc4j.core.support.handler.RequiredAttributeChec
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
 import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
 import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.EncodedPayload;
 import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
 import io.github.createsequence.rpc4j.core.transport.Response;
 import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 /**
  * Netty请求响应处理器，用于将方法的调用结果转为{@link Message}
@@ -18,6 +22,7 @@ import java.util.Objects;
  * @author huangchengxing
  */
 @Depends({
+    @Depends.Attr(name = Attributes.REQUEST_ID, type = Long.class, required = true),
     @Depends.Attr(name = Attributes.REQUEST_PROTOCOL_VERSION, type = Byte.class, required = true),
     @Depends.Attr(name = Attributes.COMPRESSION_TYPE, type = Byte.class, required = true),
     @Depends.Attr(name = Attributes.SERIALIZATION_TYPE, type = Byte.class, required = true)
@@ -50,16 +55,44 @@ public class ResponseToMessageHandler extends RequiredAttributeCheckHandlerDeleg
     @Override
     protected Object afterCompletion(
         RpcInvocation rpcInvocation, Object delegateResult, @Nullable Throwable throwable) throws Throwable {
-        String requestId = rpcInvocation.getAttribute(Attributes.REQUEST_ID);
+        // 流式调用的结果将由服务器订阅后逐个写回，此处不作处理
+        if (Objects.isNull(throwable) && (delegateResult instanceof Flow.Publisher || delegateResult instanceof Stream)) {
+            return delegateResult;
+        }
         Response response = Objects.isNull(throwable) ?
-            Response.success(requestId, delegateResult) : Response.fail(requestId, throwable.getMessage());
-        // 构建响应消息
+            Response.success(delegateResult) : Response.fail(throwable.getMessage());
+        return createResponseMessage(rpcInvocation, response);
+    }
+
+    /**
+     * 根据调用上下文中的请求头信息，构建响应消息
+     *
+     * @param rpcInvocation 调用参数
+     * @param response 响应，可以是{@link Response}，或已经编码的{@link EncodedPayload}
+     * @param <T> 响应类型
+     * @return 响应消息
+     */
+    public static <T> Message<T> createResponseMessage(RpcInvocation rpcInvocation, T response) {
+        return createMessage(rpcInvocation, Rpc4jProtocol.MessageType.RPC_RESPONSE, response);
+    }
+
+    /**
+     * 根据调用上下文中的请求头信息，构建指定类型的消息
+     *
+     * @param rpcInvocation 调用参数
+     * @param messageType 消息类型
+     * @param response 响应
+     * @param <T> 响应类型
+     * @return 消息
+     */
+    public static <T> Message<T> createMessage(
+        RpcInvocation rpcInvocation, Rpc4jProtocol.MessageType messageType, T response) {
         byte protocolVersion = rpcInvocation.getAttribute(Attributes.REQUEST_PROTOCOL_VERSION);
         byte compressionType = rpcInvocation.getAttribute(Attributes.COMPRESSION_TYPE);
         byte serializationType = rpcInvocation.getAttribute(Attributes.SERIALIZATION_TYPE);
-        byte messageType = Rpc4jProtocol.MessageType.RPC_RESPONSE.getCode();
+        long requestId = rpcInvocation.getAttribute(Attributes.REQUEST_ID);
         return new Message<>(
-            protocolVersion, messageType, serializationType, compressionType, response
+            protocolVersion, messageType.getCode(), serializationType, compressionType, requestId, MethodTable.NO_METHOD_ID, response
         );
     }
 }
@@ -0,0 +1,113 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import lombok.extern.slf4j.Slf4j;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 服务独立线程池注册表，用于根据{@link IsolationPolicy}为服务或方法创建独立的线程池，
+ * 并在请求到达时为其选择对应的线程池
+ *
+ * @author huangchengxing
+ */
+@Slf4j
+public class ServiceExecutors implements Closeable {
+
+    /**
+     * 按服务隔离的线程池，key为服务类型全限定名
+     */
+    private final Map<String, ExecutorService> serviceExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * 按方法隔离的线程池，key为方法签名
+     */
+    private final Map<MethodTable.MethodSignature, ExecutorService> methodExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * 按隔离策略为服务创建独立的线程池，若服务已经存在独立的线程池，则先将其关闭
+     *
+     * @param serviceType 服务类型
+     * @param policy 隔离策略
+     */
+    public void register(Class<?> serviceType, IsolationPolicy policy) {
+        unregister(serviceType);
+        String serviceName = serviceType.getName();
+        switch (policy.getScope()) {
+            case SERVICE -> serviceExecutors.put(serviceName, DispatchExecutors.newBoundedExecutor(
+                "rpc4j-service-" + serviceType.getSimpleName(), policy.getThreads(), policy.getQueueCapacity()
+            ));
+            case METHOD -> {
+                for (Method method : serviceType.getMethods()) {
+                    MethodTable.MethodSignature signature = new MethodTable.MethodSignature(
+                        serviceName, method.getName(), method.getParameterTypes()
+                    );
+                    methodExecutors.put(signature, DispatchExecutors.newBoundedExecutor(
+                        "rpc4j-service-" + serviceType.getSimpleName() + "-" + method.getName(),
+                        policy.getThreads(), policy.getQueueCapacity()
+                    ));
+                }
+            }
+            default -> {
+                return;
+            }
+        }
+        log.info("为服务[{}]创建独立线程池，隔离范围[{}]，线程数[{}]，队列容量[{}]",
+            serviceName, policy.getScope(), policy.getThreads(), policy.getQueueCapacity());
+    }
+
+    /**
+     * 关闭服务的全部独立线程池
+     *
+     * @param serviceType 服务类型
+     */
+    public void unregister(Class<?> serviceType) {
+        String serviceName = serviceType.getName();
+        ExecutorService executor = serviceExecutors.remove(serviceName);
+        if (executor != null) {
+            executor.shutdown();
+        }
+        methodExecutors.entrySet().removeIf(entry -> {
+            if (entry.getKey().targetName().equals(serviceName)) {
+                entry.getValue().shutdown();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * 获取调用对应的独立线程池，方法级别的线程池优先于服务级别的线程池，
+     * 若请求携带了方法ID，则直接以方法表中的方法签名查找，而无需再创建方法键
+     *
+     * @param rpcInvocation 调用参数
+     * @return 线程池，若调用的服务未进行隔离则返回{@code null}
+     */
+    @Nullable
+    public ExecutorService select(RpcInvocation rpcInvocation) {
+        if (!methodExecutors.isEmpty()) {
+            ExecutorService executor = methodExecutors.get(RequestInvocation.signatureOf(rpcInvocation));
+            if (executor != null) {
+                return executor;
+            }
+        }
+        return serviceExecutors.get(rpcInvocation.getTargetName());
+    }
+
+    /**
+     * 关闭全部独立线程池
+     */
+    @Override
+    public void close() {
+        serviceExecutors.values().forEach(ExecutorService::shutdown);
+        serviceExecutors.clear();
+        methodExecutors.values().forEach(ExecutorService::shutdown);
+        methodExecutors.clear();
+    }
+}
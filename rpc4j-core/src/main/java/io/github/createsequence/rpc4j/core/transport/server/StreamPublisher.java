@@ -0,0 +1,147 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * <p>将{@link Stream}适配为{@link Flow.Publisher}，仅允许被订阅一次。
+ *
+ * <p>流中的元素将按订阅者的需求逐个取出，而不会预先全部计算，
+ * 取出元素的过程总是在指定的线程池中进行，从而避免在IO线程中执行流的计算。
+ * 流被全部取出、取出元素时发生异常或订阅被取消时，流将被关闭。
+ *
+ * @author huangchengxing
+ * @param <T> 元素类型
+ */
+@Slf4j
+@RequiredArgsConstructor
+class StreamPublisher<T> implements Flow.Publisher<T> {
+
+    private final Stream<T> stream;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) { }
+                @Override
+                public void cancel() { }
+            });
+            subscriber.onError(new IllegalStateException("流只能被订阅一次"));
+            return;
+        }
+        subscriber.onSubscribe(new StreamSubscription(subscriber));
+    }
+
+    /**
+     * 订阅，同一时刻仅有一个线程在取出元素
+     */
+    @RequiredArgsConstructor
+    private class StreamSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private Iterator<T> iterator;
+        private boolean done = false;
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("请求的元素数必须大于0：" + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException ex) {
+                wip.set(0);
+                terminate();
+                subscriber.onError(ex);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                terminate();
+                return;
+            }
+            try {
+                if (iterator == null) {
+                    iterator = stream.iterator();
+                }
+                long emitted = 0;
+                long requested = demand.get();
+                while (emitted < requested && !cancelled) {
+                    if (!iterator.hasNext()) {
+                        terminate();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                }
+                demand.addAndGet(-emitted);
+                // 需求恰好被满足时，也需要及时发现流已经结束
+                if (!cancelled && demand.get() == 0 && !iterator.hasNext()) {
+                    terminate();
+                    subscriber.onComplete();
+                }
+            } catch (Throwable ex) {
+                terminate();
+                subscriber.onError(ex);
+            }
+        }
+
+        private void terminate() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                stream.close();
+            } catch (Exception ex) {
+                log.warn("关闭流失败", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.netty.channel.ChannelHandlerContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>服务端流式调用的订阅者，将服务方法返回的{@link Flow.Publisher}中的每个元素作为一个流数据写回客户端，
+ * 并在流结束后发送流结束消息。
+ *
+ * <p>订阅者仅向发布者请求客户端授予的信用值所允许的元素数，
+ * 初始信用值为{@link Rpc4jProtocol#INITIAL_STREAM_CREDIT}，此后客户端每消费一批元素，
+ * 都会通过{@link Rpc4jProtocol.MessageType#STREAM_CREDIT}追加信用，从而使服务端的发送速度不会超过客户端的消费速度。
+ * 若追加信用时通道不可写，则信用将被暂存，直到通道恢复可写后再向发布者请求，从而使写缓冲区不会无限增长。
+ *
+ * <p>流数据仅写入通道而不立即刷新，同一轮事件循环中写入的流数据将被合并为一次刷新，
+ * 流结束消息则总是立即刷新。订阅被取消后，不会再写入任何流数据。
+ *
+ * @author huangchengxing
+ * @see StreamPublisher
+ */
+@Slf4j
+class StreamSubscriber implements Flow.Subscriber<Object> {
+
+    private final ChannelHandlerContext ctx;
+    private final RpcInvocation rpcInvocation;
+
+    /**
+     * 流结束或被取消时的回调
+     */
+    private final Runnable onTerminate;
+
+    private final AtomicBoolean terminated = new AtomicBoolean(false);
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled = false;
+
+    /**
+     * 是否已经安排了一次刷新
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /**
+     * 因通道不可写而暂存的信用，仅在事件循环中访问
+     */
+    private long pendingCredit = 0L;
+
+    /**
+     * 创建一个订阅者
+     *
+     * @param ctx 上下文
+     * @param rpcInvocation 调用参数
+     * @param onTerminate 流结束或被取消时的回调
+     */
+    StreamSubscriber(ChannelHandlerContext ctx, RpcInvocation rpcInvocation, Runnable onTerminate) {
+        this.ctx = ctx;
+        this.rpcInvocation = rpcInvocation;
+        this.onTerminate = onTerminate;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(Rpc4jProtocol.INITIAL_STREAM_CREDIT);
+    }
+
+    /**
+     * 追加客户端授予的信用，若通道不可写，则暂存信用直到通道恢复可写，该方法必须在事件循环中调用
+     *
+     * @param credit 信用值
+     */
+    public void addCredit(int credit) {
+        if (credit <= 0) {
+            return;
+        }
+        pendingCredit += credit;
+        if (ctx.channel().isWritable()) {
+            requestPendingCredit();
+        }
+    }
+
+    /**
+     * 在通道恢复可写后，向发布者请求暂存的信用，该方法必须在事件循环中调用
+     */
+    public void requestPendingCredit() {
+        Flow.Subscription current = subscription;
+        if (pendingCredit > 0 && Objects.nonNull(current) && !terminated.get()) {
+            long credit = pendingCredit;
+            pendingCredit = 0L;
+            current.request(credit);
+        }
+    }
+
+    /**
+     * 取消订阅，此后不会再向客户端发送任何消息
+     */
+    public void cancel() {
+        cancelled = true;
+        Flow.Subscription current = subscription;
+        if (Objects.nonNull(current)) {
+            current.cancel();
+        }
+        terminate();
+    }
+
+    @Override
+    public void onNext(Object item) {
+        if (cancelled || terminated.get()) {
+            return;
+        }
+        ctx.write(ResponseToMessageHandler.createMessage(rpcInvocation, Rpc4jProtocol.MessageType.STREAM_ITEM, Response.success(item)));
+        scheduleFlush();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.error("服务端流式调用异常，请求ID为[{}]", getRequestId(), throwable);
+        if (terminate()) {
+            write(Rpc4jProtocol.MessageType.STREAM_COMPLETE, Response.fail(throwable.getMessage()));
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        if (terminate()) {
+            write(Rpc4jProtocol.MessageType.STREAM_COMPLETE, Response.success(null));
+        }
+    }
+
+    private boolean terminate() {
+        if (!terminated.compareAndSet(false, true)) {
+            return false;
+        }
+        onTerminate.run();
+        return true;
+    }
+
+    /**
+     * 安排一次刷新，在刷新执行前写入的流数据都将由这一次刷新写出
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            ctx.executor().execute(() -> {
+                flushScheduled.set(false);
+                ctx.flush();
+            });
+        }
+    }
+
+    private void write(Rpc4jProtocol.MessageType messageType, Response response) {
+        ctx.writeAndFlush(ResponseToMessageHandler.createMessage(rpcInvocation, messageType, response));
+    }
+
+    private Long getRequestId() {
+        return rpcInvocation.getAttribute(Attributes.REQUEST_ID);
+    }
+}
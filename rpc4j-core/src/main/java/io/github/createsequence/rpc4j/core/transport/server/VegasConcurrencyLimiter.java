@@ -0,0 +1,202 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.common.util.Asserts;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>基于TCP Vegas拥塞控制算法的自适应并发限制器。
+ *
+ * <p>限制器记录观测到的最小处理耗时，将其视为服务端无排队时的耗时，
+ * 并根据每次请求的实际耗时估算当前排队的请求数：
+ * <pre>{@code queue = limit * (1 - minLatency / latency)}</pre>
+ * <ul>
+ *     <li>若排队数小于{@code alpha}，说明服务端仍有余力，并发上限将增加；</li>
+ *     <li>若排队数大于{@code beta}，说明请求已经开始排队，并发上限将减少；</li>
+ *     <li>否则保持不变；</li>
+ * </ul>
+ * 其中{@code alpha}与{@code beta}分别为{@code log10(limit)}的3倍与6倍。
+ * 当正在处理的请求数不足并发上限的一半时，说明并发上限并不是瓶颈，此时不会继续增加上限。
+ *
+ * <p>每次归还许可时，仅将耗时累加到一个采样窗口中，每累计{@code sampleWindow}个样本后，
+ * 才以窗口内的平均耗时作为本次的耗时调整一次并发上限，因此只有调整上限时才需要加锁。
+ *
+ * <p>为避免最小耗时因网络或负载变化而长期失真，每累计一定数量的样本后，将以下一个窗口内的最小耗时重新作为最小耗时。
+ *
+ * @author huangchengxing
+ * @see <a href="https://en.wikipedia.org/wiki/TCP_Vegas">TCP Vegas</a>
+ */
+@Slf4j
+public class VegasConcurrencyLimiter implements ConcurrencyLimiter {
+
+    /**
+     * 每累计{@code limit * PROBE_MULTIPLIER}个样本后重新探测最小耗时
+     */
+    private static final int PROBE_MULTIPLIER = 30;
+
+    /**
+     * 默认的采样窗口大小
+     */
+    private static final int DEFAULT_SAMPLE_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int sampleWindow;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 当前窗口内累计的样本数
+     */
+    private final AtomicInteger windowSamples = new AtomicInteger();
+
+    /**
+     * 当前窗口内累计的耗时，单位纳秒
+     */
+    private final AtomicLong windowLatencyNanos = new AtomicLong();
+
+    /**
+     * 当前窗口内的最小耗时，单位纳秒
+     */
+    private final AtomicLong windowMinLatencyNanos = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * 当前窗口内请求完成时观测到的最大请求数
+     */
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+
+    /**
+     * 当前并发上限
+     */
+    private volatile int limit;
+
+    /**
+     * 观测到的最小处理耗时，单位纳秒，为0时表示尚未观测，仅在调整上限时读写
+     */
+    private long minLatencyNanos = 0L;
+
+    /**
+     * 距离上次探测最小耗时后累计的样本数，仅在调整上限时读写
+     */
+    private long samplesSinceProbe = 0L;
+
+    /**
+     * 创建一个限制器，初始并发上限为20，最小为1，最大为1000
+     */
+    public VegasConcurrencyLimiter() {
+        this(20, 1, 1000);
+    }
+
+    /**
+     * 创建一个限制器
+     *
+     * @param initialLimit 初始并发上限
+     * @param minLimit 最小并发上限
+     * @param maxLimit 最大并发上限
+     */
+    public VegasConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_SAMPLE_WINDOW);
+    }
+
+    /**
+     * 创建一个限制器
+     *
+     * @param initialLimit 初始并发上限
+     * @param minLimit 最小并发上限
+     * @param maxLimit 最大并发上限
+     * @param sampleWindow 采样窗口大小，即每累计多少个样本调整一次并发上限
+     */
+    public VegasConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int sampleWindow) {
+        Asserts.isTrue(minLimit > 0, "最小并发上限必须大于0：{}", minLimit);
+        Asserts.isTrue(sampleWindow > 0, "采样窗口大小必须大于0：{}", sampleWindow);
+        Asserts.isTrue(minLimit <= maxLimit, "最小并发上限[{}]不能大于最大并发上限[{}]", minLimit, maxLimit);
+        Asserts.isTrue(
+            initialLimit >= minLimit && initialLimit <= maxLimit,
+            "初始并发上限[{}]必须在[{}, {}]之间", initialLimit, minLimit, maxLimit
+        );
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.sampleWindow = sampleWindow;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > 0) {
+            onSample(latencyNanos, current);
+        }
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long latencyNanos, int inFlightAtCompletion) {
+        windowLatencyNanos.addAndGet(latencyNanos);
+        windowMinLatencyNanos.accumulateAndGet(latencyNanos, Math::min);
+        windowMaxInFlight.accumulateAndGet(inFlightAtCompletion, Math::max);
+        // 仅由填满窗口的线程结算该窗口，后续样本计入下一个窗口
+        if (windowSamples.incrementAndGet() == sampleWindow) {
+            windowSamples.addAndGet(-sampleWindow);
+            long averageLatencyNanos = windowLatencyNanos.getAndSet(0L) / sampleWindow;
+            long windowMinLatency = windowMinLatencyNanos.getAndSet(Long.MAX_VALUE);
+            int windowMaxInFlightCount = windowMaxInFlight.getAndSet(0);
+            updateLimit(averageLatencyNanos, windowMinLatency, windowMaxInFlightCount);
+        }
+    }
+
+    private synchronized void updateLimit(long latencyNanos, long windowMinLatency, int inFlightAtCompletion) {
+        int currentLimit = limit;
+        samplesSinceProbe += sampleWindow;
+        if (samplesSinceProbe >= (long)currentLimit * PROBE_MULTIPLIER) {
+            samplesSinceProbe = 0;
+            minLatencyNanos = windowMinLatency;
+            return;
+        }
+        if (minLatencyNanos == 0L) {
+            minLatencyNanos = windowMinLatency;
+            return;
+        }
+        minLatencyNanos = Math.min(minLatencyNanos, windowMinLatency);
+        if (latencyNanos <= 0L) {
+            return;
+        }
+        double queue = Math.ceil(currentLimit * (1 - (double)minLatencyNanos / latencyNanos));
+        double step = Math.max(1, Math.log10(currentLimit));
+        int newLimit = currentLimit;
+        if (queue < 3 * step) {
+            // 请求数不足上限的一半时，上限并不是瓶颈，不继续增加
+            if (inFlightAtCompletion * 2 >= currentLimit) {
+                newLimit = (int)(currentLimit + step);
+            }
+        } else if (queue > 6 * step) {
+            newLimit = (int)(currentLimit - step);
+        }
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        if (newLimit != currentLimit) {
+            limit = newLimit;
+            log.debug("并发上限由[{}]调整为[{}]，最小耗时[{}]ns，本次耗时[{}]ns", currentLimit, newLimit, minLatencyNanos, latencyNanos);
+        }
+    }
+}
@@ -6,6 +6,7 @@ module rpc4j.core {
     requires static lombok;
     requires org.checkerframework.checker.qual;
     requires org.slf4j;
+    requires com.google.common;
 
     requires com.alibaba.fastjson2;
     requires io.netty.all;
@@ -0,0 +1,137 @@
+package io.github.createsequence.rpc4j.core.support.service;
+
+import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.common.DefaultComponentManager;
+import io.github.createsequence.common.exception.OverloadException;
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.rpc4j.core.compress.Compressor;
+import io.github.createsequence.rpc4j.core.compress.NoneCompressor;
+import io.github.createsequence.rpc4j.core.discoverer.LocalServiceDiscoverer;
+import io.github.createsequence.rpc4j.core.loadbalance.LoadBalancer;
+import io.github.createsequence.rpc4j.core.loadbalance.RandomLoadBalancer;
+import io.github.createsequence.rpc4j.core.serialize.FastjsonSerializer;
+import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.server.ConcurrencyLimiter;
+import io.github.createsequence.rpc4j.core.transport.server.VegasConcurrencyLimiter;
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link Rpc4jNettyServiceManager}
+ *
+ * @author huangchengxing
+ */
+public class Rpc4jNettyServiceManagerTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 8089;
+
+    @Test
+    public void testRegisterAgainAfterRestart() {
+        LocalServiceDiscoverer discoverer = new LocalServiceDiscoverer();
+        Rpc4jNettyServiceManager manager = new Rpc4jNettyServiceManager(new DefaultComponentManager(), discoverer, HOST, PORT);
+        RemoteAddress address = new RemoteAddress(RemoteAddress.Type.FIXED_IP, HOST, PORT);
+        try {
+            manager.start(HOST, PORT);
+            manager.export(Service.class, new ServiceImpl());
+            Assert.assertEquals(List.of(address), discoverer.getServices(Service.class.getName()));
+
+            // 停止后服务从服务发现器中注销
+            manager.stop();
+            Assert.assertTrue(discoverer.getServices(Service.class.getName()).isEmpty());
+
+            // 再次启动后重新注册已经暴露的服务
+            manager.start(HOST, PORT);
+            Assert.assertEquals(List.of(address), discoverer.getServices(Service.class.getName()));
+            manager.stop();
+        } finally {
+            manager.close();
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    public void testRejectWhenOverloaded() {
+        ComponentManager componentManager = new DefaultComponentManager();
+        componentManager.registerComponent(Compressor.class, Rpc4jProtocol.CompressionType.NONE.getName(), new NoneCompressor());
+        componentManager.registerComponent(Serializer.class, Rpc4jProtocol.SerializationType.FASTJSON.getName(), new FastjsonSerializer());
+        componentManager.registerComponent(LoadBalancer.class, RandomLoadBalancer.class.getSimpleName(), new RandomLoadBalancer());
+        Rpc4jNettyServiceManager manager = new Rpc4jNettyServiceManager(componentManager, new LocalServiceDiscoverer(), HOST, PORT);
+        ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(1, 1, 1);
+        manager.setConcurrencyLimiter(limiter);
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            manager.start(HOST, PORT);
+            manager.export(BlockingService.class, new BlockingService() {
+                @Override
+                public String hello(String name) {
+                    awaitQuietly(latch);
+                    return "hello " + name;
+                }
+                @Override
+                public String ping() {
+                    return "pong";
+                }
+            });
+            BlockingService service = manager.refer(BlockingService.class);
+            // 预先建立全部连接
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals("pong", service.ping());
+            }
+
+            // 第一个请求占用唯一的许可，此后的请求将被服务端以过载响应拒绝
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> service.hello("rpc4j"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (limiter.getInFlight() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, limiter.getInFlight());
+            Rpc4jException ex = Assert.assertThrows(Rpc4jException.class, () -> service.hello("rpc4j"));
+            Assert.assertTrue(ex.getCause() instanceof OverloadException);
+
+            // 许可归还后请求恢复正常
+            latch.countDown();
+            Assert.assertEquals("hello rpc4j", first.get(5, TimeUnit.SECONDS));
+            Assert.assertEquals("hello rpc4j", service.hello("rpc4j"));
+            manager.stop();
+        } finally {
+            latch.countDown();
+            manager.close();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Reference(address = {
+        @Reference.Address(host = HOST, port = PORT)
+    })
+    private interface BlockingService {
+        String hello(String name);
+        String ping();
+    }
+
+    private interface Service {
+        String hello(String name);
+    }
+
+    private static class ServiceImpl implements Service {
+        @Override
+        public String hello(String name) {
+            return "hello " + name;
+        }
+    }
+}
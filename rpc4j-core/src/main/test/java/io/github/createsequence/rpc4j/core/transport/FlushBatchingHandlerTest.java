@@ -0,0 +1,118 @@
+package io.github.createsequence.rpc4j.core.transport;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link FlushBatchingHandler}
+ *
+ * @author huangchengxing
+ */
+public class FlushBatchingHandlerTest {
+
+    @Test
+    public void testMergeFlushesInReadCycle() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(
+            counter, new FlushBatchingHandler(64, 0, TimeUnit.MICROSECONDS), new EchoHandler(3)
+        );
+        // 同一次读取中的多次刷新将被合并为一次
+        channel.writeInbound("rpc4j");
+        channel.runPendingTasks();
+        Assert.assertEquals(1, counter.flushes);
+        assertOutbound(channel, 3);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushOutsideReadCycle() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter, new FlushBatchingHandler(64, 0, TimeUnit.MICROSECONDS));
+        // 读取之外的写入同样会被刷新，只是推迟到事件循环执行完当前任务后
+        channel.writeAndFlush("rpc4j");
+        Assert.assertEquals(0, counter.flushes);
+        channel.runPendingTasks();
+        Assert.assertEquals(1, counter.flushes);
+        assertOutbound(channel, 1);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFlushWhenBatchIsFull() {
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(counter, new FlushBatchingHandler(2, 1, TimeUnit.HOURS));
+        channel.writeAndFlush("rpc4j");
+        Assert.assertEquals(0, counter.flushes);
+        channel.writeAndFlush("rpc4j");
+        Assert.assertEquals(1, counter.flushes);
+        assertOutbound(channel, 2);
+
+        // 关闭通道前将刷新尚未刷新的数据
+        channel.writeAndFlush("rpc4j");
+        channel.close();
+        Assert.assertEquals(2, counter.flushes);
+        assertOutbound(channel, 1);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testServerFlushConsolidation() {
+        // 服务端使用的合并刷新处理器，在读取期间与读取之外都不会丢失刷新
+        FlushCounter counter = new FlushCounter();
+        EmbeddedChannel channel = new EmbeddedChannel(
+            counter, new FlushConsolidationHandler(FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true),
+            new EchoHandler(3)
+        );
+        channel.writeInbound("rpc4j");
+        Assert.assertEquals(1, counter.flushes);
+        assertOutbound(channel, 3);
+
+        channel.writeAndFlush("rpc4j");
+        channel.runPendingTasks();
+        Assert.assertEquals(2, counter.flushes);
+        assertOutbound(channel, 1);
+        channel.finishAndReleaseAll();
+    }
+
+    private static void assertOutbound(EmbeddedChannel channel, int count) {
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("rpc4j", channel.readOutbound());
+        }
+        Assert.assertNull(channel.readOutbound());
+    }
+
+    /**
+     * 统计实际到达通道的刷新次数
+     */
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+        private int flushes = 0;
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes++;
+            super.flush(ctx);
+        }
+    }
+
+    /**
+     * 每读取一条消息，就写回并刷新指定次数
+     */
+    private static class EchoHandler extends ChannelInboundHandlerAdapter {
+        private final int times;
+        private EchoHandler(int times) {
+            this.times = times;
+        }
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            for (int i = 0; i < times; i++) {
+                ctx.writeAndFlush(msg);
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package io.github.createsequence.rpc4j.core.transport;
 
 import io.github.createsequence.common.ComponentManager;
 import io.github.createsequence.common.DefaultComponentManager;
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.common.exception.TimeoutException;
 import io.github.createsequence.rpc4j.core.compress.Compressor;
 import io.github.createsequence.rpc4j.core.compress.NoneCompressor;
 import io.github.createsequence.rpc4j.core.discoverer.LocalServiceDiscoverer;
@@ -13,13 +15,29 @@ import io.github.createsequence.rpc4j.core.support.service.Reference;
 import io.github.createsequence.rpc4j.core.support.service.Rpc4jNettyServiceManager;
 import io.github.createsequence.rpc4j.core.support.service.ServiceProvider;
 import io.github.createsequence.rpc4j.core.support.service.ServiceRegistry;
+import io.github.createsequence.rpc4j.core.transport.codec.DiscardedMessage;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyDecoder;
 import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.EncoderException;
+import io.netty.util.concurrent.FastThreadLocalThread;
 import lombok.SneakyThrows;
 import org.junit.Assert;
-import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 /**
  * see {@link Rpc4jNettyEncoder} and {@link Rpc4jNettyDecoder}
  *
@@ -29,12 +47,13 @@ public class Rpc4jNettyCodecTest {
 
     private static final String HOST = "127.0.0.1";
     private static final int PORT = 8086;
-    private ServiceProvider serviceProvider;
-    private ServiceRegistry serviceRegistry;
+    private static ComponentManager componentManager;
+    private static ServiceProvider serviceProvider;
+    private static ServiceRegistry serviceRegistry;
 
-    @Before
-    public void init() {
-        ComponentManager componentManager = new DefaultComponentManager();
+    @BeforeClass
+    public static void init() {
+        componentManager = new DefaultComponentManager();
         componentManager.registerComponent(Compressor.class, Rpc4jProtocol.CompressionType.NONE.getName(), new NoneCompressor());
         componentManager.registerComponent(Serializer.class, Rpc4jProtocol.SerializationType.FASTJSON.getName(), new FastjsonSerializer());
         componentManager.registerComponent(LoadBalancer.class, RandomLoadBalancer.class.getSimpleName(), new RandomLoadBalancer());
@@ -43,24 +62,449 @@ public class Rpc4jNettyCodecTest {
         );
         serviceProvider = manager;
         serviceRegistry = manager;
+        serviceRegistry.start(HOST, PORT);
+        serviceRegistry.export(Service.class, new ServiceImpl());
+        serviceRegistry.export(SlowService.class, new SlowServiceImpl());
+        serviceRegistry.export(DeadlineService.class, new DeadlineServiceImpl());
+        serviceRegistry.export(StreamService.class, new StreamServiceImpl());
+    }
+
+    @Test
+    public void testHeartbeatCodec() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager), new Rpc4jNettyDecoder(componentManager)
+        );
+        Assert.assertTrue(channel.writeOutbound(Message.heartbeat(Rpc4jProtocol.MessageType.HEARTBEAT_PING)));
+        ByteBuf frame = channel.readOutbound();
+        Assert.assertEquals(Rpc4jProtocol.SIZE_OF_HEADER_FIELDS + Rpc4jProtocol.SIZE_OF_LENGTH_FIELD, frame.readableBytes());
+        Assert.assertTrue(channel.writeInbound(frame));
+        Message<?> message = channel.readInbound();
+        Assert.assertTrue(message.isHeartbeat());
+        Assert.assertTrue(message.is(Rpc4jProtocol.MessageType.HEARTBEAT_PING));
+        Assert.assertNull(message.getPayload());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testMethodIdCodec() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager), new Rpc4jNettyDecoder(componentManager)
+        );
+        // 握手响应携带方法表
+        MethodTable methodTable = new MethodTable();
+        methodTable.register(Service.class);
+        Handshake handshake = new Handshake(methodTable.getMethodIds());
+        Assert.assertTrue(channel.writeOutbound(Message.handshake(Rpc4jProtocol.MessageType.HANDSHAKE_RESPONSE, handshake)));
+        Assert.assertTrue(channel.writeInbound(channel.<ByteBuf>readOutbound()));
+        Message<?> handshakeMessage = channel.readInbound();
+        Assert.assertTrue(handshakeMessage.getPayload() instanceof Handshake);
+        Assert.assertEquals(handshake.getMethodIds(), ((Handshake)handshakeMessage.getPayload()).getMethodIds());
+
+        // 通过方法ID发起的请求不携带方法名称
+        Class<?>[] parameterTypes = new Class<?>[]{ String.class };
+        String methodKey = MethodTable.methodKey(Service.class.getName(), "hello", parameterTypes);
+        int methodId = handshake.getMethodIds().get(methodKey);
+        Request byName = new Request(Service.class.getName(), "hello", parameterTypes, new Object[]{ "rpc4j" });
+        Request byId = new Request(null, null, null, new Object[]{ "rpc4j" });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, byName)));
+        ByteBuf byNameFrame = channel.readOutbound();
+        Assert.assertTrue(channel.writeOutbound(requestMessage(methodId, byId)));
+        ByteBuf byIdFrame = channel.readOutbound();
+        Assert.assertTrue(byIdFrame.readableBytes() < byNameFrame.readableBytes());
+        byNameFrame.release();
+
+        Assert.assertTrue(channel.writeInbound(byIdFrame));
+        Message<?> message = channel.readInbound();
+        Assert.assertEquals(methodId, message.getMethodId());
+        Assert.assertEquals(
+            new MethodTable.MethodSignature(Service.class.getName(), "hello", parameterTypes),
+            methodTable.getSignature(message.getMethodId())
+        );
+        Assert.assertArrayEquals(new Object[]{ "rpc4j" }, ((Request)message.getPayload()).getArguments());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDecodeWithoutCopy() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager), new Rpc4jNettyDecoder(componentManager)
+        );
+        Request request = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, request)));
+        ByteBuf frame = channel.readOutbound();
+
+        // 数据位于堆外的连续内存中
+        ByteBuf direct = Unpooled.directBuffer(frame.readableBytes()).writeBytes(frame, frame.readerIndex(), frame.readableBytes());
+        Assert.assertTrue(channel.writeInbound(direct));
+        Message<?> message = channel.readInbound();
+        Assert.assertArrayEquals(new Object[]{ "rpc4j" }, ((Request)message.getPayload()).getArguments());
+
+        // 数据分散在多块内存中
+        int half = frame.readableBytes() / 2;
+        ByteBuf composite = Unpooled.wrappedBuffer(frame.retainedSlice(0, half), frame.retainedSlice(half, frame.readableBytes() - half));
+        Assert.assertTrue(composite.nioBufferCount() > 1);
+        Assert.assertTrue(channel.writeInbound(composite));
+        message = channel.readInbound();
+        Assert.assertEquals("hello", ((Request)message.getPayload()).getMethodName());
+        Assert.assertArrayEquals(new Object[]{ "rpc4j" }, ((Request)message.getPayload()).getArguments());
+        frame.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testLazyPayload() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager), new Rpc4jNettyDecoder(componentManager)
+        );
+        Request request = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, request)));
+        ByteBuf frame = channel.readOutbound();
+        ByteBuf copy = frame.copy();
+
+        // 解码后的消息仅持有原始数据，第一次获取数据时才反序列化，并在之后释放原始数据
+        Assert.assertTrue(channel.writeInbound(frame));
+        Message<?> message = channel.readInbound();
+        Assert.assertFalse(message.isPayloadDeserialized());
+        Assert.assertEquals(1, frame.refCnt());
+        Assert.assertEquals("hello", ((Request)message.getPayload()).getMethodName());
+        Assert.assertTrue(message.isPayloadDeserialized());
+        Assert.assertEquals(0, frame.refCnt());
+        Assert.assertSame(message.getPayload(), message.getPayload());
+
+        // 不再读取的数据可以直接释放
+        Assert.assertTrue(channel.writeInbound(copy));
+        message = channel.readInbound();
+        message.releasePayload();
+        Assert.assertEquals(0, copy.refCnt());
+        Assert.assertNull(message.getPayload());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testEncodeWithCompressorDefaults() {
+        // 压缩器仅实现了基于字节数组的方法，编码与解码时将使用流式接口的默认实现
+        ComponentManager reversingComponentManager = new DefaultComponentManager();
+        reversingComponentManager.registerComponent(Compressor.class, Rpc4jProtocol.CompressionType.NONE.getName(), new ReversingCompressor());
+        reversingComponentManager.registerComponent(Serializer.class, Rpc4jProtocol.SerializationType.FASTJSON.getName(), new FastjsonSerializer());
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(reversingComponentManager), new Rpc4jNettyDecoder(reversingComponentManager)
+        );
+        String largeArgument = "rpc4j".repeat(1024);
+        Request request = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ largeArgument });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, request)));
+        ByteBuf frame = channel.readOutbound();
+        Assert.assertEquals(frame.readableBytes(), frame.getInt(Rpc4jProtocol.SIZE_OF_HEADER_FIELDS));
+        Assert.assertTrue(channel.writeInbound(frame));
+        Message<?> message = channel.readInbound();
+        Assert.assertArrayEquals(new Object[]{ largeArgument }, ((Request)message.getPayload()).getArguments());
+        channel.finishAndReleaseAll();
     }
 
+    @Test
+    public void testTimeoutCodec() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager), new Rpc4jNettyDecoder(componentManager)
+        );
+        Request request = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" });
+        Message<Request> message = new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_REQUEST.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            1L, MethodTable.NO_METHOD_ID, 3000, request
+        );
+        Assert.assertTrue(channel.writeOutbound(message));
+        Assert.assertTrue(channel.writeInbound(channel.<ByteBuf>readOutbound()));
+        Message<?> decoded = channel.readInbound();
+        Assert.assertEquals(3000, decoded.getTimeout());
+        Assert.assertEquals(3000, decoded.getHeader().timeout());
+        decoded.releasePayload();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDeadlinePropagation() {
+        // 服务端执行期间可以获得请求剩余的超时时间
+        DeadlineService service = serviceProvider.refer(DeadlineService.class);
+        int remaining = service.remaining();
+        Assert.assertTrue(remaining > 0 && remaining <= 2000);
+
+        // 在已经超过截止时间的请求中发起的调用将直接失败，而不会发送到服务端
+        Deadline previous = Deadline.attach(Deadline.after(System.nanoTime(), -1, TimeUnit.MILLISECONDS));
+        try {
+            Rpc4jException ex = Assert.assertThrows(Rpc4jException.class, service::remaining);
+            Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+        } finally {
+            Deadline.restore(previous);
+        }
+        // 嵌套调用的超时时间不超过上游请求剩余的时间
+        Deadline.attach(Deadline.after(System.nanoTime(), 500, TimeUnit.MILLISECONDS));
+        try {
+            remaining = service.remaining();
+            Assert.assertTrue(remaining > 0 && remaining <= 500);
+        } finally {
+            Deadline.restore(previous);
+        }
+    }
+
+    @Test
+    public void testChunkedCodec() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager, 1024), new Rpc4jNettyDecoder(componentManager)
+        );
+        String largeArgument = "rpc4j".repeat(2048);
+        Request request = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ largeArgument });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, request)));
+        ByteBuf frames = channel.readOutbound();
+
+        // 除最后一帧外均为分片，且每一帧的数据都不超过上限，报文类型位于魔数、版本号、序列化与压缩算法之后
+        int typeOffset = 8;
+        int chunks = 0;
+        int index = frames.readerIndex();
+        while (index < frames.writerIndex()) {
+            int length = frames.getInt(index + Rpc4jProtocol.SIZE_OF_HEADER_FIELDS);
+            Assert.assertTrue(length - Rpc4jProtocol.SIZE_OF_HEADER_FIELDS - Rpc4jProtocol.SIZE_OF_LENGTH_FIELD <= 1024);
+            index += length;
+            if (index < frames.writerIndex()) {
+                Assert.assertEquals(Rpc4jProtocol.MessageType.CHUNK.getCode(), frames.getByte(index - length + typeOffset));
+                chunks++;
+            } else {
+                Assert.assertEquals(Rpc4jProtocol.MessageType.RPC_REQUEST.getCode(), frames.getByte(index - length + typeOffset));
+            }
+        }
+        Assert.assertEquals(frames.writerIndex(), index);
+        Assert.assertTrue(chunks >= 10);
+
+        // 逐帧写入，收到最后一帧后才产生完整的消息
+        ByteBuf first = frames.readRetainedSlice(frames.getInt(frames.readerIndex() + Rpc4jProtocol.SIZE_OF_HEADER_FIELDS));
+        Assert.assertFalse(channel.writeInbound(first));
+        Assert.assertTrue(channel.writeInbound(frames));
+        Message<?> message = channel.readInbound();
+        Assert.assertTrue(message.is(Rpc4jProtocol.MessageType.RPC_REQUEST));
+        Assert.assertArrayEquals(new Object[]{ largeArgument }, ((Request)message.getPayload()).getArguments());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDiscardChunksBeyondLimit() {
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager, 1024), new Rpc4jNettyDecoder(componentManager, 4096)
+        );
+        Request large = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j".repeat(2048) });
+        Request small = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, large)));
+        ByteBuf largeFrames = channel.readOutbound();
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, small)));
+        ByteBuf smallFrames = channel.readOutbound();
+
+        // 超出上限的消息被丢弃，并在收到最后一帧时以被丢弃的消息代替，此后的消息不受影响
+        Assert.assertTrue(channel.writeInbound(largeFrames));
+        DiscardedMessage discarded = channel.readInbound();
+        Assert.assertTrue(discarded.is(Rpc4jProtocol.MessageType.RPC_REQUEST));
+        Assert.assertEquals(1L, discarded.requestId());
+        Assert.assertNull(channel.readInbound());
+        Assert.assertTrue(channel.writeInbound(smallFrames));
+        Message<?> message = channel.readInbound();
+        Assert.assertArrayEquals(new Object[]{ "rpc4j" }, ((Request)message.getPayload()).getArguments());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testRejectPayloadBeyondMaxMessageLength() {
+        EmbeddedChannel channel = new EmbeddedChannel(new Rpc4jNettyEncoder(componentManager, 1024, 4096));
+        Request large = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j".repeat(2048) });
+        // 超出上限的数据在写入输出缓冲区的过程中即被拒绝
+        Assert.assertThrows(EncoderException.class, () -> channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, large)));
+        Assert.assertNull(channel.readOutbound());
+
+        // 已经编码的数据在分配输出缓冲区前即被拒绝
+        Message<Object> encoded = new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_RESPONSE.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            1L, MethodTable.NO_METHOD_ID, new EncodedPayload(new byte[4097], true)
+        );
+        Assert.assertThrows(EncoderException.class, () -> channel.writeOutbound(encoded));
+        Assert.assertNull(channel.readOutbound());
+
+        // 未超出上限的消息不受影响
+        Request small = new Request(Service.class.getName(), "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" });
+        Assert.assertTrue(channel.writeOutbound(requestMessage(MethodTable.NO_METHOD_ID, small)));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testPayloadBeyondMaxFrameLength() {
+        Service service = serviceProvider.refer(Service.class);
+        String largeArgument = "rpc4j".repeat(Rpc4jProtocol.MAX_FRAME_LENGTH / 4);
+        Assert.assertEquals("hello " + largeArgument, service.hello(largeArgument));
+    }
+
+    private static Message<Object> requestMessage(int methodId, Request request) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_REQUEST.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            1L, methodId, request
+        );
+    }
 
     @SneakyThrows
     @Test
     public void testClient() {
-        new Thread(() -> serviceRegistry.start(HOST, PORT)).start();
-        serviceRegistry.export(Service.class, new ServiceImpl());
         Service service = serviceProvider.refer(Service.class);
         String result = service.hello("rpc4j");
         Assert.assertEquals("hello rpc4j", result);
     }
 
+    @SneakyThrows
+    @Test
+    public void testAsyncClient() {
+        Service service = serviceProvider.refer(Service.class);
+        List<CompletableFuture<String>> futures = IntStream.range(0, 100)
+            .mapToObj(i -> service.helloAsync("rpc4j" + i))
+            .toList();
+        for (int i = 0; i < futures.size(); i++) {
+            Assert.assertEquals("hello rpc4j" + i, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    public void testAsyncCallbackOffEventLoop() {
+        // 异步调用的后续操作不在IO线程中执行，因此可以在其中发起同步调用
+        Service service = serviceProvider.refer(Service.class);
+        String result = service.helloAsync("rpc4j")
+            .thenApply(service::hello)
+            .get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("hello hello rpc4j", result);
+        // 超时的异步调用同样不在超时定时器线程中完成
+        SlowService slowService = serviceProvider.refer(SlowService.class);
+        Thread thread = slowService.helloAsync("rpc4j")
+            .handle((r, ex) -> Thread.currentThread())
+            .get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(thread instanceof FastThreadLocalThread);
+    }
+
+    @Test
+    public void testWarmUp() {
+        WarmUpService service = serviceProvider.refer(WarmUpService.class);
+        Assert.assertEquals("hello rpc4j", service.hello("rpc4j"));
+    }
+
+    @Test
+    public void testTimeout() {
+        SlowService service = serviceProvider.refer(SlowService.class);
+        Rpc4jException syncEx = Assert.assertThrows(Rpc4jException.class, () -> service.hello("rpc4j"));
+        Assert.assertTrue(syncEx.getCause() instanceof TimeoutException);
+        ExecutionException ex = Assert.assertThrows(
+            ExecutionException.class, () -> service.helloAsync("rpc4j").get(5, TimeUnit.SECONDS)
+        );
+        Assert.assertTrue(ex.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    public void testStreamInvocation() {
+        // 元素数超过初始信用值，需要客户端在消费过程中追加信用
+        StreamService service = serviceProvider.refer(StreamService.class);
+        try (Stream<Integer> stream = service.range(100)) {
+            Assert.assertEquals(IntStream.range(0, 100).boxed().toList(), stream.collect(Collectors.toList()));
+        }
+        // 流中途发生异常时，客户端在收到已经发送的元素后以异常结束
+        try (Stream<Integer> stream = service.failAt(5)) {
+            List<Integer> received = new ArrayList<>();
+            Assert.assertThrows(Rpc4jException.class, () -> stream.forEach(received::add));
+            Assert.assertEquals(List.of(0, 1, 2, 3, 4), received);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    public void testPublisherInvocation() {
+        StreamService service = serviceProvider.refer(StreamService.class);
+        List<Integer> received = new ArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        service.rangePublisher(100).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+                subscription.request(1);
+            }
+            @Override
+            public void onError(Throwable throwable) {
+                completed.completeExceptionally(throwable);
+            }
+            @Override
+            public void onComplete() {
+                completed.complete(null);
+            }
+        });
+        completed.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(IntStream.range(0, 100).boxed().toList(), received);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testCancelPublisher() {
+        StreamService service = serviceProvider.refer(StreamService.class);
+        List<Integer> received = new ArrayList<>();
+        CompletableFuture<Void> cancelled = new CompletableFuture<>();
+        service.rangePublisher(Integer.MAX_VALUE).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(10);
+            }
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+                if (received.size() == 10) {
+                    subscription.cancel();
+                    cancelled.complete(null);
+                }
+            }
+            @Override
+            public void onError(Throwable throwable) {
+                cancelled.completeExceptionally(throwable);
+            }
+            @Override
+            public void onComplete() {
+                cancelled.completeExceptionally(new IllegalStateException("流不应正常结束"));
+            }
+        });
+        cancelled.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(IntStream.range(0, 10).boxed().toList(), received);
+        // 服务端收到取消消息后不再发送后续的元素
+        Assert.assertTrue(StreamServiceImpl.cancelled.get(5, TimeUnit.SECONDS));
+    }
+
+    private static class ReversingCompressor implements Compressor {
+        @Override
+        public byte[] compress(byte[] bytes) {
+            return reverse(bytes);
+        }
+        @Override
+        public byte[] decompress(byte[] bytes) {
+            return reverse(bytes);
+        }
+        private static byte[] reverse(byte[] bytes) {
+            byte[] reversed = new byte[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                reversed[i] = bytes[bytes.length - 1 - i];
+            }
+            return reversed;
+        }
+    }
+
     @Reference(address = {
         @Reference.Address(host = HOST, port = PORT)
     })
     private interface Service {
         String hello(String name);
+        CompletableFuture<String> helloAsync(String name);
     }
 
     private static class ServiceImpl implements Service {
@@ -68,5 +512,97 @@ public class Rpc4jNettyCodecTest {
         public String hello(String name) {
             return "hello " + name;
         }
+        @Override
+        public CompletableFuture<String> helloAsync(String name) {
+            return CompletableFuture.supplyAsync(() -> hello(name));
+        }
+    }
+
+    @Reference(address = {
+        @Reference.Address(host = HOST, port = PORT)
+    }, timeout = 100)
+    private interface SlowService {
+        String hello(String name);
+        CompletableFuture<String> helloAsync(String name);
+    }
+
+    @Reference(address = {
+        @Reference.Address(host = HOST, port = PORT)
+    }, warmUp = true, warmUpHeartbeats = 2)
+    private interface WarmUpService extends Service {}
+
+    @Reference(address = {
+        @Reference.Address(host = HOST, port = PORT)
+    }, timeout = 2000)
+    private interface DeadlineService {
+        int remaining();
+    }
+
+    private static class DeadlineServiceImpl implements DeadlineService {
+        @Override
+        public int remaining() {
+            Deadline deadline = Deadline.current();
+            return deadline == null ? -1 : (int)deadline.remaining(TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Reference(address = {
+        @Reference.Address(host = HOST, port = PORT)
+    })
+    private interface StreamService {
+        Stream<Integer> range(int count);
+        Stream<Integer> failAt(int index);
+        Flow.Publisher<Integer> rangePublisher(int count);
+    }
+
+    private static class StreamServiceImpl implements StreamService {
+        private static final CompletableFuture<Boolean> cancelled = new CompletableFuture<>();
+        @Override
+        public Stream<Integer> range(int count) {
+            return IntStream.range(0, count).boxed();
+        }
+        @Override
+        public Stream<Integer> failAt(int index) {
+            return IntStream.range(0, index + 1).boxed().peek(i -> {
+                if (i == index) {
+                    throw new IllegalStateException("fail at " + index);
+                }
+            });
+        }
+        @Override
+        public Flow.Publisher<Integer> rangePublisher(int count) {
+            return subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+                private int next = 0;
+                private boolean done = false;
+                @Override
+                public synchronized void request(long n) {
+                    for (long i = 0; i < n && next < count && !done; i++) {
+                        subscriber.onNext(next++);
+                    }
+                    if (next == count && !done) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                }
+                @Override
+                public synchronized void cancel() {
+                    done = true;
+                    cancelled.complete(true);
+                }
+            });
+        }
+    }
+
+    private static class SlowServiceImpl implements SlowService {
+        @SneakyThrows
+        @Override
+        public String hello(String name) {
+            Thread.sleep(1000);
+            return "hello " + name;
+        }
+        @Override
+        public CompletableFuture<String> helloAsync(String name) {
+            return CompletableFuture.supplyAsync(() -> hello(name));
+        }
     }
 }
@@ -0,0 +1,33 @@
+package io.github.createsequence.rpc4j.core.transport.channel;
+
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test for {@link EventLoopResources}
+ *
+ * @author huangchengxing
+ */
+public class EventLoopResourcesTest {
+
+    @SneakyThrows
+    @Test
+    public void testInEventLoop() {
+        EventLoopResources resources = new EventLoopResources(new NioTransport(), 1);
+        EventLoopResources another = new EventLoopResources(new NioTransport(), 1);
+        try {
+            Assert.assertFalse(resources.inEventLoop());
+            Assert.assertTrue(resources.getWorkerGroup().submit(resources::inEventLoop).get(5, TimeUnit.SECONDS));
+            Assert.assertNotNull(resources.getWorkerGroup().submit(resources::currentEventLoop).get(5, TimeUnit.SECONDS));
+            // 其他资源中的工作线程不属于当前资源
+            Assert.assertFalse(another.getWorkerGroup().submit(resources::inEventLoop).get(5, TimeUnit.SECONDS));
+            Assert.assertFalse(resources.getBossGroup().submit(resources::inEventLoop).get(5, TimeUnit.SECONDS));
+        } finally {
+            resources.close();
+            another.close();
+        }
+    }
+}
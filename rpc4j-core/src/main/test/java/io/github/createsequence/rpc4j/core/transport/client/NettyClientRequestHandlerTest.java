@@ -0,0 +1,244 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.common.DefaultComponentManager;
+import io.github.createsequence.common.exception.RequestFailException;
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.rpc4j.core.compress.Compressor;
+import io.github.createsequence.rpc4j.core.compress.NoneCompressor;
+import io.github.createsequence.rpc4j.core.serialize.FastjsonSerializer;
+import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import io.github.createsequence.rpc4j.core.transport.RemoteAddress;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyDecoder;
+import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import lombok.SneakyThrows;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * test for {@link NettyClientRequestHandler}
+ *
+ * @author huangchengxing
+ */
+public class NettyClientRequestHandlerTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 8088;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger pings = new AtomicInteger();
+    private ComponentManager componentManager;
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private NettyClientRequestHandler handler;
+
+    @Before
+    public void init() {
+        componentManager = new DefaultComponentManager();
+        componentManager.registerComponent(Compressor.class, Rpc4jProtocol.CompressionType.NONE.getName(), new NoneCompressor());
+        componentManager.registerComponent(Serializer.class, Rpc4jProtocol.SerializationType.FASTJSON.getName(), new FastjsonSerializer());
+        group = new NioEventLoopGroup(1);
+        serverChannel = startHeartbeatServer();
+        handler = new NettyClientRequestHandler(componentManager);
+        handler.setHeartbeatIntervalMillis(0);
+        handler.setMethodIdHandshake(false);
+    }
+
+    @After
+    public void destroy() {
+        handler.close();
+        serverChannel.close().syncUninterruptibly();
+        group.shutdownGracefully(0, 5, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @SneakyThrows
+    @Test
+    public void testWarmUp() {
+        handler.setMaxConnectionsPerAddress(3);
+        RemoteAddress address = new RemoteAddress(RemoteAddress.Type.FIXED_IP, HOST, PORT);
+        // 预热完成时，全部连接均已建立，且每条连接上的心跳都已经收到响应
+        handler.warmUp(address, 2).get(5, TimeUnit.SECONDS);
+        NettyConnectionPool pool = handler.getConnectionPool(new InetSocketAddress(HOST, PORT));
+        Assert.assertEquals(3, pool.getActiveConnectionCount());
+        Assert.assertEquals(3, connections.get());
+        Assert.assertEquals(6, pings.get());
+
+        // 再次预热时复用已经建立的连接
+        handler.warmUp(address, 1).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(3, pool.getActiveConnectionCount());
+        Assert.assertEquals(3, connections.get());
+        Assert.assertEquals(9, pings.get());
+    }
+
+    @SneakyThrows
+    @Test
+    public void testRemoveEmptyPoolAfterCloseIdleConnections() {
+        RemoteAddress address = new RemoteAddress(RemoteAddress.Type.FIXED_IP, HOST, PORT);
+        handler.warmUp(address, 0).get(5, TimeUnit.SECONDS);
+        InetSocketAddress socketAddress = new InetSocketAddress(HOST, PORT);
+        NettyConnectionPool pool = handler.getConnectionPool(socketAddress);
+
+        // 连接全部被回收后移除连接池，再次获取时将创建新的连接池
+        handler.setIdleTimeoutMillis(-1);
+        handler.closeIdleConnections();
+        Assert.assertTrue(pool.isClosed());
+        NettyConnectionPool newPool = handler.getConnectionPool(socketAddress);
+        Assert.assertNotSame(pool, newPool);
+        Assert.assertTrue(newPool.acquireAsync().get(5, TimeUnit.SECONDS).isAvailable());
+    }
+
+    @SneakyThrows
+    @Test
+    public void testRemoveRequestWhenInterrupted() {
+        handler.setMaxConnectionsPerAddress(1);
+        RemoteAddress address = new RemoteAddress(RemoteAddress.Type.FIXED_IP, HOST, PORT);
+        handler.warmUp(address, 0).get(5, TimeUnit.SECONDS);
+        NettyConnection connection = handler.getConnectionPool(new InetSocketAddress(HOST, PORT)).acquireAsync().get();
+
+        // 服务端不会响应该请求，调用方被中断后，请求应当立即从连接中移除
+        RpcInvocation invocation = new DefaultInvocation(
+            List.of(address), "io.github.createsequence.Service", "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" }
+        );
+        invocation.setAttribute(Attributes.REMOTE_ADDRESS, address);
+        invocation.setAttribute(Attributes.REQUEST_TIMEOUT, 1L);
+        invocation.setAttribute(Attributes.REQUEST_TIMEOUT_UNIT, TimeUnit.HOURS);
+        invocation.setAttribute(Attributes.REQUEST_PROTOCOL_VERSION, Rpc4jProtocol.Version.V1.getCode());
+        invocation.setAttribute(Attributes.COMPRESSION_TYPE, Rpc4jProtocol.CompressionType.NONE.getCode());
+        invocation.setAttribute(Attributes.SERIALIZATION_TYPE, Rpc4jProtocol.SerializationType.FASTJSON.getCode());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            try {
+                handler.invoke(invocation);
+            } catch (Throwable ex) {
+                error.set(ex);
+            }
+        });
+        caller.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (connection.getUncompletedRequestCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, connection.getUncompletedRequestCount());
+        // 调用方可能尚未开始等待响应，因此持续中断直到其退出
+        while (caller.isAlive() && System.currentTimeMillis() < deadline) {
+            caller.interrupt();
+            caller.join(100);
+        }
+        Assert.assertTrue(error.get() instanceof Rpc4jException);
+        Assert.assertEquals(0, connection.getUncompletedRequestCount());
+    }
+
+    @Test
+    public void testCompleteWithUndecodedResponse() {
+        EmbeddedChannel encoder = new EmbeddedChannel(new Rpc4jNettyEncoder(componentManager));
+        EmbeddedChannel channel = new EmbeddedChannel(new Rpc4jNettyDecoder(componentManager), handler.new ClientInboundHandler());
+        NettyConnection connection = new NettyConnection(channel, 1);
+        CompletableFuture<Object> request = connection.registerRequest(1L);
+
+        // IO线程仅根据报文头部转交响应，响应数据由等待响应的调用方反序列化
+        Assert.assertTrue(encoder.writeOutbound(responseMessage(1L)));
+        ByteBuf frame = encoder.readOutbound();
+        channel.writeInbound(frame);
+        Assert.assertTrue(request.isDone());
+        Message<?> message = (Message<?>)request.join();
+        Assert.assertFalse(message.isPayloadDeserialized());
+        Assert.assertEquals("hello rpc4j", ((Response)message.getPayload()).getResult());
+        Assert.assertEquals(0, frame.refCnt());
+
+        // 没有请求等待的响应将被直接释放
+        Assert.assertTrue(encoder.writeOutbound(responseMessage(2L)));
+        frame = encoder.readOutbound();
+        channel.writeInbound(frame);
+        Assert.assertEquals(0, frame.refCnt());
+        encoder.finishAndReleaseAll();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFailRequestWhenResponseDiscarded() {
+        EmbeddedChannel encoder = new EmbeddedChannel(new Rpc4jNettyEncoder(componentManager, 1024));
+        EmbeddedChannel channel = new EmbeddedChannel(new Rpc4jNettyDecoder(componentManager, 4096), handler.new ClientInboundHandler());
+        NettyConnection connection = new NettyConnection(channel, 1);
+        CompletableFuture<Object> request = connection.registerRequest(1L);
+
+        // 响应数据超出解码器暂存上限而被丢弃时，等待该响应的请求立即以异常结束
+        Assert.assertTrue(encoder.writeOutbound(responseMessage(1L, "rpc4j".repeat(2048))));
+        channel.writeInbound((ByteBuf)encoder.readOutbound());
+        Assert.assertTrue(request.isCompletedExceptionally());
+        CompletionException ex = Assert.assertThrows(CompletionException.class, request::join);
+        Assert.assertTrue(ex.getCause() instanceof RequestFailException);
+        Assert.assertEquals(0, connection.getUncompletedRequestCount());
+        encoder.finishAndReleaseAll();
+        channel.finishAndReleaseAll();
+    }
+
+    private static Message<Response> responseMessage(long requestId) {
+        return responseMessage(requestId, "hello rpc4j");
+    }
+
+    private static Message<Response> responseMessage(long requestId, String result) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_RESPONSE.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            requestId, MethodTable.NO_METHOD_ID, Response.success(result)
+        );
+    }
+
+    @SneakyThrows
+    private Channel startHeartbeatServer() {
+        return new ServerBootstrap()
+            .group(group)
+            .channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    ch.pipeline().addLast(new Rpc4jNettyEncoder(componentManager));
+                    ch.pipeline().addLast(new Rpc4jNettyDecoder(componentManager));
+                    ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelActive(ChannelHandlerContext ctx) {
+                            connections.incrementAndGet();
+                        }
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            Message<?> message = (Message<?>)msg;
+                            if (message.is(Rpc4jProtocol.MessageType.HEARTBEAT_PING)) {
+                                pings.incrementAndGet();
+                                ctx.writeAndFlush(Message.heartbeat(Rpc4jProtocol.MessageType.HEARTBEAT_PONG, message.getRequestId()));
+                            }
+                            message.releasePayload();
+                        }
+                    });
+                }
+            })
+            .bind(HOST, PORT).sync().channel();
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.common.exception.ConnectionClosingException;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import lombok.SneakyThrows;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test for {@link NettyConnectionPool}
+ *
+ * @author huangchengxing
+ */
+public class NettyConnectionPoolTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 8090;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private EventLoopGroup group;
+    private Channel serverChannel;
+    private Bootstrap bootstrap;
+
+    @Before
+    public void init() throws InterruptedException {
+        group = new NioEventLoopGroup(1);
+        serverChannel = new ServerBootstrap()
+            .group(group)
+            .channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelActive(ChannelHandlerContext ctx) {
+                    connections.incrementAndGet();
+                }
+                @Override
+                public boolean isSharable() {
+                    return true;
+                }
+            })
+            .bind(HOST, PORT).sync().channel();
+        bootstrap = new Bootstrap()
+            .group(group)
+            .channel(NioSocketChannel.class)
+            .handler(new ChannelInitializer<>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                }
+            });
+    }
+
+    @After
+    public void destroy() {
+        serverChannel.close().syncUninterruptibly();
+        group.shutdownGracefully(0, 5, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @SneakyThrows
+    @Test
+    public void testMaxConnections() {
+        NettyConnectionPool pool = new NettyConnectionPool(new InetSocketAddress(HOST, PORT), bootstrap, 2, 0);
+        // 获取连接的次数超过最大连接数时，复用已经建立的连接
+        Set<NettyConnection> acquired = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            acquired.add(pool.acquire(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(2, acquired.size());
+        Assert.assertEquals(2, pool.getActiveConnectionCount());
+        assertConnections(2);
+        pool.close();
+    }
+
+    @SneakyThrows
+    @Test
+    public void testReconnectWhenConnectionClosed() {
+        NettyConnectionPool pool = new NettyConnectionPool(new InetSocketAddress(HOST, PORT), bootstrap, 1, 0);
+        NettyConnection connection = pool.acquire(5, TimeUnit.SECONDS);
+        connection.getChannel().close().syncUninterruptibly();
+
+        // 槽位上的连接失效后，在该槽位上重新建立连接
+        NettyConnection reconnected = pool.acquire(5, TimeUnit.SECONDS);
+        Assert.assertNotSame(connection, reconnected);
+        Assert.assertTrue(reconnected.isAvailable());
+        Assert.assertEquals(1, pool.getActiveConnectionCount());
+        assertConnections(2);
+        pool.close();
+    }
+
+    @SneakyThrows
+    @Test
+    public void testCloseIdleConnections() {
+        NettyConnectionPool pool = new NettyConnectionPool(new InetSocketAddress(HOST, PORT), bootstrap, 1, 0);
+        NettyConnection connection = pool.acquire(5, TimeUnit.SECONDS);
+        long requestId = connection.nextRequestId();
+        connection.registerRequest(requestId);
+
+        // 存在未完成请求的连接不会被回收，连接池也不能关闭
+        pool.closeIdleConnections(-1);
+        Assert.assertTrue(connection.isAvailable());
+        Assert.assertFalse(pool.closeIfEmpty());
+
+        // 请求完成后连接被回收，此后连接上的注册都将失败
+        connection.removeRequest(requestId);
+        pool.closeIdleConnections(-1);
+        Assert.assertTrue(connection.isClosing());
+        Assert.assertEquals(0, pool.getActiveConnectionCount());
+        CompletableFuture<Object> request = connection.registerRequest(connection.nextRequestId());
+        ExecutionException ex = Assert.assertThrows(ExecutionException.class, request::get);
+        Assert.assertTrue(ex.getCause() instanceof ConnectionClosingException);
+
+        // 全部连接都被回收后连接池可以关闭，此后不再建立连接
+        Assert.assertTrue(pool.closeIfEmpty());
+        ex = Assert.assertThrows(ExecutionException.class, () -> pool.acquireAsync().get());
+        Assert.assertTrue(ex.getCause() instanceof ConnectionClosingException);
+        assertConnections(1);
+    }
+
+    private void assertConnections(int expected) throws InterruptedException {
+        // 客户端连接建立完成时，服务端可能尚未处理该连接
+        long deadline = System.currentTimeMillis() + 5000;
+        while (connections.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, connections.get());
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.common.exception.ConnectionClosingException;
+import io.github.createsequence.common.exception.OverloadException;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * test for {@link NettyConnection}
+ *
+ * @author huangchengxing
+ */
+public class NettyConnectionTest {
+
+    @Test
+    public void testSendWhenWritable() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyConnection connection = new NettyConnection(channel, 1);
+        CompletableFuture<Void> future = connection.send("message");
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals("message", channel.readOutbound());
+        Assert.assertTrue(connection.isWritable());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBackpressure() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 2048));
+        NettyConnection connection = new NettyConnection(channel, 2);
+
+        // 写入但不刷新，使写缓冲区超过高水位线
+        channel.write(Unpooled.wrappedBuffer(new byte[4096]));
+        Assert.assertFalse(channel.isWritable());
+        Assert.assertFalse(connection.isWritable());
+
+        CompletableFuture<Void> first = connection.send("first");
+        CompletableFuture<Void> second = connection.send("second");
+        CompletableFuture<Void> rejected = connection.send("rejected");
+        Assert.assertFalse(first.isDone());
+        Assert.assertFalse(second.isDone());
+        Assert.assertEquals(2, connection.getPendingWriteCount());
+        ExecutionException ex = Assert.assertThrows(ExecutionException.class, rejected::get);
+        Assert.assertTrue(ex.getCause() instanceof OverloadException);
+
+        // 通道恢复可写后，按顺序写出等待中的消息
+        channel.flush();
+        Assert.assertTrue(channel.isWritable());
+        connection.drainPendingWrites();
+        Assert.assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        Assert.assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        Assert.assertEquals(0, connection.getPendingWriteCount());
+        ((ByteBuf)channel.readOutbound()).release();
+        Assert.assertEquals("first", channel.readOutbound());
+        Assert.assertEquals("second", channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testFailPendingWritesOnClose() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 2048));
+        NettyConnection connection = new NettyConnection(channel, 1);
+        channel.write(Unpooled.wrappedBuffer(new byte[4096]));
+        CompletableFuture<Void> pending = connection.send("pending");
+        Assert.assertFalse(pending.isDone());
+        channel.close();
+        Assert.assertTrue(pending.isCompletedExceptionally());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testCloseAfterGoingAway() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyConnection connection = new NettyConnection(channel, 1);
+        long requestId = connection.nextRequestId();
+        CompletableFuture<Object> request = connection.registerRequest(requestId);
+
+        // 服务端通知连接即将关闭后，连接不再可用，但仍会等待已有的请求完成
+        connection.markGoingAway();
+        Assert.assertFalse(connection.isAvailable());
+        Assert.assertTrue(channel.isActive());
+
+        connection.completeRequest(requestId, "response");
+        Assert.assertEquals("response", request.join());
+        Assert.assertFalse(channel.isActive());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testMarkClosingIfIdle() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyConnection connection = new NettyConnection(channel, 1);
+        long requestId = connection.nextRequestId();
+        connection.registerRequest(requestId);
+
+        // 存在未完成的请求时不能标记为正在关闭
+        Assert.assertFalse(connection.markClosingIfIdle());
+        Assert.assertFalse(connection.isClosing());
+        Assert.assertTrue(connection.isAvailable());
+
+        // 标记为正在关闭后，连接不再可用，且此后的注册都将失败
+        connection.removeRequest(requestId);
+        Assert.assertTrue(connection.markClosingIfIdle());
+        Assert.assertFalse(connection.isAvailable());
+        CompletableFuture<Object> request = connection.registerRequest(connection.nextRequestId());
+        ExecutionException ex = Assert.assertThrows(ExecutionException.class, request::get);
+        Assert.assertTrue(ex.getCause() instanceof ConnectionClosingException);
+        Assert.assertEquals(0, connection.getUncompletedRequestCount());
+        channel.finishAndReleaseAll();
+    }
+}
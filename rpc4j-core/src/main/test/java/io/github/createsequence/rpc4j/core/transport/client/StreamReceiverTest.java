@@ -0,0 +1,70 @@
+package io.github.createsequence.rpc4j.core.transport.client;
+
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * test for {@link StreamReceiver}
+ *
+ * @author huangchengxing
+ */
+public class StreamReceiverTest {
+
+    @Test
+    public void testCancelBeforeBind() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyConnection connection = new NettyConnection(channel, 1);
+        StreamReceiver receiver = new StreamReceiver(new NoopSubscriber(), Rpc4jProtocol.INITIAL_STREAM_CREDIT);
+
+        // 绑定前已经取消的流不会被注册，也不会发送请求
+        receiver.cancel();
+        Assert.assertNull(receiver.bind(connection, 1L, Message.streamCredit(1L, 1)));
+        Assert.assertNull(connection.getStream(1L));
+        Assert.assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testCancelAfterBind() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        NettyConnection connection = new NettyConnection(channel, 1);
+        StreamReceiver receiver = new StreamReceiver(new NoopSubscriber(), Rpc4jProtocol.INITIAL_STREAM_CREDIT);
+
+        // 绑定时即完成注册与发送，此后的取消总能移除已经注册的流，且取消消息在请求之后发送
+        CompletableFuture<Void> sent = receiver.bind(connection, 1L, Message.streamCredit(1L, 1));
+        Assert.assertNotNull(sent);
+        Assert.assertSame(receiver, connection.getStream(1L));
+        receiver.cancel();
+        Assert.assertNull(connection.getStream(1L));
+        Message<?> request = channel.readOutbound();
+        Assert.assertTrue(request.is(Rpc4jProtocol.MessageType.STREAM_CREDIT));
+        Message<?> cancel = channel.readOutbound();
+        Assert.assertTrue(cancel.is(Rpc4jProtocol.MessageType.STREAM_CANCEL));
+        Assert.assertEquals(1L, cancel.getRequestId());
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * 不处理任何元素的订阅者
+     */
+    private static class NoopSubscriber implements Flow.Subscriber<Object> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+        }
+        @Override
+        public void onNext(Object item) {
+        }
+        @Override
+        public void onError(Throwable throwable) {
+        }
+        @Override
+        public void onComplete() {
+        }
+    }
+}
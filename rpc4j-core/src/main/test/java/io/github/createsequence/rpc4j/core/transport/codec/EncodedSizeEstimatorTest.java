@@ -0,0 +1,42 @@
+package io.github.createsequence.rpc4j.core.transport.codec;
+
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * test for {@link EncodedSizeEstimator}
+ *
+ * @author huangchengxing
+ */
+public class EncodedSizeEstimatorTest {
+
+    private static final byte REQUEST = Rpc4jProtocol.MessageType.RPC_REQUEST.getCode();
+    private static final byte RESPONSE = Rpc4jProtocol.MessageType.RPC_RESPONSE.getCode();
+
+    @Test
+    public void testEstimate() {
+        EncodedSizeEstimator estimator = new EncodedSizeEstimator();
+        int initial = estimator.estimate(REQUEST);
+        Assert.assertTrue(initial > 0);
+
+        // 更大的报文将立即提高估算值
+        estimator.record(REQUEST, 4096);
+        Assert.assertEquals(4096, estimator.estimate(REQUEST));
+        // 不同类型的消息分别估算
+        Assert.assertEquals(initial, estimator.estimate(RESPONSE));
+
+        // 更小的报文将逐步降低估算值
+        estimator.record(REQUEST, 1024);
+        int decayed = estimator.estimate(REQUEST);
+        Assert.assertTrue(decayed < 4096 && decayed > 1024);
+        for (int i = 0; i < 100; i++) {
+            estimator.record(REQUEST, 1024);
+        }
+        Assert.assertEquals(1024, estimator.estimate(REQUEST), 8);
+
+        // 估算值不会超过上限
+        estimator.record(RESPONSE, Integer.MAX_VALUE);
+        Assert.assertEquals(EncodedSizeEstimator.MAX_ESTIMATED_SIZE, estimator.estimate(RESPONSE));
+    }
+}
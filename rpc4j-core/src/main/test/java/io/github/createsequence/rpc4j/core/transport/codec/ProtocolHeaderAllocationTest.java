@@ -0,0 +1,128 @@
+package io.github.createsequence.rpc4j.core.transport.codec;
+
+import io.github.createsequence.common.DefaultComponentManager;
+import io.github.createsequence.rpc4j.core.transport.EncodedPayload;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * 协议头部处理的分配回归测试，确保编码心跳帧、编码已经序列化的响应帧与查找协议编码时不产生任何堆内存分配。
+ * 统计分配量的过程本身可能产生少量分配，因此断言的是全部迭代的总分配量不超过一个固定的余量
+ *
+ * @author huangchengxing
+ */
+public class ProtocolHeaderAllocationTest {
+
+    private static final int WARMUP_ITERATIONS = 100_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    /**
+     * 全部迭代允许的总分配字节数，仅用于容纳统计过程本身的分配，远小于每次迭代分配一个对象的总量
+     */
+    private static final long ALLOCATION_SLACK_BYTES = 1024L;
+
+    @Test
+    public void testEncodeHeartbeatWithoutAllocation() throws Exception {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        Rpc4jNettyEncoder encoder = new Rpc4jNettyEncoder(new DefaultComponentManager());
+        Message<Object> ping = new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.HEARTBEAT_PING.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            1L, MethodTable.NO_METHOD_ID, null
+        );
+        assertEncodeWithoutAllocation(threadBean, encoder, ping);
+    }
+
+    @Test
+    public void testEncodeEncodedResponseWithoutAllocation() throws Exception {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        Rpc4jNettyEncoder encoder = new Rpc4jNettyEncoder(new DefaultComponentManager());
+        Message<Object> response = new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_RESPONSE.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            1L, MethodTable.NO_METHOD_ID, new EncodedPayload(new byte[128], true)
+        );
+        assertEncodeWithoutAllocation(threadBean, encoder, response);
+    }
+
+    private static void assertEncodeWithoutAllocation(
+        com.sun.management.ThreadMXBean threadBean, Rpc4jNettyEncoder encoder, Message<Object> message) throws Exception {
+        ByteBuf buf = Unpooled.buffer(256);
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            buf.clear();
+            encoder.encode(null, message, buf);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            buf.clear();
+            encoder.encode(null, message, buf);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        buf.release();
+        Assert.assertTrue("编码" + MEASURED_ITERATIONS + "帧共分配了" + allocated + "字节", allocated <= ALLOCATION_SLACK_BYTES);
+    }
+
+    @Test
+    public void testLookupWithoutAllocation() {
+        com.sun.management.ThreadMXBean threadBean = threadBean();
+        Message<Object> ping = new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.HEARTBEAT_PING.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            1L, MethodTable.NO_METHOD_ID, null
+        );
+        Assert.assertSame(ping.getHeader(), ping.getHeader());
+        int found = lookup(ping, WARMUP_ITERATIONS);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        found += lookup(ping, MEASURED_ITERATIONS);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        Assert.assertTrue(found > 0);
+        Assert.assertTrue("查找" + MEASURED_ITERATIONS + "次共分配了" + allocated + "字节", allocated <= ALLOCATION_SLACK_BYTES);
+    }
+
+    @Test
+    public void testValueOf() {
+        for (Rpc4jProtocol.MessageType type : Rpc4jProtocol.MessageType.values()) {
+            Assert.assertSame(type, Rpc4jProtocol.MessageType.valueOf(type.getCode()));
+        }
+        for (Rpc4jProtocol.SerializationType type : Rpc4jProtocol.SerializationType.values()) {
+            Assert.assertSame(type, Rpc4jProtocol.SerializationType.valueOf(type.getCode()));
+        }
+        for (Rpc4jProtocol.CompressionType type : Rpc4jProtocol.CompressionType.values()) {
+            Assert.assertSame(type, Rpc4jProtocol.CompressionType.valueOf(type.getCode()));
+        }
+        Assert.assertNull(Rpc4jProtocol.MessageType.valueOf((byte)-1));
+        Assert.assertNull(Rpc4jProtocol.Version.valueOf((byte)0));
+    }
+
+    private static int lookup(Message<Object> message, int iterations) {
+        int found = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (message.isHeartbeat()
+                && message.getHeader().messageType() == Rpc4jProtocol.MessageType.valueOf(message.getMessageType())
+                && Rpc4jProtocol.ResponseStatus.valueOf((byte)i) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        return threadBean;
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.common.DefaultComponentManager;
+import io.github.createsequence.rpc4j.core.compress.Compressor;
+import io.github.createsequence.rpc4j.core.compress.NoneCompressor;
+import io.github.createsequence.rpc4j.core.serialize.FastjsonSerializer;
+import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
+import io.github.createsequence.rpc4j.core.transport.Deadline;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import io.github.createsequence.rpc4j.core.transport.Request;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.channel.NettyTransports;
+import io.github.createsequence.rpc4j.core.transport.codec.DiscardedMessage;
+import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * test for {@link NettyServer}
+ *
+ * @author huangchengxing
+ */
+public class NettyServerTest {
+
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 8087;
+
+    @SneakyThrows
+    @Test
+    public void testStartWithoutBlocking() {
+        NettyServer server = new NettyServer(new DefaultComponentManager(), new ReflectiveMethodInvokeHandler());
+        server.start(HOST, PORT);
+        Assert.assertTrue(server.isStarted());
+        Assert.assertEquals(1, server.getListeningChannelCount());
+        try (Socket socket = new Socket(HOST, PORT)) {
+            Assert.assertTrue(socket.isConnected());
+        }
+        server.stop();
+        Assert.assertTrue(server.isStopped());
+        Assert.assertEquals(0, server.getListeningChannelCount());
+    }
+
+    @SneakyThrows
+    @Test
+    public void testReusePort() {
+        NettyServer server = new NettyServer(new DefaultComponentManager(), new ReflectiveMethodInvokeHandler());
+        server.setReusePort(true);
+        server.setAcceptors(2);
+        server.start(HOST, PORT);
+        boolean supported = NettyTransports.getDefault().getReusePortOption() != null;
+        int expected = supported ? Math.min(2, Runtime.getRuntime().availableProcessors()) : 1;
+        Assert.assertEquals(expected, server.getListeningChannelCount());
+        for (int i = 0; i < 4; i++) {
+            try (Socket socket = new Socket(HOST, PORT)) {
+                Assert.assertTrue(socket.isConnected());
+            }
+        }
+        server.stop();
+        Assert.assertEquals(0, server.getListeningChannelCount());
+    }
+
+    @SneakyThrows
+    @Test
+    public void testStopAfterInFlightRequestsCompleted() {
+        ComponentManager componentManager = new DefaultComponentManager();
+        componentManager.registerComponent(Compressor.class, Rpc4jProtocol.CompressionType.NONE.getName(), new NoneCompressor());
+        componentManager.registerComponent(Serializer.class, Rpc4jProtocol.SerializationType.FASTJSON.getName(), new FastjsonSerializer());
+        NettyServer server = new NettyServer(componentManager, invocation -> {
+            sleepQuietly(200);
+            return "ok";
+        });
+        server.setDrainTimeoutMillis(10_000L);
+        server.start(HOST, PORT);
+
+        // 将请求编码后直接通过套接字发送
+        EmbeddedChannel encoder = new EmbeddedChannel(new Rpc4jNettyEncoder(componentManager));
+        encoder.writeOutbound(requestMessage(1L, Rpc4jProtocol.NO_TIMEOUT));
+        ByteBuf encoded = encoder.readOutbound();
+        byte[] bytes = new byte[encoded.readableBytes()];
+        encoded.readBytes(bytes);
+        encoded.release();
+        try (Socket socket = new Socket(HOST, PORT)) {
+            socket.getOutputStream().write(bytes);
+            socket.getOutputStream().flush();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (server.getInFlightRequests() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, server.getInFlightRequests());
+
+            // 请求处理完毕后立即停止，而不必等待至超时
+            long start = System.currentTimeMillis();
+            server.stop();
+            Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+            Assert.assertEquals(0, server.getInFlightRequests());
+        }
+    }
+
+    @Test
+    public void testDropExpiredRequest() {
+        List<Deadline> deadlines = new ArrayList<>();
+        RpcInvocationHandler invocationHandler = invocation -> {
+            deadlines.add(Deadline.current());
+            return "ok";
+        };
+        NettyServer server = new NettyServer(new DefaultComponentManager(), invocationHandler);
+        // 请求在分发线程池中排队一段时间后才开始执行
+        server.setDispatchExecutor(task -> {
+            sleepQuietly(50);
+            task.run();
+        });
+        EmbeddedChannel channel = new EmbeddedChannel(server.new ServerInboundHandler());
+
+        // 排队期间已经超过截止时间的请求将被丢弃
+        channel.writeInbound(requestMessage(1L, 10));
+        Assert.assertTrue(deadlines.isEmpty());
+        Assert.assertNull(channel.readOutbound());
+
+        // 未超时的请求正常执行，且执行期间截止时间绑定在当前线程上
+        channel.writeInbound(requestMessage(2L, 10_000));
+        Assert.assertEquals(1, deadlines.size());
+        Assert.assertNotNull(deadlines.get(0));
+        long remaining = deadlines.get(0).remaining(TimeUnit.MILLISECONDS);
+        Assert.assertTrue(remaining > 0 && remaining <= 10_000);
+        Assert.assertEquals("ok", channel.readOutbound());
+        Assert.assertNull(Deadline.current());
+
+        // 未携带超时预算的请求不限制截止时间
+        channel.writeInbound(requestMessage(3L, Rpc4jProtocol.NO_TIMEOUT));
+        Assert.assertEquals(2, deadlines.size());
+        Assert.assertNull(deadlines.get(1));
+        Assert.assertEquals("ok", channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testIgnoreRejectedRequestsWhenAdjustingLimit() {
+        NettyServer server = new NettyServer(new DefaultComponentManager(), invocation -> {
+            sleepQuietly(5);
+            return "ok";
+        });
+        VegasConcurrencyLimiter limiter = new VegasConcurrencyLimiter(10, 1, 100, 1);
+        server.setConcurrencyLimiter(limiter);
+        AtomicBoolean rejecting = new AtomicBoolean(true);
+        server.setDispatchExecutor(task -> {
+            if (rejecting.get()) {
+                throw new RejectedExecutionException();
+            }
+            task.run();
+        });
+        EmbeddedChannel channel = new EmbeddedChannel(server.new ServerInboundHandler());
+
+        // 分发线程池已满时请求被立即拒绝，其耗时不能作为最小耗时，否则正常请求的耗时将被误判为排队
+        for (long i = 1; i <= 20; i++) {
+            channel.writeInbound(requestMessage(i, Rpc4jProtocol.NO_TIMEOUT));
+            Message<?> message = channel.readOutbound();
+            Assert.assertTrue(((Response)message.getPayload()).isOverloaded());
+        }
+        rejecting.set(false);
+        for (long i = 21; i <= 40; i++) {
+            channel.writeInbound(requestMessage(i, Rpc4jProtocol.NO_TIMEOUT));
+            Assert.assertEquals("ok", channel.readOutbound());
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertEquals(0, server.getInFlightRequests());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testRejectDiscardedRequest() {
+        NettyServer server = new NettyServer(new DefaultComponentManager(), invocation -> "ok");
+        EmbeddedChannel channel = new EmbeddedChannel(server.new ServerInboundHandler());
+
+        // 数据长度超出上限而被解码器丢弃的请求，将直接以失败响应拒绝
+        channel.writeInbound(new DiscardedMessage(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_REQUEST.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(), 1L
+        ));
+        Message<?> message = channel.readOutbound();
+        Assert.assertTrue(message.is(Rpc4jProtocol.MessageType.RPC_RESPONSE));
+        Assert.assertEquals(1L, message.getRequestId());
+        Assert.assertFalse(((Response)message.getPayload()).isSuccess());
+        Assert.assertEquals(0, server.getInFlightRequests());
+        channel.finishAndReleaseAll();
+    }
+
+    private static Message<Request> requestMessage(long requestId, int timeout) {
+        return new Message<>(
+            Rpc4jProtocol.Version.V1.getCode(), Rpc4jProtocol.MessageType.RPC_REQUEST.getCode(),
+            Rpc4jProtocol.SerializationType.FASTJSON.getCode(), Rpc4jProtocol.CompressionType.NONE.getCode(),
+            requestId, MethodTable.NO_METHOD_ID, timeout, new Request("foo", "bar", new Class<?>[0], new Object[0])
+        );
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
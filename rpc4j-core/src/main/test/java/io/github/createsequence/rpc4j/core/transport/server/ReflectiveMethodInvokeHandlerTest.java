@@ -0,0 +1,105 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.common.exception.Rpc4jException;
+import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * test for {@link ReflectiveMethodInvokeHandler}
+ *
+ * @author huangchengxing
+ */
+public class ReflectiveMethodInvokeHandlerTest {
+
+    @Test
+    public void testInvokeOverloadedMethods() {
+        ReflectiveMethodInvokeHandler handler = new ReflectiveMethodInvokeHandler();
+        handler.registerService(FooService.class, new FooServiceImpl());
+        // 同名方法按参数类型区分
+        Assert.assertEquals("hello", handler.invoke(invocation("hello", new Class<?>[0], new Object[0])));
+        Assert.assertEquals("hello rpc4j", handler.invoke(invocation(
+            "hello", new Class<?>[]{ String.class }, new Object[]{ "rpc4j" }
+        )));
+        Assert.assertEquals("hello rpc4j 2", handler.invoke(invocation(
+            "hello", new Class<?>[]{ String.class, int.class }, new Object[]{ "rpc4j", 2 }
+        )));
+        Assert.assertThrows(Rpc4jException.class, () -> handler.invoke(invocation(
+            "hello", new Class<?>[]{ Integer.class }, new Object[]{ 1 }
+        )));
+    }
+
+    @Test
+    public void testUnregisterService() {
+        ReflectiveMethodInvokeHandler handler = new ReflectiveMethodInvokeHandler();
+        handler.registerService(FooService.class, new FooServiceImpl());
+        Assert.assertEquals("hello", handler.invoke(invocation("hello", new Class<?>[0], new Object[0])));
+
+        // 注销后不再调用服务，重新注册后调用新的服务实例
+        handler.unregisterService(FooService.class);
+        Assert.assertThrows(Rpc4jException.class, () -> handler.invoke(invocation("hello", new Class<?>[0], new Object[0])));
+        handler.registerService(FooService.class, new FooService() {
+            @Override
+            public String hello() {
+                return "hi";
+            }
+            @Override
+            public String hello(String name) {
+                return "hi " + name;
+            }
+            @Override
+            public String hello(String name, int times) {
+                return "hi " + name + " " + times;
+            }
+            @Override
+            public void fail() {
+            }
+        });
+        Assert.assertEquals("hi", handler.invoke(invocation("hello", new Class<?>[0], new Object[0])));
+    }
+
+    @Test
+    public void testServiceThrowsException() {
+        ReflectiveMethodInvokeHandler handler = new ReflectiveMethodInvokeHandler();
+        handler.registerService(FooService.class, new FooServiceImpl());
+        // 服务抛出的异常作为原因被包装后抛出
+        Rpc4jException ex = Assert.assertThrows(
+            Rpc4jException.class, () -> handler.invoke(invocation("fail", new Class<?>[0], new Object[0]))
+        );
+        Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+        Assert.assertEquals("failed", ex.getCause().getMessage());
+    }
+
+    private static RpcInvocation invocation(String methodName, Class<?>[] parameterTypes, Object[] arguments) {
+        return new DefaultInvocation(Collections.emptyList(), FooService.class.getName(), methodName, parameterTypes, arguments);
+    }
+
+    public interface FooService {
+        String hello();
+        String hello(String name);
+        String hello(String name, int times);
+        void fail();
+    }
+
+    public static class FooServiceImpl implements FooService {
+        @Override
+        public String hello() {
+            return "hello";
+        }
+        @Override
+        public String hello(String name) {
+            return "hello " + name;
+        }
+        @Override
+        public String hello(String name, int times) {
+            return "hello " + name + " " + times;
+        }
+        @Override
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.common.ComponentManager;
+import io.github.createsequence.common.DefaultComponentManager;
+import io.github.createsequence.rpc4j.core.compress.Compressor;
+import io.github.createsequence.rpc4j.core.compress.NoneCompressor;
+import io.github.createsequence.rpc4j.core.serialize.FastjsonSerializer;
+import io.github.createsequence.rpc4j.core.serialize.Serializer;
+import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocationHandler;
+import io.github.createsequence.rpc4j.core.support.service.Cacheable;
+import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.EncodedPayload;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.Response;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyDecoder;
+import io.github.createsequence.rpc4j.core.transport.codec.Rpc4jNettyEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import lombok.SneakyThrows;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * test for {@link ResponseCacheHandler}
+ *
+ * @author huangchengxing
+ */
+public class ResponseCacheHandlerTest {
+
+    @SneakyThrows
+    @Test
+    public void testCacheHit() {
+        ComponentManager componentManager = componentManager();
+        AtomicInteger invocations = new AtomicInteger();
+        RpcInvocationHandler delegate = rpcInvocation -> ResponseToMessageHandler.createResponseMessage(
+            rpcInvocation, Response.success("hello " + rpcInvocation.getArguments()[0] + invocations.incrementAndGet())
+        );
+        ResponseCacheHandler handler = new ResponseCacheHandler(componentManager, delegate);
+        handler.register(FooService.class, new FooServiceImpl());
+
+        Message<?> first = (Message<?>)handler.invoke(invocation("cached", 1L));
+        Message<?> second = (Message<?>)handler.invoke(invocation("cached", 2L));
+        Assert.assertEquals(1, invocations.get());
+        Assert.assertEquals(2L, second.getRequestId());
+        Assert.assertTrue(second.getPayload() instanceof EncodedPayload);
+        Assert.assertSame(((EncodedPayload)first.getPayload()).getBytes(), ((EncodedPayload)second.getPayload()).getBytes());
+
+        // 不同的参数不会命中缓存
+        handler.invoke(invocation("cached", 3L, "other"));
+        Assert.assertEquals(2, invocations.get());
+        // 未声明缓存的方法不会被缓存
+        handler.invoke(invocation("uncached", 4L));
+        handler.invoke(invocation("uncached", 5L));
+        Assert.assertEquals(4, invocations.get());
+
+        // 缓存的数据可以被正常解码
+        EmbeddedChannel channel = new EmbeddedChannel(
+            new Rpc4jNettyEncoder(componentManager), new Rpc4jNettyDecoder(componentManager)
+        );
+        Assert.assertTrue(channel.writeOutbound(second));
+        ByteBuf encoded = channel.readOutbound();
+        Assert.assertTrue(channel.writeInbound(encoded));
+        Message<?> decoded = channel.readInbound();
+        Assert.assertEquals(2L, decoded.getRequestId());
+        Assert.assertEquals("hello rpc4j1", ((Response)decoded.getPayload()).getResult());
+        channel.finishAndReleaseAll();
+
+        handler.unregister(FooService.class);
+        handler.invoke(invocation("cached", 6L));
+        Assert.assertEquals(5, invocations.get());
+    }
+
+    @SneakyThrows
+    @Test
+    public void testFailedResponseIsNotCached() {
+        AtomicInteger invocations = new AtomicInteger();
+        RpcInvocationHandler delegate = rpcInvocation -> {
+            invocations.incrementAndGet();
+            return ResponseToMessageHandler.createResponseMessage(rpcInvocation, Response.fail("error"));
+        };
+        ResponseCacheHandler handler = new ResponseCacheHandler(componentManager(), delegate);
+        handler.register(FooService.class, new FooServiceImpl());
+        handler.invoke(invocation("cached", 1L));
+        Message<?> message = (Message<?>)handler.invoke(invocation("cached", 2L));
+        Assert.assertEquals(2, invocations.get());
+        Assert.assertTrue(message.getPayload() instanceof Response);
+    }
+
+    private static ComponentManager componentManager() {
+        ComponentManager componentManager = new DefaultComponentManager();
+        componentManager.registerComponent(Compressor.class, Rpc4jProtocol.CompressionType.NONE.getName(), new NoneCompressor());
+        componentManager.registerComponent(Serializer.class, Rpc4jProtocol.SerializationType.FASTJSON.getName(), new FastjsonSerializer());
+        return componentManager;
+    }
+
+    private static RpcInvocation invocation(String methodName, long requestId) {
+        return invocation(methodName, requestId, "rpc4j");
+    }
+
+    private static RpcInvocation invocation(String methodName, long requestId, String argument) {
+        RpcInvocation invocation = new DefaultInvocation(
+            Collections.emptyList(), FooService.class.getName(), methodName,
+            new Class<?>[]{ String.class }, new Object[]{ argument }
+        );
+        invocation.setAttribute(Attributes.REQUEST_ID, requestId);
+        invocation.setAttribute(Attributes.REQUEST_PROTOCOL_VERSION, Rpc4jProtocol.Version.V1.getCode());
+        invocation.setAttribute(Attributes.SERIALIZATION_TYPE, Rpc4jProtocol.SerializationType.FASTJSON.getCode());
+        invocation.setAttribute(Attributes.COMPRESSION_TYPE, Rpc4jProtocol.CompressionType.NONE.getCode());
+        return invocation;
+    }
+
+    private interface FooService {
+        @Cacheable(ttl = 1, maximumSize = 16)
+        String cached(String name);
+        String uncached(String name);
+    }
+
+    private static class FooServiceImpl implements FooService {
+        @Override
+        public String cached(String name) {
+            return name;
+        }
+        @Override
+        public String uncached(String name) {
+            return name;
+        }
+    }
+}
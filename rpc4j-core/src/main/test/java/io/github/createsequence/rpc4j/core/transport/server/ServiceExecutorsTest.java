@@ -0,0 +1,99 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.MethodTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * test for {@link ServiceExecutors}
+ *
+ * @author huangchengxing
+ */
+public class ServiceExecutorsTest {
+
+    @Test
+    public void testSelect() {
+        ServiceExecutors executors = new ServiceExecutors();
+        executors.register(FooService.class, IsolationPolicy.SHARED);
+        Assert.assertNull(executors.select(invocation(FooService.class, "foo")));
+
+        executors.register(FooService.class, IsolationPolicy.perService(1, 1));
+        ExecutorService fooExecutor = executors.select(invocation(FooService.class, "foo"));
+        Assert.assertNotNull(fooExecutor);
+        Assert.assertSame(fooExecutor, executors.select(invocation(FooService.class, "bar")));
+
+        executors.register(FooService.class, IsolationPolicy.perMethod(1, 1));
+        Assert.assertTrue(fooExecutor.isShutdown());
+        ExecutorService methodExecutor = executors.select(invocation(FooService.class, "foo"));
+        Assert.assertNotNull(methodExecutor);
+        Assert.assertNotSame(methodExecutor, executors.select(invocation(FooService.class, "bar")));
+
+        executors.unregister(FooService.class);
+        Assert.assertTrue(methodExecutor.isShutdown());
+        Assert.assertNull(executors.select(invocation(FooService.class, "foo")));
+        executors.close();
+    }
+
+    @Test
+    public void testSelectByMethodSignature() {
+        ServiceExecutors executors = new ServiceExecutors();
+        executors.register(FooService.class, IsolationPolicy.perMethod(1, 1));
+        // 请求携带方法ID时，以方法表中的方法签名选择线程池，结果与按方法信息选择时一致
+        MethodTable methodTable = new MethodTable();
+        methodTable.register(FooService.class);
+        MethodTable.MethodSignature signature = methodTable.getSignature(
+            methodTable.getMethodIds().get(MethodTable.methodKey(FooService.class.getName(), "foo", new Class<?>[0]))
+        );
+        ExecutorService executor = executors.select(new RequestInvocation(null, signature));
+        Assert.assertNotNull(executor);
+        Assert.assertSame(executor, executors.select(invocation(FooService.class, "foo")));
+        Assert.assertNotSame(executor, executors.select(invocation(FooService.class, "bar")));
+        executors.close();
+    }
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws InterruptedException {
+        ServiceExecutors executors = new ServiceExecutors();
+        executors.register(FooService.class, IsolationPolicy.perService(1, 1));
+        ExecutorService executor = executors.select(invocation(FooService.class, "foo"));
+        Assert.assertNotNull(executor);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await();
+        // 唯一的线程被占用，队列只能再容纳一个任务
+        executor.execute(() -> awaitQuietly(release));
+        Assert.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+
+        release.countDown();
+        executors.close();
+    }
+
+    private static RpcInvocation invocation(Class<?> type, String methodName) {
+        return new DefaultInvocation(Collections.emptyList(), type.getName(), methodName, new Class<?>[0], new Object[0]);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface FooService {
+        void foo();
+        void bar();
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * test for {@link StreamPublisher}
+ *
+ * @author huangchengxing
+ */
+public class StreamPublisherTest {
+
+    @Test
+    public void testRequest() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<Integer> stream = IntStream.range(0, 10).boxed().onClose(() -> closed.set(true));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new StreamPublisher<>(stream, Runnable::run).subscribe(subscriber);
+
+        // 仅发送订阅者请求的元素
+        subscriber.subscription.request(3);
+        Assert.assertEquals(List.of(0, 1, 2), subscriber.items);
+        Assert.assertFalse(subscriber.completed);
+        Assert.assertFalse(closed.get());
+
+        // 需求恰好被满足时，也应当发现流已经结束
+        subscriber.subscription.request(7);
+        Assert.assertEquals(IntStream.range(0, 10).boxed().toList(), subscriber.items);
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCancel() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<Integer> stream = Stream.iterate(0, i -> i + 1).onClose(() -> closed.set(true));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        new StreamPublisher<>(stream, Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(5);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+        Assert.assertEquals(List.of(0, 1, 2, 3, 4), subscriber.items);
+        Assert.assertFalse(subscriber.completed);
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test
+    public void testError() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        Stream<Integer> stream = Stream.of(0, 1).map(i -> 1 / i).onClose(() -> closed.set(true));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        StreamPublisher<Integer> publisher = new StreamPublisher<>(stream, Runnable::run);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        Assert.assertTrue(subscriber.error.get() instanceof ArithmeticException);
+        Assert.assertTrue(closed.get());
+
+        // 仅允许被订阅一次
+        RecordingSubscriber another = new RecordingSubscriber();
+        publisher.subscribe(another);
+        Assert.assertTrue(another.error.get() instanceof IllegalStateException);
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Integer> {
+        private final List<Integer> items = new ArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private Flow.Subscription subscription;
+        private boolean completed = false;
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+        @Override
+        public void onError(Throwable throwable) {
+            error.set(throwable);
+        }
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
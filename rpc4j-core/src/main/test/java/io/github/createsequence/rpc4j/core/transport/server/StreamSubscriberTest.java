@@ -0,0 +1,145 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import io.github.createsequence.rpc4j.core.support.handler.DefaultInvocation;
+import io.github.createsequence.rpc4j.core.support.handler.RpcInvocation;
+import io.github.createsequence.rpc4j.core.transport.Attributes;
+import io.github.createsequence.rpc4j.core.transport.Message;
+import io.github.createsequence.rpc4j.core.transport.Rpc4jProtocol;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * test for {@link StreamSubscriber}
+ *
+ * @author huangchengxing
+ */
+public class StreamSubscriberTest {
+
+    @Test
+    public void testMergeFlushesAndStopWhenCancelled() {
+        FlushCounter counter = new FlushCounter();
+        // EmbeddedChannel在写出时会执行全部待执行的任务，因此先暂存写入，直到刷新时再写出
+        EmbeddedChannel channel = new EmbeddedChannel(counter, new DeferredWriteHandler(), new ChannelInboundHandlerAdapter());
+        StreamSubscriber subscriber = new StreamSubscriber(channel.pipeline().lastContext(), invocation(), () -> {});
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+
+        // 同一轮事件循环中写入的流数据仅刷新一次
+        subscriber.onNext("a");
+        subscriber.onNext("b");
+        subscriber.onNext("c");
+        Assert.assertEquals(0, counter.flushes);
+        channel.runPendingTasks();
+        Assert.assertEquals(1, counter.flushes);
+        assertOutbound(channel, Rpc4jProtocol.MessageType.STREAM_ITEM, 3);
+
+        // 订阅被取消后不再写入任何流数据
+        subscriber.cancel();
+        Assert.assertTrue(subscription.cancelled);
+        subscriber.onNext("d");
+        subscriber.onComplete();
+        channel.runPendingTasks();
+        Assert.assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testDeferCreditWhenNotWritable() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1024, 2048));
+        StreamSubscriber subscriber = new StreamSubscriber(channel.pipeline().lastContext(), invocation(), () -> {});
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+        Assert.assertEquals(Rpc4jProtocol.INITIAL_STREAM_CREDIT, subscription.requested);
+
+        // 通道不可写时暂存信用，恢复可写后再向发布者请求
+        channel.write(Unpooled.wrappedBuffer(new byte[4096]));
+        Assert.assertFalse(channel.isWritable());
+        subscriber.addCredit(8);
+        subscriber.addCredit(8);
+        Assert.assertEquals(Rpc4jProtocol.INITIAL_STREAM_CREDIT, subscription.requested);
+        channel.flush();
+        Assert.assertTrue(channel.isWritable());
+        subscriber.requestPendingCredit();
+        Assert.assertEquals(Rpc4jProtocol.INITIAL_STREAM_CREDIT + 16, subscription.requested);
+
+        // 通道可写时直接请求
+        subscriber.addCredit(8);
+        Assert.assertEquals(Rpc4jProtocol.INITIAL_STREAM_CREDIT + 24, subscription.requested);
+        channel.finishAndReleaseAll();
+    }
+
+    private static RpcInvocation invocation() {
+        RpcInvocation invocation = new DefaultInvocation(List.of(), "foo", "bar", new Class<?>[0], new Object[0]);
+        invocation.setAttribute(Attributes.REQUEST_ID, 1L);
+        invocation.setAttribute(Attributes.REQUEST_PROTOCOL_VERSION, Rpc4jProtocol.Version.V1.getCode());
+        invocation.setAttribute(Attributes.COMPRESSION_TYPE, Rpc4jProtocol.CompressionType.NONE.getCode());
+        invocation.setAttribute(Attributes.SERIALIZATION_TYPE, Rpc4jProtocol.SerializationType.FASTJSON.getCode());
+        return invocation;
+    }
+
+    private static void assertOutbound(EmbeddedChannel channel, Rpc4jProtocol.MessageType type, int count) {
+        for (int i = 0; i < count; i++) {
+            Message<?> message = channel.readOutbound();
+            Assert.assertTrue(message.is(type));
+        }
+        Assert.assertNull(channel.readOutbound());
+    }
+
+    /**
+     * 记录请求的元素数以及是否被取消
+     */
+    private static class RecordingSubscription implements Flow.Subscription {
+        private long requested = 0L;
+        private boolean cancelled = false;
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    /**
+     * 暂存写入的消息，直到刷新时才继续写出
+     */
+    private static class DeferredWriteHandler extends ChannelOutboundHandlerAdapter {
+        private final List<Object> messages = new ArrayList<>();
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            messages.add(msg);
+            promise.setSuccess();
+        }
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            messages.forEach(ctx::write);
+            messages.clear();
+            ctx.flush();
+        }
+    }
+
+    /**
+     * 统计实际到达通道的刷新次数
+     */
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+        private int flushes = 0;
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes++;
+            super.flush(ctx);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.createsequence.rpc4j.core.transport.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * test for {@link VegasConcurrencyLimiter}
+ *
+ * @author huangchengxing
+ */
+public class VegasConcurrencyLimiterTest {
+
+    @Test
+    public void testRejectWhenLimitReached() {
+        ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(2, 1, 10);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        limiter.release(0L);
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testIncreaseLimitWhenLatencyIsStable() {
+        ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(10, 1, 100);
+        for (int i = 0; i < 50; i++) {
+            acquireAll(limiter);
+            releaseAll(limiter, 1_000_000L);
+        }
+        Assert.assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    public void testDecreaseLimitWhenLatencyGrows() {
+        ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(50, 1, 100);
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release(1_000_000L);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(10_000_000L);
+        }
+        Assert.assertTrue(limiter.getLimit() < 50);
+    }
+
+    @Test
+    public void testIgnoreSamplesWhenUnderutilized() {
+        ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(10, 1, 100);
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(1_000_000L);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testUpdateLimitOncePerWindow() {
+        ConcurrencyLimiter limiter = new VegasConcurrencyLimiter(50, 1, 100, 5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(1_000_000L);
+        }
+        // 窗口未填满前，即使耗时明显增加也不会调整上限
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(10_000_000L);
+        }
+        Assert.assertEquals(50, limiter.getLimit());
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release(10_000_000L);
+        Assert.assertTrue(limiter.getLimit() < 50);
+    }
+
+    private static void acquireAll(ConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // 占满全部许可
+        }
+    }
+
+    private static void releaseAll(ConcurrencyLimiter limiter, long latencyNanos) {
+        while (limiter.getInFlight() > 0) {
+            limiter.release(latencyNanos);
+        }
+    }
+}